@@ -0,0 +1,73 @@
+package com.john.api.google.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.john.benchmarks.BenchmarkSupport;
+
+/**
+ * Parsing of a Calendar API events response into a <code>Calendar</code> and its <code>Event</code>s, from the raw
+ * response body, as done for every query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarParsingBenchmark {
+	@Param({ "1", "50", "250" })
+	private int events;
+
+	private String calendarJson;
+	private String eventJson;
+
+	@Setup
+	public void setUp() {
+		BenchmarkSupport.quietLogging();
+		StringBuilder items = new StringBuilder();
+		for (int i = 0; i < events; i++) {
+			if (i > 0) {
+				items.append(',');
+			}
+			items.append(event(i));
+		}
+		calendarJson = String.format("{\"kind\":\"calendar#events\",\"summary\":\"Stavi's\",\"timeZone\":\"America/New_York\","
+				+ "\"updated\":\"2024-05-01T12:00:00.000Z\",\"items\":[%s]}", items);
+		eventJson = event(0);
+	}
+
+	@Benchmark
+	public Calendar parseCalendar() {
+		return new Calendar(new JSONObject(calendarJson));
+	}
+
+	@Benchmark
+	public Event parseEvent() {
+		return new Event(new JSONObject(eventJson));
+	}
+
+	private static String event(int i) {
+		int day = 1 + i % 28;
+		return String.format("{\"kind\":\"calendar#event\",\"etag\":\"\\\"31%08d\\\"\",\"id\":\"evt%08d\",\"status\":\"confirmed\","
+				+ "\"htmlLink\":\"https://www.google.com/calendar/event?eid=evt%08d\",\"created\":\"2024-04-01T10:00:00.000Z\","
+				+ "\"updated\":\"2024-04-02T10:00:00.000Z\",\"summary\":\"Stavi's food truck\",\"location\":\"123 Main St, Springfield\","
+				+ "\"creator\":{\"email\":\"owner@example.com\"},\"organizer\":{\"email\":\"owner@example.com\",\"self\":true},"
+				+ "\"start\":{\"dateTime\":\"2024-05-%02dT11:00:00-04:00\",\"timeZone\":\"America/New_York\"},"
+				+ "\"end\":{\"dateTime\":\"2024-05-%02dT14:00:00-04:00\",\"timeZone\":\"America/New_York\"},"
+				+ "\"iCalUID\":\"evt%08d@google.com\",\"sequence\":0,\"reminders\":{\"useDefault\":true},\"eventType\":\"default\"}",
+				i, i, i, day, day, i);
+	}
+}
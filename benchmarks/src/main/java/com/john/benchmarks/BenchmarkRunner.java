@@ -0,0 +1,124 @@
+package com.john.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling, and compares the results to a baseline if one has been recorded.
+ * Accepts the usual JMH command line, e.g. <code>java -jar benchmarks.jar Signing -f 2</code>. The GC profiler is
+ * always added, so every benchmark also reports the bytes it allocates per operation
+ * (<code>gc.alloc.rate.norm</code>). Results are written as JSON to <code>benchmarks/results.json</code> unless
+ * <code>-rff</code> says otherwise, and compared to <code>benchmarks/baseline.json</code>
+ * (<code>-Dbenchmark.baseline</code>) when it exists. A benchmark that got slower, or allocates more, by more than 10%
+ * (<code>-Dbenchmark.threshold</code>) is reported as a regression, and the runner exits with status 1. To record a
+ * new baseline, copy the results file over the baseline.
+ * <p>
+ * No baseline is checked in, as baselines only mean something on the machine they were recorded on. Without one the
+ * runner only records results, so record a baseline on the machine that runs the comparison before relying on it.
+ */
+public final class BenchmarkRunner {
+	private static final String DEFAULT_RESULTS = "benchmarks/results.json";
+	private static final String DEFAULT_BASELINE = "benchmarks/baseline.json";
+	private static final double DEFAULT_THRESHOLD = 0.10;
+	private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+	// allocation measurements are noisy by a few bytes per operation
+	private static final double ALLOCATION_SLACK_BYTES = 16;
+
+	private BenchmarkRunner() {}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+		Path results = Path.of(commandLine.getResult().orElse(DEFAULT_RESULTS));
+		if (!commandLine.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		options.result(results.toString());
+		new Runner(options.build()).run();
+
+		Path baseline = Path.of(System.getProperty("benchmark.baseline", DEFAULT_BASELINE));
+		if (!Files.exists(baseline)) {
+			System.out.println(String.format("No baseline at %s --> not checked for regressions, copy %s there to record one",
+					baseline, results));
+			return;
+		}
+		double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+		if (compare(readResults(baseline), readResults(results), threshold) > 0) {
+			System.exit(1);
+		}
+	}
+
+	// prints how every result compares to the baseline, and returns the number of regressions
+	private static int compare(Map<String, JSONObject> baseline, Map<String, JSONObject> current, double threshold) {
+		int regressions = 0;
+		System.out.println(String.format("%-70s %14s %14s %8s %12s %12s", "Benchmark", "Baseline", "Current", "Change",
+				"Alloc base", "Alloc now"));
+		for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+			JSONObject result = entry.getValue();
+			JSONObject base = baseline.get(entry.getKey());
+			if (base == null) {
+				System.out.println(String.format("%-70s %14s", entry.getKey(), "new"));
+				continue;
+			}
+			double baseScore = base.getJSONObject("primaryMetric").getDouble("score");
+			double score = result.getJSONObject("primaryMetric").getDouble("score");
+			double change = (score - baseScore) / baseScore;
+			// throughput is better when higher, every other mode measures time
+			boolean slower = "thrpt".equals(result.getString("mode")) ? change < -threshold : change > threshold;
+			double baseAllocation = allocation(base);
+			double allocation = allocation(result);
+			boolean allocatesMore = allocation > baseAllocation * (1 + threshold) + ALLOCATION_SLACK_BYTES;
+			String verdict = slower || allocatesMore ? "  REGRESSION" : "";
+			if (!verdict.isEmpty()) {
+				regressions++;
+			}
+			System.out.println(String.format("%-70s %14.3f %14.3f %+7.1f%% %12.0f %12.0f%s", entry.getKey(), baseScore, score,
+					change * 100, baseAllocation, allocation, verdict));
+		}
+		System.out.println(String.format("%d regression(s) beyond %.0f%%", regressions, threshold * 100));
+		return regressions;
+	}
+
+	// JMH results keyed by benchmark and parameters
+	private static Map<String, JSONObject> readResults(Path file) throws IOException {
+		Map<String, JSONObject> results = new LinkedHashMap<>();
+		JSONArray array = new JSONArray(Files.readString(file));
+		for (int i = 0; i < array.length(); i++) {
+			JSONObject result = array.getJSONObject(i);
+			String key = result.getString("benchmark");
+			JSONObject params = result.optJSONObject("params");
+			if (params != null) {
+				Map<String, Object> sorted = new TreeMap<>(params.toMap());
+				key = key.concat(sorted.toString());
+			}
+			results.put(key, result);
+		}
+		return results;
+	}
+
+	private static double allocation(JSONObject result) {
+		JSONObject secondary = result.optJSONObject("secondaryMetrics");
+		if (secondary == null) {
+			return 0;
+		}
+		// older JMH versions prefix profiler metrics with a middle dot
+		JSONObject metric = secondary.has(ALLOCATION_METRIC) ? secondary.getJSONObject(ALLOCATION_METRIC)
+				: secondary.optJSONObject("\u00b7".concat(ALLOCATION_METRIC));
+		return metric == null ? 0 : metric.getDouble("score");
+	}
+}
@@ -0,0 +1,238 @@
+package com.john.benchmarks.loadtest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in for the Google OAuth token endpoint and the Calendar events API, listening on loopback. Every token
+ * request is granted without looking at the JWT. Events requests are answered with the configured number of events,
+ * spread over the coming days and padded to roughly the configured payload size, after the configured latency plus
+ * up to the configured jitter. A fraction of events requests, given by the error rate, is answered with HTTP 503
+ * instead, which the application counts as a failure and retries. Events responses are gzip compressed for
+ * requests that accept it, as the Calendar API does.
+ */
+public final class FakeGoogleServer implements AutoCloseable {
+	private static final String TOKEN_PATH = "/token";
+	private static final String CALENDAR_PATH = "/calendar/v3";
+	private static final String ACCESS_TOKEN = "load-test-access-token";
+	private static final int TOKEN_LIFETIME_SECONDS = 3600;
+	private static final int SERVICE_UNAVAILABLE = 503;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Duration latency;
+	private final Duration jitter;
+	private final double errorRate;
+	private final byte[] events;
+	private final byte[] compressedEvents;
+	private final AtomicLong tokenRequests = new AtomicLong();
+	private final AtomicLong eventsRequests = new AtomicLong();
+	private final AtomicLong injectedErrors = new AtomicLong();
+
+	private FakeGoogleServer(Builder builder) throws IOException {
+		this.latency = builder.latency;
+		this.jitter = builder.jitter;
+		this.errorRate = builder.errorRate;
+		this.events = renderEvents(builder.eventCount, builder.payloadBytes);
+		this.compressedEvents = gzip(events);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		executor = Executors.newCachedThreadPool(r -> {
+			Thread thread = new Thread(r, "fake-google");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext(TOKEN_PATH, this::grantToken);
+		server.createContext(CALENDAR_PATH, this::listEvents);
+		server.start();
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/** The URL to use for <code>google.oauth.tokenurl</code> */
+	public String getTokenUrl() {
+		return baseUrl().concat(TOKEN_PATH);
+	}
+
+	/** The URL to use for <code>google.calendar.baseurl</code> */
+	public String getCalendarBaseUrl() {
+		return baseUrl().concat(CALENDAR_PATH);
+	}
+
+	public long getTokenRequests() {
+		return tokenRequests.get();
+	}
+
+	public long getEventsRequests() {
+		return eventsRequests.get();
+	}
+
+	public long getInjectedErrors() {
+		return injectedErrors.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private String baseUrl() {
+		return String.format("http://%s:%d", server.getAddress().getHostString(), server.getAddress().getPort());
+	}
+
+	private void grantToken(HttpExchange exchange) throws IOException {
+		tokenRequests.incrementAndGet();
+		drain(exchange);
+		JSONObject token = new JSONObject();
+		token.put("access_token", ACCESS_TOKEN);
+		token.put("token_type", "Bearer");
+		token.put("expires_in", TOKEN_LIFETIME_SECONDS);
+		respond(exchange, 200, token.toString().getBytes(UTF_8));
+	}
+
+	private void listEvents(HttpExchange exchange) throws IOException {
+		eventsRequests.incrementAndGet();
+		drain(exchange);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long delay = latency.toMillis() + (jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1));
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (random.nextDouble() < errorRate) {
+			injectedErrors.incrementAndGet();
+			respond(exchange, SERVICE_UNAVAILABLE, "{\"error\":\"backendError\"}".getBytes(UTF_8));
+		} else if (exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of()).stream().anyMatch(value -> value.contains("gzip"))) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			respond(exchange, 200, compressedEvents);
+		} else {
+			respond(exchange, 200, events);
+		}
+	}
+
+	private static void drain(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(bytes);
+		} catch (IOException e) {
+			// not possible in memory
+			throw new IllegalStateException(e);
+		}
+		return compressed.toByteArray();
+	}
+
+	// rendered once, so serving a response costs the same however large it is
+	private static byte[] renderEvents(int eventCount, int payloadBytes) {
+		ZonedDateTime start = ZonedDateTime.now().plusHours(1).withMinute(0).withSecond(0).withNano(0);
+		JSONArray items = new JSONArray();
+		for (int i = 0; i < eventCount; i++) {
+			ZonedDateTime eventStart = start.plusDays(i % 7).plusHours(i / 7);
+			JSONObject event = new JSONObject();
+			event.put("id", String.format("loadtest%06d", i));
+			event.put("status", "confirmed");
+			event.put("summary", "Stavi's Food Truck");
+			event.put("location", String.format("Load Test Brewery #%d, 100 Main St", i));
+			event.put("start", new JSONObject().put("dateTime", eventStart.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+			event.put("end", new JSONObject().put("dateTime", eventStart.plusHours(3).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+			items.put(event);
+		}
+		JSONObject calendar = new JSONObject();
+		calendar.put("kind", "calendar#events");
+		calendar.put("summary", "Stavi's Schedule");
+		calendar.put("timeZone", start.getZone().getId());
+		calendar.put("items", items);
+		int padding = payloadBytes - calendar.toString().length();
+		if (padding > 0 && eventCount > 0) {
+			String description = "x".repeat(padding / eventCount);
+			for (int i = 0; i < eventCount; i++) {
+				items.getJSONObject(i).put("description", description);
+			}
+		}
+		return calendar.toString().getBytes(UTF_8);
+	}
+
+	public static final class Builder {
+		private Duration latency = Duration.ZERO;
+		private Duration jitter = Duration.ZERO;
+		private double errorRate;
+		private int eventCount = 5;
+		private int payloadBytes;
+
+		private Builder() {}
+
+		/** How long every events request takes at least */
+		public Builder latency(Duration latency) {
+			this.latency = latency;
+			return this;
+		}
+
+		/** A random delay of up to the given duration that is added to the latency */
+		public Builder jitter(Duration jitter) {
+			this.jitter = jitter;
+			return this;
+		}
+
+		/** The fraction of events requests, between 0 and 1, that fail with HTTP 503 */
+		public Builder errorRate(double errorRate) {
+			this.errorRate = errorRate;
+			return this;
+		}
+
+		public Builder eventCount(int eventCount) {
+			this.eventCount = eventCount;
+			return this;
+		}
+
+		/** The approximate size of an events response. Responses are never smaller than their events. */
+		public Builder payloadBytes(int payloadBytes) {
+			this.payloadBytes = payloadBytes;
+			return this;
+		}
+
+		public FakeGoogleServer build() throws IOException {
+			if (errorRate < 0 || errorRate > 1) {
+				throw new IllegalStateException(String.format("The error rate must be between 0 and 1, not %s", errorRate));
+			}
+			return new FakeGoogleServer(this);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.john.benchmarks.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.john.api.google.model.Event;
+import com.john.application.QueryCycleListener;
+import com.john.application.StavisQueryOperator;
+import com.john.benchmarks.BenchmarkSupport;
+import com.john.notifications.model.PhoneProvider;
+import com.john.notifications.model.Recipient;
+import com.john.utils.providers.ConfigurationStore;
+import com.john.utils.providers.SubscriberProvider;
+import com.john.utils.providers.SubscriberStoreCompiler;
+
+/**
+ * Runs the real <code>StavisQueryOperator</code> against a <code>FakeGoogleServer</code> and an <code>SmtpSink</code>
+ * for growing numbers of subscribers, and reports for each the cycle latency, the notifications sent per second and
+ * the heap used. The application is configured as usual, so the harness has to be started from a copy of a
+ * deployment directory (with <code>resources/application.properties</code> and the encrypted resources) and with the
+ * usual runtime arguments, e.g.
+ * <code>java -cp benchmarks.jar com.john.benchmarks.loadtest.LoadTestHarness --secrets-location=...</code>.
+ * The harness adds arguments of its own that point the Calendar, OAuth and SMTP endpoints at the stand-ins, and it
+ * replaces the compiled subscriber file <code>resources/active_subscribers.bin</code> with generated subscribers,
+ * so it must never be run from the deployment directory itself.
+ * <p>
+ * The stand-ins and the sweep are configured with system properties:
+ * <ul>
+ * <li><code>loadtest.subscribers</code> - the subscriber counts, default <code>1,10,100,1000,10000,100000</code></li>
+ * <li><code>loadtest.sms</code> - the fraction of subscribers that also get text messages, default 0.2</li>
+ * <li><code>loadtest.cycles</code> - measured cycles per subscriber count, after one warm-up cycle, default 3</li>
+ * <li><code>loadtest.latency</code> and <code>loadtest.jitter</code> - Calendar API latency in ms, default 50 and 0</li>
+ * <li><code>loadtest.errorrate</code> - the fraction of Calendar API requests that fail, default 0</li>
+ * <li><code>loadtest.events</code> and <code>loadtest.payload</code> - events per response and its approximate size
+ * in bytes, default 5 and 0</li>
+ * <li><code>loadtest.results</code> - where the results are written as JSON, default
+ * <code>loadtest-results.json</code></li>
+ * </ul>
+ */
+public final class LoadTestHarness {
+	private static final Path SUBSCRIBER_FILE = Path.of("./resources/active_subscribers.json");
+	private static final Duration SUBSCRIBER_RELOAD_TIMEOUT = Duration.ofSeconds(30);
+	private static final String DEFAULT_SUBSCRIBER_COUNTS = "1,10,100,1000,10000,100000";
+
+	private LoadTestHarness() {}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int[] subscriberCounts = Arrays.stream(System.getProperty("loadtest.subscribers", DEFAULT_SUBSCRIBER_COUNTS).split(","))
+				.map(String::trim).mapToInt(Integer::parseInt).toArray();
+		double smsRatio = Double.parseDouble(System.getProperty("loadtest.sms", "0.2"));
+		int cycles = Math.max(1, Integer.getInteger("loadtest.cycles", 3));
+		Path results = Path.of(System.getProperty("loadtest.results", "loadtest-results.json"));
+
+		BenchmarkSupport.quietLogging();
+		try (FakeGoogleServer google = FakeGoogleServer.newBuilder()
+				.latency(Duration.ofMillis(Long.getLong("loadtest.latency", 50)))
+				.jitter(Duration.ofMillis(Long.getLong("loadtest.jitter", 0)))
+				.errorRate(Double.parseDouble(System.getProperty("loadtest.errorrate", "0")))
+				.eventCount(Integer.getInteger("loadtest.events", 5))
+				.payloadBytes(Integer.getInteger("loadtest.payload", 0)).build();
+				SmtpSink smtp = new SmtpSink()) {
+			List<String> arguments = new ArrayList<>(Arrays.asList(args));
+			// added last, so they win over anything given on the command line
+			arguments.add("--mockdata.enabled=false");
+			arguments.add("--google.oauth.tokenurl=".concat(google.getTokenUrl()));
+			arguments.add("--google.calendar.baseurl=".concat(google.getCalendarBaseUrl()));
+			arguments.add("--email.smtp.server=".concat(smtp.getHost()));
+			arguments.add("--email.smtp.port=" + smtp.getPort());
+			arguments.add("--email.smtp.transport=SMTP");
+			arguments.add("--notifications.enabled=true");
+			arguments.add("--email.enabled=true");
+			arguments.add("--sms.enabled=true");
+			ConfigurationStore.init(arguments.toArray(new String[0]));
+
+			StavisQueryOperator operator = new StavisQueryOperator();
+			AtomicReference<Exception> failure = new AtomicReference<>();
+			operator.addCycleListener(new QueryCycleListener() {
+				@Override
+				public void cycleSucceeded(List<Event> events) {
+					failure.set(null);
+				}
+
+				@Override
+				public void cycleFailed(Exception e) {
+					failure.set(e);
+				}
+			});
+
+			System.out.println(String.format("%12s %12s %12s %12s %14s %12s %12s", "Subscribers", "Messages", "Median ms",
+					"Max ms", "Messages/s", "Peak MB", "Retained MB"));
+			JSONArray steps = new JSONArray();
+			for (int subscriberCount : subscriberCounts) {
+				useSubscribers(subscriberCount, smsRatio);
+				// the first cycle warms up the JIT, the connection pool and the token cache
+				operator.run();
+				resetPeakHeap();
+				long[] latencies = new long[cycles];
+				long messagesBefore = smtp.getMessages();
+				for (int i = 0; i < cycles; i++) {
+					long start = System.nanoTime();
+					operator.run();
+					latencies[i] = System.nanoTime() - start;
+					if (failure.get() != null) {
+						System.out.println(String.format("Cycle failed: %s", failure.get()));
+					}
+				}
+				long messages = smtp.getMessages() - messagesBefore;
+				steps.put(report(subscriberCount, messages, latencies));
+			}
+			Files.writeString(results, new JSONObject().put("calendarRequests", google.getEventsRequests())
+					.put("tokenRequests", google.getTokenRequests()).put("injectedErrors", google.getInjectedErrors())
+					.put("smtpConnections", smtp.getConnections()).put("steps", steps).toString(2));
+			System.out.println(String.format("Results written to %s", results.toAbsolutePath()));
+		}
+		// the application's schedulers and watchers are not running, but its executors may keep the JVM alive
+		System.exit(0);
+	}
+
+	private static JSONObject report(int subscribers, long messages, long[] latencies) {
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		long total = Arrays.stream(latencies).sum();
+		double medianMillis = sorted[sorted.length / 2] / 1e6;
+		double maxMillis = sorted[sorted.length - 1] / 1e6;
+		double messagesPerSecond = total == 0 ? 0 : messages / (total / 1e9);
+		long peakHeap = peakHeap();
+		long retainedHeap = retainedHeap();
+		System.out.println(String.format("%12d %12d %12.1f %12.1f %14.1f %12.1f %12.1f", subscribers, messages, medianMillis,
+				maxMillis, messagesPerSecond, peakHeap / 1048576.0, retainedHeap / 1048576.0));
+		return new JSONObject().put("subscribers", subscribers).put("messages", messages).put("medianMillis", medianMillis)
+				.put("maxMillis", maxMillis).put("messagesPerSecond", messagesPerSecond).put("peakHeapBytes", peakHeap)
+				.put("retainedHeapBytes", retainedHeap);
+	}
+
+	// compiles the subscribers and moves them into place, then waits until the application has reloaded them
+	private static void useSubscribers(int count, double smsRatio) throws IOException, InterruptedException {
+		Recipient[] recipients = new Recipient[count];
+		int smsEvery = smsRatio <= 0 ? Integer.MAX_VALUE : (int) Math.max(1, Math.round(1 / smsRatio));
+		for (int i = 0; i < count; i++) {
+			boolean sms = i % smsEvery == 0;
+			recipients[i] = new Recipient("Subscriber", String.valueOf(i), String.format("subscriber%d@loadtest.invalid", i),
+					sms ? String.format("555%07d", i % 10000000) : "", sms ? PhoneProvider.VERIZON : null, true, sms);
+		}
+		Path compiled = SubscriberStoreCompiler.compiledPathFor(SUBSCRIBER_FILE);
+		Path temp = compiled.resolveSibling(compiled.getFileName() + ".tmp");
+		Files.createDirectories(compiled.getParent());
+		SubscriberStoreCompiler.compile(recipients, temp);
+		Files.move(temp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		long deadline = System.nanoTime() + SUBSCRIBER_RELOAD_TIMEOUT.toNanos();
+		while (SubscriberProvider.getSubscribers().size() != count) {
+			if (System.nanoTime() > deadline) {
+				throw new IllegalStateException(String.format("%s was not reloaded within %s", compiled, SUBSCRIBER_RELOAD_TIMEOUT));
+			}
+			Thread.sleep(50);
+		}
+	}
+
+	private static void resetPeakHeap() {
+		heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+	}
+
+	private static long peakHeap() {
+		return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+	}
+
+	// what is left after a full collection, e.g. the subscribers themselves
+	private static long retainedHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static List<MemoryPoolMXBean> heapPools() {
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+}
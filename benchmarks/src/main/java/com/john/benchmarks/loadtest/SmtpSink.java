@@ -0,0 +1,161 @@
+package com.john.benchmarks.loadtest;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An SMTP server on loopback that accepts every message and keeps nothing but counts, so that a load test's heap
+ * measurements only reflect the application. It speaks just enough SMTP for a mail client that does not use
+ * STARTTLS (<code>email.smtp.transport=SMTP</code>): AUTH PLAIN and LOGIN are offered and any credentials are
+ * accepted. Every connection is served by its own daemon thread.
+ */
+public final class SmtpSink implements AutoCloseable {
+	private final ServerSocket serverSocket;
+	private final Thread acceptor;
+	private final AtomicLong connections = new AtomicLong();
+	private final AtomicLong messages = new AtomicLong();
+	private final AtomicLong recipients = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+
+	public SmtpSink() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		acceptor = new Thread(this::accept, "smtp-sink");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public String getHost() {
+		return serverSocket.getInetAddress().getHostAddress();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public long getConnections() {
+		return connections.get();
+	}
+
+	/** Returns how many messages were accepted so far */
+	public long getMessages() {
+		return messages.get();
+	}
+
+	public long getRecipients() {
+		return recipients.get();
+	}
+
+	/** Returns the combined size of all accepted messages */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				Thread session = new Thread(() -> serve(socket), "smtp-sink-session");
+				session.setDaemon(true);
+				session.start();
+			} catch (SocketException e) {
+				// closed
+				return;
+			} catch (IOException e) {
+				System.err.println(String.format("SMTP sink failed to accept a connection: %s", e.getMessage()));
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+				OutputStream out = socket.getOutputStream()) {
+			reply(out, "220 localhost SMTP sink ready");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.length() < 4 ? line.toUpperCase(Locale.ROOT) : line.substring(0, 4).toUpperCase(Locale.ROOT);
+				switch (command) {
+				case "EHLO":
+					reply(out, "250-localhost\r\n250-AUTH PLAIN LOGIN\r\n250-8BITMIME\r\n250 SIZE 0");
+					break;
+				case "HELO":
+					reply(out, "250 localhost");
+					break;
+				case "AUTH":
+					authenticate(line, in, out);
+					break;
+				case "RCPT":
+					recipients.incrementAndGet();
+					reply(out, "250 OK");
+					break;
+				case "DATA":
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					readData(in);
+					messages.incrementAndGet();
+					reply(out, "250 OK queued");
+					break;
+				case "QUIT":
+					reply(out, "221 Bye");
+					return;
+				case "MAIL":
+				case "RSET":
+				case "NOOP":
+					reply(out, "250 OK");
+					break;
+				default:
+					reply(out, "502 Command not implemented");
+				}
+			}
+		} catch (IOException e) {
+			// the client went away, which is not the sink's concern
+		}
+	}
+
+	// any credentials are accepted, they only need to be read
+	private static void authenticate(String line, BufferedReader in, OutputStream out) throws IOException {
+		String[] parts = line.split(" ");
+		String mechanism = parts.length > 1 ? parts[1].toUpperCase(Locale.ROOT) : "";
+		if ("LOGIN".equals(mechanism)) {
+			if (parts.length < 3) {
+				reply(out, "334 VXNlcm5hbWU6");
+				in.readLine();
+			}
+			reply(out, "334 UGFzc3dvcmQ6");
+			in.readLine();
+		} else if ("PLAIN".equals(mechanism) && parts.length < 3) {
+			reply(out, "334 ");
+			in.readLine();
+		}
+		reply(out, "235 Authentication successful");
+	}
+
+	private void readData(BufferedReader in) throws IOException {
+		long size = 0;
+		String line;
+		while ((line = in.readLine()) != null && !".".equals(line)) {
+			size += line.length() + 2;
+		}
+		bytes.addAndGet(size);
+	}
+
+	private static void reply(OutputStream out, String reply) throws IOException {
+		out.write(reply.concat("\r\n").getBytes(US_ASCII));
+		out.flush();
+	}
+}
@@ -0,0 +1,40 @@
+package com.john.notifications;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Fitting SMS messages to the carrier limit with <code>TextNotificationService.limitMessageSize</code> */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSizeBenchmark {
+	private static final short MAX_LENGTH = 160;
+	private static final String SUBJECT = "Alert";
+	private static final String SENDER = "sophies.stavis.searcher@gmail.com";
+
+	private final String fitting = "123 Main St, Springfield on 2024-05-01 at 11:00";
+	private final String truncated = fitting + " with 4 other date(s) scheduled! Check your email for more details."
+			+ " Stavi's will be serving its full menu all day long.";
+
+	@Benchmark
+	public String fits() {
+		return TextNotificationService.limitMessageSize(SUBJECT, fitting, SENDER, MAX_LENGTH);
+	}
+
+	@Benchmark
+	public String truncates() {
+		return TextNotificationService.limitMessageSize(SUBJECT, truncated, SENDER, MAX_LENGTH);
+	}
+}
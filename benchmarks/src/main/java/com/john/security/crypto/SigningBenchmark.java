@@ -0,0 +1,53 @@
+package com.john.security.crypto;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.john.benchmarks.BenchmarkSupport;
+
+/**
+ * Signing of a JWT-sized payload with <code>SHA256WithRSASigningStrategy</code>, using a freshly generated 2048 bit
+ * key, the size of a Google service account key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+	private SHA256WithRSASigningStrategy strategy;
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkSupport.quietLogging();
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		String privateKey = Base64.getEncoder().encodeToString(generator.generateKeyPair().getPrivate().getEncoded());
+		strategy = new SHA256WithRSASigningStrategy(privateKey);
+		payload = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.eyJpc3MiOiJxdWVyeWNhbGVuZGFyQHNvcGhpZXMtc3RhdmktcmVhcmNoZXIuaWFt"
+				.concat("LmdzZXJ2aWNlYWNjb3VudC5jb20iLCJzY29wZSI6Imh0dHBzOi8vd3d3Lmdvb2dsZWFwaXMuY29tL2F1dGgvY2FsZW5kYXIucmVh")
+				.concat("ZG9ubHkiLCJhdWQiOiJodHRwczovL29hdXRoMi5nb29nbGVhcGlzLmNvbS90b2tlbiIsImlhdCI6MTcxNDU2NDgwMCwiZXhwIjox")
+				.getBytes(UTF_8);
+	}
+
+	@Benchmark
+	public byte[] sign() {
+		return strategy.sign(payload);
+	}
+}
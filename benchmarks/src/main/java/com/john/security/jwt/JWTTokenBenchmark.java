@@ -0,0 +1,94 @@
+package com.john.security.jwt;
+
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.john.benchmarks.BenchmarkSupport;
+import com.john.security.crypto.SHA256WithRSASigningStrategy;
+import com.john.security.crypto.SigningStrategy;
+
+/**
+ * <code>JWTTokenTemplate.toTransmissionReadyToken</code> with the claims of a Google token, once with real RSA
+ * signing and once with a signing strategy that does nothing, which isolates the JSON and Base64 encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTTokenBenchmark {
+	private static final byte[] NO_SIGNATURE = new byte[256];
+
+	private JWTToken signedToken;
+	private JWTToken unsignedToken;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkSupport.quietLogging();
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		String privateKey = Base64.getEncoder().encodeToString(generator.generateKeyPair().getPrivate().getEncoded());
+		signedToken = new BenchmarkToken(new SHA256WithRSASigningStrategy(privateKey));
+		unsignedToken = new BenchmarkToken(new SigningStrategy() {
+			@Override
+			public byte[] sign(byte[] toSign) {
+				return NO_SIGNATURE;
+			}
+
+			@Override
+			public String getStrategyName() {
+				return "None";
+			}
+		});
+	}
+
+	@Benchmark
+	public String signedToken() {
+		return signedToken.toTransmissionReadyToken();
+	}
+
+	@Benchmark
+	public String encodingOnly() {
+		return unsignedToken.toTransmissionReadyToken();
+	}
+
+	// the claims of a GoogleJWTToken, which is a singleton that cannot be built with a key of our own
+	private static final class BenchmarkToken extends JWTTokenTemplate {
+		private BenchmarkToken(SigningStrategy signingStrategy) {
+			super(signingStrategy);
+		}
+
+		@Override
+		protected String resolveAlg() {
+			return "RS256";
+		}
+
+		@Override
+		protected String resolveAud() {
+			return "https://oauth2.googleapis.com/token";
+		}
+
+		@Override
+		protected String resolveIss() {
+			return "querycalendar@sophies-stavi-searcher.iam.gserviceaccount.com";
+		}
+
+		@Override
+		protected String resolveScope() {
+			return "https://www.googleapis.com/auth/calendar.readonly";
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.john.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.john.benchmarks.BenchmarkSupport;
+import com.saltweaver.salting.api.SaltingStrategy;
+
+/**
+ * Reading encrypted resources the way <code>FileReader.standardDecryptionReader</code> composes its readers, for
+ * both the v1 (Base64 AES/ECB) and v2 (chunked AES/GCM) formats, and the plain <code>SimpleFileReader</code> beneath
+ * them. The sizes match the resources actually read: a few dozen bytes for the mail password and about 2KB for the
+ * Google private key. The real salting strategy comes from the secrets file, so a fixed-length salt stands in for it.
+ * A new reader chain is built for every read, as the readers discard their key after one use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileReaderBenchmark {
+	private static final int SALT_LENGTH = 16;
+	private static final int BUFFER_SIZE = 200;
+	private static final SaltingStrategy SALT = content -> Arrays.copyOfRange(content, SALT_LENGTH, content.length);
+
+	@Param({ "32", "2048" })
+	private int size;
+
+	private byte[] key;
+	private Path v1File;
+	private Path v2File;
+
+	@Setup
+	public void setUp() throws Exception {
+		BenchmarkSupport.quietLogging();
+		SecureRandom random = new SecureRandom();
+		byte[] aesKey = new byte[16];
+		random.nextBytes(aesKey);
+		key = Base64.getEncoder().encode(aesKey);
+		SecretKeySpec keySpec = new SecretKeySpec(aesKey, "AES");
+
+		byte[] salted = new byte[SALT_LENGTH + size];
+		random.nextBytes(salted);
+		Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+		cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+		v1File = Files.createTempFile("benchmark-v1", ".txt");
+		Files.write(v1File, Base64.getEncoder().encode(cipher.doFinal(salted)));
+		v2File = Files.createTempFile("benchmark-v2", ".txt");
+		Files.write(v2File, ChunkedGcmFormat.encrypt(salted, keySpec, ChunkedGcmFormat.DEFAULT_CHUNK_SIZE));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(v1File);
+		Files.deleteIfExists(v2File);
+	}
+
+	@Benchmark
+	public byte[] simpleRead() throws IOException {
+		return new SimpleFileReader(v1File.toString(), BUFFER_SIZE).readFile();
+	}
+
+	@Benchmark
+	public String decryptV1() throws IOException {
+		FileReader reader = new SaltedFileReader(new EncryptedFileReader(new Base64DecodingFileReader(
+				new SimpleFileReader(v1File.toString(), BUFFER_SIZE)), key), SALT);
+		return FileReader.toUTF8String(reader.readFile());
+	}
+
+	@Benchmark
+	public String decryptV2() throws IOException {
+		FileReader reader = new SaltedFileReader(new ChunkedGcmFileReader(new SimpleFileReader(v2File.toString(), BUFFER_SIZE),
+				key), SALT);
+		return new String(reader.readFile(), UTF_8);
+	}
+}
@@ -0,0 +1,51 @@
+package com.john.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.john.benchmarks.BenchmarkSupport;
+
+/** Rendering of the notification email body with <code>HtmlBuilder</code>, the way the query operator builds it */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlBuilderBenchmark {
+	@Param({ "1", "10", "50" })
+	private int events;
+
+	private String[] lines;
+
+	@Setup
+	public void setUp() {
+		BenchmarkSupport.quietLogging();
+		lines = new String[events];
+		for (int i = 0; i < events; i++) {
+			lines[i] = String.format("123 Main St, Springfield on 2024-05-%02d at 11:00 AM", 1 + i % 28);
+		}
+	}
+
+	@Benchmark
+	public String render() {
+		HtmlBuilder html = HtmlBuilder.newBuilder()
+				.addElement(HtmlTags.SPAN, "Great news! Stavi's has events scheduled in the next 14 days!")
+				.addEmptyElement(HtmlTags.BREAK).addEmptyElement(HtmlTags.BREAK).openTag(HtmlTags.UNORDERED_LIST);
+		for (String line : lines) {
+			html.addElement(HtmlTags.LINE_ITEM, line);
+		}
+		return html.closeTag(HtmlTags.UNORDERED_LIST).build();
+	}
+}
@@ -1,81 +1,106 @@
 package com.john.api.google;
 
-import static com.john.utils.Utils.logExecutionDuration;
-
 import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 import org.json.JSONObject;
 
 import com.john.api.google.model.Calendar;
 import com.john.api.google.model.Event;
+import com.john.api.google.quota.GoogleApi;
+import com.john.api.google.quota.GoogleQuotaManager;
+import com.john.api.google.quota.QuotaLane;
 import com.john.security.oauth.google.GoogleAccessToken;
 import com.john.utils.http.HttpClientHelper;
 import com.john.utils.http.HttpHeader;
+import com.john.utils.http.RequestThrottle;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.MockDataProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+import com.john.utils.resilience.Endpoint;
 
+/**
+ * Reads events from a Google calendar. Recurring events are expanded into their instances by the Calendar API, and
+ * events are returned in order of their start time.
+ */
 public class CalendarServiceImpl {
-	private static final Logger log = Logger.getLogger(CalendarServiceImpl.class.getCanonicalName());
-	private static final String BASE_URL = "https://www.googleapis.com/calendar/v3/calendars/%s/events";
+	private static final AppLogger log = AppLogger.getLogger(CalendarServiceImpl.class.getCanonicalName());
+	private static final String DEFAULT_BASE_URL = "https://www.googleapis.com/calendar/v3";
+	private static final String EVENTS_URL = "%s/calendars/%s/events";
 	private static final String TIME_MIN_PARAM = "timeMin";
 	private static final String TIME_MAX_PARAM = "timeMax";
 	private static final String QUERY_PARAM = "q";
+	private static final String SINGLE_EVENTS_PARAM = "singleEvents";
+	private static final String ORDER_BY_PARAM = "orderBy";
+	private static final String FIELDS_PARAM = "fields";
+	// only what Calendar and Event read, which leaves out attendees, descriptions, links and the like
+	private static final String EVENT_FIELDS = "summary,timeZone,items(id,status,summary,location,start/dateTime,end/dateTime)";
+	private static final String REQUEST_METRIC = "stavis_calendar_request";
+	private static final String REQUEST_METRIC_HELP = "Google Calendar API requests";
+	private static final Timer GET_CALENDAR_TIMER = MetricsRegistry.timer(REQUEST_METRIC, REQUEST_METRIC_HELP, "operation", "getCalendar");
+	private static final Timer GET_EVENTS_TIMER = MetricsRegistry.timer(REQUEST_METRIC, REQUEST_METRIC_HELP, "operation", "getEventsForNextNDays");
+	private static final Timer SEARCH_EVENTS_TIMER = MetricsRegistry.timer(REQUEST_METRIC, REQUEST_METRIC_HELP, "operation", "searchEventsForNextNDays");
 	
 	private final String URL;
+	private final RequestThrottle throttle;
 	
 	public CalendarServiceImpl(String calendarId) {
-		URL = String.format(BASE_URL, calendarId);
+		URL = String.format(EVENTS_URL, ApplicationPropertyProvider.getProperty(Property.GOOGLE_CALENDAR_BASE_URL, DEFAULT_BASE_URL),
+				calendarId);
+		throttle = GoogleQuotaManager.throttle(GoogleApi.CALENDAR, calendarId, QuotaLane.BULK);
 	}
 
 	public Optional<Calendar> getCalendar(GoogleAccessToken token) {
-		final String operationName = "getCalendar";
-		final long start = System.currentTimeMillis();
+		final long start = GET_CALENDAR_TIMER.start();
 		if (ApplicationPropertyProvider.shouldUseMocks()) {
-			logExecutionDuration(start, operationName, log);
+			GET_CALENDAR_TIMER.stop(start);
 			return Optional.of(new Calendar(MockDataProvider.getMockCalendarListData()));
 		}
-		HttpResponse<String> response = HttpClientHelper.GET(URL, Collections.emptyMap(), HttpHeader.JSON_CONTENT_TYPE,
-				new HttpHeader.HttpBearerAuthorizationHeader(token.getRawAccessToken())).get();		
-		logExecutionDuration(start, operationName, log);
-		return Optional.of(new Calendar(new JSONObject(response.body())));
+		try {
+			HttpResponse<String> response = HttpClientHelper.GET(Endpoint.CALENDAR, throttle, URL, Collections.emptyMap(), HttpHeader.JSON_CONTENT_TYPE,
+					new HttpHeader.HttpBearerAuthorizationHeader(token.getRawAccessToken()));
+			Calendar calendar = new Calendar(new JSONObject(response.body()));
+			GET_CALENDAR_TIMER.stop(start);
+			return Optional.of(calendar);
+		} catch (RuntimeException e) {
+			GET_CALENDAR_TIMER.stopWithError(start);
+			throw e;
+		}
 	}
 	
 	public Optional<List<Event>> getEventsForNextNDays(GoogleAccessToken token, int numDays) {
-		final String operationName = "getEventsForNextNDays";
-		final long start = System.currentTimeMillis();
+		final long start = GET_EVENTS_TIMER.start();
 		if (ApplicationPropertyProvider.shouldUseMocks()) {
 			Calendar calendar = new Calendar(MockDataProvider.getMockEventsNextNDays());
-			logExecutionDuration(start, operationName, log);
-			return Optional.of(Arrays.asList(calendar.getEvents()));
+			GET_EVENTS_TIMER.stop(start);
+			return Optional.of(sortedByStart(calendar.getEvents()));
 		}
 		
 		Map<String, String> qParams = new HashMap<>();
 		ZonedDateTime now = ZonedDateTime.now();
 		qParams.put(TIME_MIN_PARAM, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
 		qParams.put(TIME_MAX_PARAM, now.plusDays(numDays).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-		HttpResponse<String> response = HttpClientHelper.GET(URL, qParams, HttpHeader.JSON_CONTENT_TYPE,
-				new HttpHeader.HttpBearerAuthorizationHeader(token.getRawAccessToken())).get();
-		Calendar calendar = new Calendar(new JSONObject(response.body()));
-		logExecutionDuration(start, operationName, log);
-		return Optional.of(Arrays.asList(calendar.getEvents()));
+		return fetchEvents(token, qParams, GET_EVENTS_TIMER, start);
 	}
 	
 	public Optional<List<Event>> searchEventsForNextNDays(GoogleAccessToken token, int numDays, String query) {
-		final String operationName = "searchEventsForNextNDays";
-		final long start = System.currentTimeMillis();
+		final long start = SEARCH_EVENTS_TIMER.start();
 		if (ApplicationPropertyProvider.shouldUseMocks()) {
 			Calendar calendar = new Calendar(MockDataProvider.getSearchedEventsNextNDays());
-			logExecutionDuration(start, operationName, log);
-			return Optional.of(Arrays.asList(calendar.getEvents()));
+			SEARCH_EVENTS_TIMER.stop(start);
+			return Optional.of(sortedByStart(calendar.getEvents()));
 		}
 		
 		Map<String, String> qParams = new HashMap<>();
@@ -83,11 +108,32 @@ public class CalendarServiceImpl {
 		qParams.put(TIME_MIN_PARAM, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
 		qParams.put(TIME_MAX_PARAM, now.plusDays(numDays).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
 		qParams.put(QUERY_PARAM, query);
-		HttpResponse<String> response = HttpClientHelper.GET(URL, qParams, HttpHeader.JSON_CONTENT_TYPE,
-				new HttpHeader.HttpBearerAuthorizationHeader(token.getRawAccessToken())).get();
-		Calendar calendar = new Calendar(new JSONObject(response.body()));
-		logExecutionDuration(start, operationName, log);
-		return Optional.of(Arrays.asList(calendar.getEvents()));
+		return fetchEvents(token, qParams, SEARCH_EVENTS_TIMER, start);
+	}
+	
+	private Optional<List<Event>> fetchEvents(GoogleAccessToken token, Map<String, String> qParams, Timer timer, long start) {
+		// the Calendar API orders by start time only once recurring events are expanded
+		qParams.put(SINGLE_EVENTS_PARAM, "true");
+		qParams.put(ORDER_BY_PARAM, "startTime");
+		qParams.put(FIELDS_PARAM, EVENT_FIELDS);
+		try {
+			HttpResponse<String> response = HttpClientHelper.GET(Endpoint.CALENDAR, throttle, URL, qParams, HttpHeader.JSON_CONTENT_TYPE,
+					new HttpHeader.HttpBearerAuthorizationHeader(token.getRawAccessToken()));
+			Calendar calendar = new Calendar(new JSONObject(response.body()));
+			timer.stop(start);
+			return Optional.of(Arrays.asList(calendar.getEvents()));
+		} catch (RuntimeException e) {
+			timer.stopWithError(start);
+			throw e;
+		}
+	}
+	
+	// mock data is in no particular order, unlike the responses of the Calendar API, which order events in different
+	// time zones by the instant they start
+	private static List<Event> sortedByStart(Event[] events) {
+		List<Event> sorted = Arrays.asList(events);
+		sorted.sort(Comparator.comparing(Event::getStart, Comparator.nullsLast(OffsetDateTime.timeLineOrder())));
+		return sorted;
 	}
 
 }
@@ -1,6 +1,6 @@
 package com.john.api.google.model;
 
-import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 
 import org.json.JSONObject;
@@ -12,8 +12,8 @@ public class Event extends JSONBasedObject implements Comparable<Event> {
 	private final String status;
 	private final String summary;
 	private final String location;
-	private final LocalDateTime start;
-	private final LocalDateTime end;
+	private final OffsetDateTime start;
+	private final OffsetDateTime end;
 	
 	public Event(JSONObject object) {
 		super(object);
@@ -24,14 +24,14 @@ public class Event extends JSONBasedObject implements Comparable<Event> {
 		
 		String startStr = (String) object.optQuery("/start/dateTime");
 		if (startStr != null) {
-			start = LocalDateTime.parse(startStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+			start = OffsetDateTime.parse(startStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
 		} else {
 			start = null;
 		}
 		
 		String endStr = (String) object.optQuery("/end/dateTime");
 		if (endStr != null) {
-			end = LocalDateTime.parse(endStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+			end = OffsetDateTime.parse(endStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
 		} else {
 			end = null;
 		}
@@ -53,11 +53,11 @@ public class Event extends JSONBasedObject implements Comparable<Event> {
 		return location;
 	}
 	
-	public LocalDateTime getStart() {
+	public OffsetDateTime getStart() {
 		return start;
 	}
 	
-	public LocalDateTime getEnd() {
+	public OffsetDateTime getEnd() {
 		return end;
 	}
 
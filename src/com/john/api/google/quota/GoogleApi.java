@@ -0,0 +1,32 @@
+package com.john.api.google.quota;
+
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/** The Google APIs whose usage is limited by the <code>GoogleQuotaManager</code>, each with its own quota */
+public enum GoogleApi {
+	CALENDAR("calendar", Property.QUOTA_CALENDAR_PER_MINUTE, 500),
+	OAUTH("oauth", Property.QUOTA_OAUTH_PER_MINUTE, 60);
+
+	private final String value;
+	private final Property perMinute;
+	private final long defaultPerMinute;
+
+	GoogleApi(String value, Property perMinute, long defaultPerMinute) {
+		this.value = value;
+		this.perMinute = perMinute;
+		this.defaultPerMinute = defaultPerMinute;
+	}
+
+	Property getPerMinuteProperty() {
+		return perMinute;
+	}
+
+	long getDefaultPerMinute() {
+		return defaultPerMinute;
+	}
+
+	@Override
+	public String toString() {
+		return value;
+	}
+}
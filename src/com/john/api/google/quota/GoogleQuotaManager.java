@@ -0,0 +1,143 @@
+package com.john.api.google.quota;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.john.utils.http.RequestThrottle;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+import com.john.utils.resilience.ThrottledException;
+
+/**
+ * Keeps requests to googleapis.com within Google's quotas. Every request takes a permit from three token buckets:
+ * one shared by the whole project, one for its <code>GoogleApi</code>, and, for calendar requests, one for the
+ * calendar it reads. A request waits until all of them have a permit, then takes them together, so one busy
+ * calendar cannot use up the quota of the others. Waiting requests are served by <code>QuotaLane</code>. A request
+ * that cannot be granted a permit within <code>quota.maxwait</code> seconds is rejected with a
+ * <code>ThrottledException</code> instead of being sent into a 403/429 response. Usage is counted per API and per
+ * calendar, in the <code>MetricsRegistry</code>.
+ */
+public final class GoogleQuotaManager {
+	private static final AppLogger log = AppLogger.getLogger(GoogleQuotaManager.class.getCanonicalName());
+	private static final long DEFAULT_PROJECT_PER_MINUTE = 600;
+	private static final long DEFAULT_PER_CALENDAR_PER_MINUTE = 60;
+	private static final long DEFAULT_MAX_WAIT_SECONDS = 30;
+
+	private static final Object lock = new Object();
+	// buckets are guarded by lock
+	private static final TokenBucket projectBucket = new TokenBucket(
+			() -> ApplicationPropertyProvider.getLongProperty(Property.QUOTA_PROJECT_PER_MINUTE, DEFAULT_PROJECT_PER_MINUTE));
+	private static final Map<GoogleApi, TokenBucket> apiBuckets = new EnumMap<>(GoogleApi.class);
+	private static final Map<String, TokenBucket> calendarBuckets = new HashMap<>();
+	private static int waitingPriorityRequests;
+
+	private static final Map<GoogleApi, QuotaUsage> apiUsage = new EnumMap<>(GoogleApi.class);
+	private static final Map<String, QuotaUsage> calendarUsage = new ConcurrentHashMap<>();
+
+	static {
+		for (GoogleApi api : GoogleApi.values()) {
+			apiBuckets.put(api, new TokenBucket(
+					() -> ApplicationPropertyProvider.getLongProperty(api.getPerMinuteProperty(), api.getDefaultPerMinute())));
+			apiUsage.put(api, new QuotaUsage("api", api.toString()));
+		}
+	}
+
+	private GoogleQuotaManager() {}
+
+	/** Returns a throttle for requests to the given API, that are not specific to a calendar */
+	public static RequestThrottle throttle(GoogleApi api, QuotaLane lane) {
+		return throttle(api, null, lane);
+	}
+
+	/** Returns a throttle for requests to the given API about the given calendar */
+	public static RequestThrottle throttle(GoogleApi api, String calendarId, QuotaLane lane) {
+		return () -> acquire(api, calendarId, lane);
+	}
+
+	/**
+	 * Blocks until a request to the given API, about the given calendar if not <code>null</code>, may be sent.
+	 * @throws ThrottledException if no permit was granted within the maximum wait
+	 */
+	public static void acquire(GoogleApi api, String calendarId, QuotaLane lane) throws InterruptedException {
+		final long start = System.nanoTime();
+		final long deadline = start + TimeUnit.SECONDS.toNanos(
+				ApplicationPropertyProvider.getLongProperty(Property.QUOTA_MAX_WAIT_SECONDS, DEFAULT_MAX_WAIT_SECONDS));
+		QuotaUsage usageOfCalendar = calendarId == null ? null : calendarUsage.computeIfAbsent(calendarId, id -> new QuotaUsage("calendar", id));
+		boolean delayed = false;
+		synchronized (lock) {
+			TokenBucket calendarBucket = calendarId == null ? null : calendarBuckets.computeIfAbsent(calendarId,
+					id -> new TokenBucket(() -> ApplicationPropertyProvider.getLongProperty(Property.QUOTA_PER_CALENDAR_PER_MINUTE,
+							DEFAULT_PER_CALENDAR_PER_MINUTE)));
+			TokenBucket apiBucket = apiBuckets.get(api);
+			if (lane == QuotaLane.PRIORITY) {
+				waitingPriorityRequests++;
+			}
+			try {
+				while (true) {
+					long now = System.nanoTime();
+					long waitNanos;
+					boolean behindPriority = lane == QuotaLane.BULK && waitingPriorityRequests > 0;
+					if (behindPriority) {
+						// woken up again once the priority requests have been served
+						waitNanos = deadline - now;
+					} else {
+						waitNanos = Math.max(projectBucket.nanosUntilAvailable(now), apiBucket.nanosUntilAvailable(now));
+						if (calendarBucket != null) {
+							waitNanos = Math.max(waitNanos, calendarBucket.nanosUntilAvailable(now));
+						}
+						if (waitNanos == 0) {
+							projectBucket.take();
+							apiBucket.take();
+							if (calendarBucket != null) {
+								calendarBucket.take();
+							}
+							break;
+						}
+					}
+					// a permit that only frees up after the deadline is not worth waiting for
+					if (now >= deadline || (!behindPriority && now + waitNanos > deadline)) {
+						apiUsage.get(api).recordRejected();
+						if (usageOfCalendar != null) {
+							usageOfCalendar.recordRejected();
+						}
+						log.warning("No {0} quota available for a {1} request within the maximum wait --> request rejected",
+								api, lane);
+						throw new ThrottledException(String.format("Google %s quota exhausted", api));
+					}
+					delayed = true;
+					NANOSECONDS.timedWait(lock, waitNanos);
+				}
+			} finally {
+				if (lane == QuotaLane.PRIORITY) {
+					waitingPriorityRequests--;
+					lock.notifyAll();
+				}
+			}
+		}
+		long waited = delayed ? System.nanoTime() - start : 0;
+		apiUsage.get(api).recordGranted(waited);
+		if (usageOfCalendar != null) {
+			usageOfCalendar.recordGranted(waited);
+		}
+		if (delayed) {
+			log.fine("{0} request waited {1}ms for {2} quota", lane, NANOSECONDS.toMillis(waited), api);
+		}
+	}
+
+	/** Returns the usage of the given API */
+	public static QuotaUsage getUsage(GoogleApi api) {
+		return apiUsage.get(api);
+	}
+
+	/** Returns the usage of every calendar requested so far, by calendar id */
+	public static Map<String, QuotaUsage> getCalendarUsage() {
+		return Collections.unmodifiableMap(calendarUsage);
+	}
+}
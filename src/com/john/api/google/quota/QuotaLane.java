@@ -0,0 +1,10 @@
+package com.john.api.google.quota;
+
+/**
+ * The priority of a request waiting for quota. While any <code>PRIORITY</code> request is waiting, no
+ * <code>BULK</code> request is granted a permit, so for example a token refresh never queues behind a batch of
+ * calendar queries it is needed for.
+ */
+public enum QuotaLane {
+	PRIORITY, BULK
+}
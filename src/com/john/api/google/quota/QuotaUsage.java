@@ -0,0 +1,66 @@
+package com.john.api.google.quota;
+
+import java.util.concurrent.TimeUnit;
+
+import com.john.utils.metrics.Counter;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * Running totals of the permits requested from one quota, whether an API or a single calendar. The totals are
+ * <code>MetricsRegistry</code> counters labelled with the quota they belong to.
+ */
+public final class QuotaUsage {
+	private final Counter granted;
+	private final Counter delayed;
+	private final Counter rejected;
+	private final Counter waitNanos;
+
+	QuotaUsage(String labelName, String labelValue) {
+		granted = MetricsRegistry.counter("stavis_google_quota_granted_total", "Google API requests granted a permit",
+				labelName, labelValue);
+		delayed = MetricsRegistry.counter("stavis_google_quota_delayed_total", "Google API requests that waited for a permit",
+				labelName, labelValue);
+		rejected = MetricsRegistry.counter("stavis_google_quota_rejected_total",
+				"Google API requests rejected for lack of quota", labelName, labelValue);
+		waitNanos = MetricsRegistry.counter("stavis_google_quota_wait_nanoseconds_total",
+				"Time Google API requests spent waiting for a permit", labelName, labelValue);
+	}
+
+	void recordGranted(long waitedNanos) {
+		granted.increment();
+		if (waitedNanos > 0) {
+			delayed.increment();
+			waitNanos.add(waitedNanos);
+		}
+	}
+
+	void recordRejected() {
+		rejected.increment();
+	}
+
+	/** The number of requests that were sent */
+	public long getGranted() {
+		return granted.get();
+	}
+
+	/** The number of sent requests that had to wait for a permit */
+	public long getDelayed() {
+		return delayed.get();
+	}
+
+	/** The number of requests that gave up waiting for a permit and were never sent */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/** The total time sent requests spent waiting for a permit */
+	public long getWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[granted=%d, delayed=%d, rejected=%d, waited=%dms]", getGranted(), getDelayed(),
+				getRejected(), getWaitMillis());
+	}
+}
@@ -0,0 +1,47 @@
+package com.john.api.google.quota;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket refilled continuously at a rate given in permits per minute, holding at most
+ * <code>BURST_SECONDS</code> worth of permits. The rate is read on every refill, so it follows property changes.
+ * A rate of zero or less disables the bucket. Not thread-safe: buckets are guarded by the
+ * <code>GoogleQuotaManager</code>.
+ */
+final class TokenBucket {
+	private static final long BURST_SECONDS = 10;
+	private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+	private final LongSupplier perMinute;
+	private double permits;
+	private long lastRefillNanos;
+
+	TokenBucket(LongSupplier perMinute) {
+		this.perMinute = perMinute;
+		this.permits = capacity(perMinute.getAsLong());
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/** Returns how long until a permit is available, or zero if one is available now */
+	long nanosUntilAvailable(long nowNanos) {
+		long rate = perMinute.getAsLong();
+		if (rate <= 0) {
+			return 0;
+		}
+		permits = Math.min(capacity(rate), permits + (nowNanos - lastRefillNanos) * rate / NANOS_PER_MINUTE);
+		lastRefillNanos = nowNanos;
+		return permits >= 1 ? 0 : (long) Math.ceil((1 - permits) * NANOS_PER_MINUTE / rate);
+	}
+
+	/** Takes a permit, which must have been found available by <code>nanosUntilAvailable</code> */
+	void take() {
+		if (perMinute.getAsLong() > 0) {
+			permits -= 1;
+		}
+	}
+
+	private static double capacity(long perMinute) {
+		return Math.max(1, perMinute * BURST_SECONDS / 60.0);
+	}
+}
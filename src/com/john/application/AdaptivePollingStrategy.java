@@ -0,0 +1,122 @@
+package com.john.application;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+import com.john.api.google.model.Event;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * Computes the interval until the next query from what recent queries observed, for use as the interval of the
+ * query job. The interval starts from how far away the nearest upcoming event is: the minimum interval within
+ * <code>NEAR_EVENT</code> of it, growing linearly to the maximum interval once it is <code>FAR_EVENT</code> away or
+ * when nothing is scheduled. During quiet hours the maximum interval is used unless an event is near. The interval
+ * then shrinks when recent queries kept finding changes, and grows when recent queries failed, so a struggling API
+ * is not hammered. The result is always kept between the configured minimum and maximum.
+ */
+public final class AdaptivePollingStrategy implements Supplier<Duration>, QueryCycleListener {
+	private static final AppLogger log = AppLogger.getLogger(AdaptivePollingStrategy.class.getCanonicalName());
+	private static final Duration NEAR_EVENT = Duration.ofHours(1);
+	private static final Duration FAR_EVENT = Duration.ofHours(24);
+	private static final int HISTORY_SIZE = 12;
+	private static final double MAX_CHANGE_SPEEDUP = 0.5;
+	private static final double MAX_ERROR_BACKOFF = 4;
+	private static final int DEFAULT_MAX_FREQUENCY_MULTIPLIER = 4;
+
+	// outcomes of the most recent cycles, guarded by this
+	private final Deque<Boolean> recentChanges = new ArrayDeque<>(HISTORY_SIZE);
+	private final Deque<Boolean> recentErrors = new ArrayDeque<>(HISTORY_SIZE);
+	private List<String> lastEventKeys;
+	private OffsetDateTime nextEventStart;
+	private Duration lastInterval;
+
+	@Override
+	public synchronized void cycleSucceeded(List<Event> events) {
+		OffsetDateTime now = OffsetDateTime.now();
+		nextEventStart = events.stream()
+				.map(Event::getStart)
+				.filter(Objects::nonNull)
+				.filter(start -> start.isAfter(now))
+				.min(OffsetDateTime.timeLineOrder())
+				.orElse(null);
+		// an event counts as changed when its id, status or times differ, the rest is not shown to anyone
+		List<String> eventKeys = events.stream()
+				.map(event -> String.join("|", event.getId(), event.getStatus(), String.valueOf(event.getStart()),
+						String.valueOf(event.getEnd())))
+				.sorted()
+				.collect(Collectors.toList());
+		if (lastEventKeys != null) {
+			record(recentChanges, !eventKeys.equals(lastEventKeys));
+		}
+		lastEventKeys = eventKeys;
+		record(recentErrors, false);
+	}
+
+	@Override
+	public synchronized void cycleFailed(Exception e) {
+		record(recentErrors, true);
+	}
+
+	@Override
+	public synchronized Duration get() {
+		long minMinutes = Math.max(1, ApplicationPropertyProvider.getLongProperty(Property.QUERY_ADAPTIVE_MIN_FREQUENCY,
+				ApplicationPropertyProvider.getLongProperty(Property.QUERY_FREQUENCY_MINUTES)));
+		long maxMinutes = Math.max(minMinutes, ApplicationPropertyProvider.getLongProperty(Property.QUERY_ADAPTIVE_MAX_FREQUENCY,
+				minMinutes * DEFAULT_MAX_FREQUENCY_MULTIPLIER));
+		OffsetDateTime now = OffsetDateTime.now();
+
+		double proximity = 1;
+		if (nextEventStart != null) {
+			Duration untilEvent = Duration.between(now, nextEventStart);
+			proximity = (double) (untilEvent.toMinutes() - NEAR_EVENT.toMinutes()) / (FAR_EVENT.toMinutes() - NEAR_EVENT.toMinutes());
+			proximity = Math.min(1, Math.max(0, proximity));
+		}
+		if (proximity > 0 && isQuietHours(now.toLocalTime())) {
+			proximity = 1;
+		}
+		double minutes = minMinutes + (maxMinutes - minMinutes) * proximity;
+		minutes *= 1 - MAX_CHANGE_SPEEDUP * rate(recentChanges);
+		minutes *= 1 + (MAX_ERROR_BACKOFF - 1) * rate(recentErrors);
+
+		Duration interval = Duration.ofSeconds(Math.round(Math.min(maxMinutes, Math.max(minMinutes, minutes)) * 60));
+		// the scheduler asks for the interval more than once per run, so only changes are worth an info line
+		log.log(interval.equals(lastInterval) ? Level.FINE : Level.INFO,
+				"Query interval is {0} (next event at {1}, change rate {2,number,0.00}, error rate {3,number,0.00})",
+				interval, nextEventStart, rate(recentChanges), rate(recentErrors));
+		lastInterval = interval;
+		return interval;
+	}
+
+	private static boolean isQuietHours(LocalTime time) {
+		if (!ApplicationPropertyProvider.hasProperty(Property.QUERY_ADAPTIVE_QUIET_START)
+				|| !ApplicationPropertyProvider.hasProperty(Property.QUERY_ADAPTIVE_QUIET_END)) {
+			return false;
+		}
+		int hour = time.getHour();
+		int start = ApplicationPropertyProvider.getIntProperty(Property.QUERY_ADAPTIVE_QUIET_START);
+		int end = ApplicationPropertyProvider.getIntProperty(Property.QUERY_ADAPTIVE_QUIET_END);
+		// quiet hours usually span midnight, e.g. 22 to 6
+		return start <= end ? hour >= start && hour < end : hour >= start || hour < end;
+	}
+
+	private static void record(Deque<Boolean> history, boolean outcome) {
+		if (history.size() == HISTORY_SIZE) {
+			history.removeFirst();
+		}
+		history.addLast(outcome);
+	}
+
+	private static double rate(Deque<Boolean> history) {
+		return history.isEmpty() ? 0 : (double) history.stream().filter(Boolean::booleanValue).count() / history.size();
+	}
+}
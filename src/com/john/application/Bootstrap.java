@@ -0,0 +1,165 @@
+package com.john.application;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Builds the application's expensive components before the first query needs them, instead of whenever their
+ * classes happen to load. Components run concurrently, each as soon as the components it depends on have finished,
+ * and a component whose dependency failed is still attempted. Failures are logged, but never stop the application.
+ * Whether a component that could not be built is tried again on first use depends on the component: one built in a
+ * static initializer, such as <code>SubscriberProvider</code>, leaves its class unusable until the application is
+ * restarted, as every later use fails with a <code>NoClassDefFoundError</code>. Once every component has finished,
+ * or the timeout has passed, a report of how long each one took is logged. Instances are created with
+ * <code>newBuilder</code>.
+ */
+public final class Bootstrap {
+	private static final AppLogger log = AppLogger.getLogger(Bootstrap.class.getCanonicalName());
+
+	private final Map<String, Component> components;
+	private final Duration timeout;
+
+	private Bootstrap(Builder builder) {
+		this.components = builder.components;
+		this.timeout = builder.timeout;
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/** Builds every component, and returns once all of them have finished or the timeout has passed */
+	public void run() {
+		if (components.isEmpty()) {
+			return;
+		}
+		final long start = System.nanoTime();
+		AtomicInteger threads = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(components.size(), r -> {
+			Thread thread = new Thread(r, "bootstrap-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		Map<String, CompletableFuture<Void>> started = new LinkedHashMap<>();
+		for (Component component : components.values()) {
+			CompletableFuture<?>[] dependencies = component.dependencies.stream().map(started::get)
+					.toArray(CompletableFuture<?>[]::new);
+			// components never complete exceptionally, so a failed dependency does not keep its dependents from running
+			started.put(component.name, CompletableFuture.allOf(dependencies).thenRunAsync(component::build, executor));
+		}
+		try {
+			CompletableFuture.allOf(started.values().toArray(CompletableFuture<?>[]::new)).get(timeout.toMillis(),
+					TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			log.warning("Bootstrap did not finish within {0} --> continuing while it completes in the background", timeout);
+		} catch (ExecutionException e) {
+			// every component handles its own failures
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+		}
+		report(System.nanoTime() - start);
+	}
+
+	private void report(long elapsedNanos) {
+		StringBuilder report = new StringBuilder("Startup timing:");
+		long sequentialMillis = 0;
+		boolean finished = true;
+		for (Component component : components.values()) {
+			report.append(String.format("%n  %-24s %s", component.name, component.describe()));
+			sequentialMillis += Math.max(0, component.elapsedMillis);
+			finished &= component.elapsedMillis >= 0;
+		}
+		report.append(String.format("%n  %-24s %dms", "Bootstrap", TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+		if (finished) {
+			report.append(String.format(" (%dms if built one after another)", sequentialMillis));
+		}
+		report.append(String.format("%n  %-24s %dms", "Since JVM start", ManagementFactory.getRuntimeMXBean().getUptime()));
+		log.info(report.toString());
+	}
+
+	private static final class Component {
+		private final String name;
+		private final Runnable task;
+		private final List<String> dependencies;
+		private volatile long elapsedMillis = -1;
+		private volatile String failure;
+
+		private Component(String name, Runnable task, List<String> dependencies) {
+			this.name = name;
+			this.task = task;
+			this.dependencies = dependencies;
+		}
+
+		private void build() {
+			final long start = System.nanoTime();
+			try {
+				task.run();
+			} catch (ExceptionInInitializerError e) {
+				failure = String.valueOf(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+				log.severe("Failed to build {0} during bootstrap due to [{1}] --> it cannot be used until a restart", name,
+						failure);
+			} catch (RuntimeException | Error e) {
+				failure = String.valueOf(e.getMessage());
+				log.severe("Failed to build {0} during bootstrap due to [{1}] --> it may be built again on first use", name,
+						failure);
+			} finally {
+				elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			}
+		}
+
+		private String describe() {
+			if (elapsedMillis < 0) {
+				return "still running";
+			}
+			return failure == null ? String.format("%dms", elapsedMillis) : String.format("%dms, failed", elapsedMillis);
+		}
+	}
+
+	public static final class Builder {
+		private final Map<String, Component> components = new LinkedHashMap<>();
+		private Duration timeout = Duration.ofSeconds(30);
+
+		private Builder() {}
+
+		/**
+		 * Adds a component that is built once the named components, which must have been added before it,
+		 * have finished.
+		 */
+		public Builder component(String name, Runnable task, String... dependsOn) {
+			List<String> dependencies = new ArrayList<>();
+			for (String dependency : dependsOn) {
+				if (!components.containsKey(dependency)) {
+					throw new IllegalStateException(String.format("%s depends on %s, which has not been added", name, dependency));
+				}
+				dependencies.add(dependency);
+			}
+			components.put(name, new Component(name, task, dependencies));
+			return this;
+		}
+
+		/** How long <code>run</code> waits for the components at most */
+		public Builder timeout(Duration timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
+		public Bootstrap build() {
+			return new Bootstrap(this);
+		}
+	}
+}
@@ -1,14 +1,20 @@
 package com.john.application;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
+import java.time.Duration;
+import java.time.Instant;
 
+import com.john.application.leadership.LeaderElection;
+import com.john.application.scheduling.JobClass;
+import com.john.application.scheduling.JobScheduler;
+import com.john.application.scheduling.MissedRunPolicy;
+import com.john.application.scheduling.ScheduledJob;
 import com.john.notifications.EmailNotificationService;
 import com.john.notifications.TextNotificationService;
 import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.SubscriberProvider;
+import com.john.utils.providers.SubscriberSnapshot;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 /**
@@ -16,47 +22,70 @@ import com.john.utils.providers.ApplicationPropertyProvider.Property;
  * to all registered admins to indicate the application is still operational.
  */
 public class HealthChecker {
-	private static final Logger log = Logger.getLogger(HealthChecker.class.getCanonicalName());
-	private static final Recipient[] ADMINS;
+	private static final AppLogger log = AppLogger.getLogger(HealthChecker.class.getCanonicalName());
+	public static final String JOB_NAME = "Health Checker";
 	
-	static {
-		ADMINS = SubscriberProvider.getAdmins();
+	/**
+	 * Schedules a notification to be sent to every admin recipient using the provided
+	 * <code>JobScheduler</code>. It starts after an initial delay as specified in
+	 * application.properties, or 1 minute if none is specified. Changes to the health check frequency
+	 * are applied without a restart.
+	 * */
+	public static void start(JobScheduler scheduler) {
+		start(scheduler, null, null);
 	}
 	
 	/**
-	 * Schedules a notification to be sent to every admin recipient using the provided
-	 * <code>ScheduledExecutorService</code>. It starts after an initial delay as specified in
-	 * application.properties, or 1 minute if none is specified.
+	 * Like <code>start(JobScheduler)</code>, but continues the schedule of a previous run of the application
+	 * whose last health check was at the given time, if it is not null, instead of waiting for the initial delay.
+	 * If a <code>LeaderElection</code> is given, health checks are only sent while this instance is the leader.
 	 * */
-	public static void start(ScheduledExecutorService executor) {
+	public static void start(JobScheduler scheduler, Instant lastRun, LeaderElection leaderElection) {
 		if (ApplicationPropertyProvider.getBooleanProperty(Property.HEALTHCHECKER_ENABLED)) {
-			final long frequency = ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_FREQUENCY);
-			final long initialDelay = ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_INITIAL_DELAY, 1);
-			log.info(String.format("Starting automatic health checks with a frequency of %d minute(s)", frequency));
-			executor.scheduleAtFixedRate(() -> {
-				try {
-					log.info("The health checker is now running in Thread #" + Thread.currentThread().getId());
-					var email = new EmailNotificationService();
-					var text = new TextNotificationService();
-					String subject = ApplicationPropertyProvider.getProperty(Property.HEALTHCHECKER_SUBJECT);
-					String message = ApplicationPropertyProvider.getProperty(Property.HEALTHCHECKER_MESSAGE);
-					for (Recipient admin : ADMINS) {
-						if (admin.getEmailEnabled()) {
-							email.notify(admin, subject, message);
-						}
-						if (admin.getSmsEnabled()) {
-							text.notify(admin, subject, message);
-						}
-					}
-					log.info("The Health Checker has completed this notification cycle");
-				} catch (Exception e) {
-					log.warning(String.format(
-							"Exception was caught during the scheduled health check: [%s]. The health check will try again in %d minutes.",
-							e.getMessage(), frequency));
+			log.info("Starting automatic health checks with a frequency of {0} minute(s)",
+					ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_FREQUENCY));
+			ScheduledJob.Builder builder = ScheduledJob.newBuilder(JOB_NAME, () -> checkHealth(leaderElection))
+					.jobClass(JobClass.HEALTH_CHECK)
+					.initialDelay(Duration.ofMinutes(ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_INITIAL_DELAY, 1)))
+					.interval(() -> Duration.ofMinutes(ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_FREQUENCY)))
+					.jitter(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_JITTER_SECONDS, 0)))
+					.missedRunPolicy(StaviSearcherApplication.getMissedRunPolicy(Property.HEALTHCHECKER_MISSED_RUN_POLICY, MissedRunPolicy.SKIP));
+			if (lastRun != null) {
+				builder.resumeFrom(lastRun);
+			}
+			ScheduledJob healthChecks = scheduler.schedule(builder.build());
+			ApplicationPropertyProvider.addChangeListener(changed -> {
+				if (changed.contains(Property.HEALTHCHECKER_FREQUENCY)) {
+					healthChecks.reschedule();
 				}
-			}, initialDelay, frequency, TimeUnit.MINUTES);
+			});
 		} else {
 			log.warning("Health checks are disabled");
 		}
 	}
+	
+	private static void checkHealth(LeaderElection leaderElection) {
+		if (leaderElection != null && !leaderElection.verify()) {
+			log.info("This instance is on standby --> the leader sends the health checks");
+			return;
+		}
+		try {
+			log.info("The health checker is now running in Thread #{0}", Thread.currentThread().getId());
+			var email = new EmailNotificationService();
+			var text = new TextNotificationService();
+			String subject = ApplicationPropertyProvider.getProperty(Property.HEALTHCHECKER_SUBJECT);
+			String message = ApplicationPropertyProvider.getProperty(Property.HEALTHCHECKER_MESSAGE);
+			SubscriberSnapshot admins = SubscriberProvider.getAdmins();
+			for (Recipient admin : admins.getEmailRecipients()) {
+				email.notify(admin, subject, message);
+			}
+			for (Recipient admin : admins.getSmsRecipients()) {
+				text.notify(admin, subject, message);
+			}
+			log.info("The Health Checker has completed this notification cycle");
+		} catch (Exception e) {
+			log.warning("Exception was caught during the scheduled health check: [{0}]. The health check will try again in {1} minutes.",
+					e.getMessage(), ApplicationPropertyProvider.getLongProperty(Property.HEALTHCHECKER_FREQUENCY));
+		}
+	}
 }
@@ -0,0 +1,58 @@
+package com.john.application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+
+/**
+ * How far the <code>StavisQueryOperator</code> got notifying subscribers in a cycle. Subscribers are notified in the
+ * order of their <code>SubscriberSnapshot</code>, so counts are enough to tell who was notified, as long as the
+ * notifications and the subscribers are the same. The fingerprint identifies both.
+ */
+public final class NotificationProgress {
+	private final String fingerprint;
+	private final AtomicInteger emailsSent;
+	private final AtomicInteger textsSent;
+
+	NotificationProgress(String fingerprint) {
+		this(fingerprint, 0, 0);
+	}
+
+	private NotificationProgress(String fingerprint, int emailsSent, int textsSent) {
+		this.fingerprint = fingerprint;
+		this.emailsSent = new AtomicInteger(emailsSent);
+		this.textsSent = new AtomicInteger(textsSent);
+	}
+
+	public NotificationProgress(JSONObject object) {
+		this(object.getString("fingerprint"), object.getInt("emailsSent"), object.getInt("textsSent"));
+	}
+
+	public JSONObject toJSON() {
+		JSONObject object = new JSONObject();
+		object.put("fingerprint", fingerprint);
+		object.put("emailsSent", emailsSent.get());
+		object.put("textsSent", textsSent.get());
+		return object;
+	}
+
+	String getFingerprint() {
+		return fingerprint;
+	}
+
+	int getEmailsSent() {
+		return emailsSent.get();
+	}
+
+	int getTextsSent() {
+		return textsSent.get();
+	}
+
+	void emailSent() {
+		emailsSent.incrementAndGet();
+	}
+
+	void textSent() {
+		textsSent.incrementAndGet();
+	}
+}
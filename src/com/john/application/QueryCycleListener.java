@@ -0,0 +1,17 @@
+package com.john.application;
+
+import java.util.List;
+
+import com.john.api.google.model.Event;
+
+/**
+ * Notified by the <code>StavisQueryOperator</code> at the end of every notification cycle. Listeners run on the
+ * query thread, so they should return quickly and must not throw.
+ */
+public interface QueryCycleListener {
+	/** Called after a cycle completed with the events it found, sorted by start time */
+	void cycleSucceeded(List<Event> events);
+
+	/** Called after a cycle was aborted by the given exception */
+	void cycleFailed(Exception e);
+}
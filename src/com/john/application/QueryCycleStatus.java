@@ -0,0 +1,93 @@
+package com.john.application;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import com.john.api.google.model.Event;
+
+/**
+ * Remembers the outcome of the most recent notification cycles, for reporting by the <code>StatusServer</code>.
+ * It is saved with every checkpoint, so the outcome is still known after a restart.
+ */
+public final class QueryCycleStatus implements QueryCycleListener {
+	private Instant lastCycle;
+	private Instant lastSuccess;
+	private boolean lastCycleSucceeded;
+	private int lastEventCount;
+	private String lastError;
+	private int consecutiveFailures;
+
+	@Override
+	public synchronized void cycleSucceeded(List<Event> events) {
+		lastCycle = lastSuccess = Instant.now();
+		lastCycleSucceeded = true;
+		lastEventCount = events.size();
+		lastError = null;
+		consecutiveFailures = 0;
+	}
+
+	@Override
+	public synchronized void cycleFailed(Exception e) {
+		lastCycle = Instant.now();
+		lastCycleSucceeded = false;
+		lastError = e.toString();
+		consecutiveFailures++;
+	}
+
+	/** Returns when the last cycle finished, or <code>null</code> if none has */
+	public synchronized Instant getLastCycle() {
+		return lastCycle;
+	}
+
+	/** Returns when the last successful cycle finished, or <code>null</code> if none has */
+	public synchronized Instant getLastSuccess() {
+		return lastSuccess;
+	}
+
+	public synchronized boolean lastCycleSucceeded() {
+		return lastCycleSucceeded;
+	}
+
+	/** Returns how many events the last successful cycle found */
+	public synchronized int getLastEventCount() {
+		return lastEventCount;
+	}
+
+	/** Returns the exception that aborted the last cycle, or <code>null</code> if it succeeded */
+	public synchronized String getLastError() {
+		return lastError;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	public synchronized JSONObject toJSON() {
+		JSONObject object = new JSONObject();
+		if (lastCycle != null) {
+			object.put("lastCycle", lastCycle.toString());
+		}
+		if (lastSuccess != null) {
+			object.put("lastSuccess", lastSuccess.toString());
+		}
+		object.put("lastCycleSucceeded", lastCycleSucceeded);
+		object.put("lastEventCount", lastEventCount);
+		if (lastError != null) {
+			object.put("lastError", lastError);
+		}
+		object.put("consecutiveFailures", consecutiveFailures);
+		return object;
+	}
+
+	/** Restores the outcome saved by <code>toJSON</code> */
+	public synchronized void restore(JSONObject object) {
+		lastCycle = object.has("lastCycle") ? Instant.parse(object.getString("lastCycle")) : null;
+		lastSuccess = object.has("lastSuccess") ? Instant.parse(object.getString("lastSuccess")) : null;
+		lastCycleSucceeded = object.optBoolean("lastCycleSucceeded", false);
+		lastEventCount = object.optInt("lastEventCount", 0);
+		lastError = object.has("lastError") ? object.getString("lastError") : null;
+		consecutiveFailures = object.optInt("consecutiveFailures", 0);
+	}
+}
@@ -0,0 +1,73 @@
+package com.john.application;
+
+import com.john.application.leadership.LeaderElection;
+import com.john.application.scheduling.JobScheduler;
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Stops the application's subsystems in a fixed order from a single shutdown hook, as the JVM runs separate hooks
+ * concurrently and in no particular order. The status server stops first, so nothing can be triggered while the
+ * scheduler waits for running jobs. The last checkpoint is written once no job can change the state any more, and
+ * before the lease is released, so that the next leader sees it. Metrics are exported last, to include all of the
+ * above. Subsystems are registered as they start, and those that never started are skipped.
+ */
+final class ShutdownSequence implements Runnable {
+	private static final AppLogger log = AppLogger.getLogger(ShutdownSequence.class.getCanonicalName());
+
+	private volatile StatusServer statusServer;
+	private volatile JobScheduler scheduler;
+	private volatile Runnable checkpointWriter;
+	private volatile LeaderElection leaderElection;
+	private volatile Runnable metricsExporter;
+
+	/** Creates the sequence and registers it as a shutdown hook */
+	static ShutdownSequence register() {
+		ShutdownSequence sequence = new ShutdownSequence();
+		Runtime.getRuntime().addShutdownHook(new Thread(sequence, "application-shutdown"));
+		return sequence;
+	}
+
+	void statusServer(StatusServer statusServer) {
+		this.statusServer = statusServer;
+	}
+
+	void scheduler(JobScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	void checkpointWriter(Runnable checkpointWriter) {
+		this.checkpointWriter = checkpointWriter;
+	}
+
+	void leaderElection(LeaderElection leaderElection) {
+		this.leaderElection = leaderElection;
+	}
+
+	void metricsExporter(Runnable metricsExporter) {
+		this.metricsExporter = metricsExporter;
+	}
+
+	@Override
+	public void run() {
+		StatusServer statusServer = this.statusServer;
+		JobScheduler scheduler = this.scheduler;
+		LeaderElection leaderElection = this.leaderElection;
+		step("the status server", statusServer == null ? null : statusServer::stop);
+		step("the job scheduler", scheduler == null ? null : scheduler::shutdown);
+		step("the last checkpoint", checkpointWriter);
+		step("the leader election", leaderElection == null ? null : leaderElection::release);
+		step("the metrics export", metricsExporter);
+	}
+
+	// one failing step must not keep the ones after it from running
+	private static void step(String name, Runnable step) {
+		if (step == null) {
+			return;
+		}
+		try {
+			step.run();
+		} catch (RuntimeException e) {
+			log.warning("Failed to shut down {0} due to [{1}] --> continuing with the shutdown", name, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.john.application;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+
+import com.john.application.scheduling.JobScheduler;
+import com.john.application.scheduling.ScheduledJob;
+import com.john.security.oauth.AccessToken;
+import com.john.security.oauth.AccessTokenServiceProvider;
+import com.john.security.oauth.AccessTokenService.AccessTokenStrategy;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.Counter;
+import com.john.utils.metrics.Gauge;
+import com.john.utils.metrics.Histogram;
+import com.john.utils.metrics.Metric;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+import com.john.utils.resilience.Endpoint;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP server, bound to localhost only, that reports on the running application without waiting for
+ * a health check email:
+ * <pre>
+ * GET  /status   the last notification cycle, access token, scheduled jobs, queues, circuit breakers and metrics as JSON
+ * GET  /metrics  every metric in the Prometheus text format
+ * POST /trigger  runs a notification cycle now. Concurrent triggers coalesce into a single run.
+ * </pre>
+ * A notification cycle notifies every subscriber, and any web page open in a browser on the same machine can post to
+ * localhost. <code>/trigger</code> therefore requires the token in <code>status.trigger.token</code> as
+ * <code>Authorization: Bearer &lt;token&gt;</code>, and rejects requests that carry an <code>Origin</code> header,
+ * which browsers add to cross-origin posts. Without a configured token, triggering is disabled.
+ */
+public final class StatusServer {
+	private static final AppLogger log = AppLogger.getLogger(StatusServer.class.getCanonicalName());
+	private static final String JSON_CONTENT_TYPE = "application/json";
+	private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4";
+	private static final int JSON_INDENT = 2;
+	private static final double NANOS_PER_MILLI = 1e6;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final JobScheduler scheduler;
+	private final ScheduledJob queryJob;
+	private final QueryCycleStatus cycleStatus;
+	private final Instant started = Instant.now();
+
+	private StatusServer(HttpServer server, JobScheduler scheduler, ScheduledJob queryJob, QueryCycleStatus cycleStatus) {
+		this.server = server;
+		this.scheduler = scheduler;
+		this.queryJob = queryJob;
+		this.cycleStatus = cycleStatus;
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "status-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext("/status", handler("GET", exchange -> respond(exchange, 200, JSON_CONTENT_TYPE, status().toString(JSON_INDENT))));
+		server.createContext("/metrics", handler("GET", exchange -> respond(exchange, 200, PROMETHEUS_CONTENT_TYPE, MetricsRegistry.toPrometheusText())));
+		server.createContext("/trigger", handler("POST", this::trigger));
+	}
+
+	/** Starts a status server on the given localhost port, reporting on the given scheduler and query job */
+	public static StatusServer start(int port, JobScheduler scheduler, ScheduledJob queryJob, QueryCycleStatus cycleStatus)
+			throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		StatusServer statusServer = new StatusServer(server, scheduler, queryJob, cycleStatus);
+		server.start();
+		log.info("Status server listening on {0}", server.getAddress());
+		return statusServer;
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void trigger(HttpExchange exchange) throws IOException {
+		if (exchange.getRequestHeaders().containsKey("Origin")) {
+			log.warning("Rejected a trigger from {0} --> requests from browsers are not accepted",
+					exchange.getRequestHeaders().getFirst("Origin"));
+			respond(exchange, 403, JSON_CONTENT_TYPE, "{}");
+			return;
+		}
+		if (!ApplicationPropertyProvider.hasProperty(Property.STATUS_TRIGGER_TOKEN)) {
+			respond(exchange, 403, JSON_CONTENT_TYPE, "{}");
+			return;
+		}
+		if (!isAuthorized(exchange.getRequestHeaders().getFirst("Authorization"),
+				ApplicationPropertyProvider.getProperty(Property.STATUS_TRIGGER_TOKEN))) {
+			log.warning("Rejected a trigger with a missing or wrong token");
+			exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+			respond(exchange, 401, JSON_CONTENT_TYPE, "{}");
+			return;
+		}
+		boolean triggered = queryJob.trigger();
+		JSONObject body = new JSONObject();
+		body.put("triggered", triggered);
+		body.put("coalesced", !triggered);
+		respond(exchange, 202, JSON_CONTENT_TYPE, body.toString(JSON_INDENT));
+	}
+
+	// compared in constant time, so the token cannot be guessed one character at a time
+	private static boolean isAuthorized(String authorization, String token) {
+		String expected = "Bearer ".concat(token);
+		return authorization != null && !token.isBlank()
+				&& MessageDigest.isEqual(authorization.getBytes(UTF_8), expected.getBytes(UTF_8));
+	}
+
+	private JSONObject status() {
+		JSONObject status = new JSONObject();
+		status.put("status", cycleStatus.getLastCycle() == null || cycleStatus.lastCycleSucceeded() ? "UP" : "DEGRADED");
+		status.put("startedAt", started.toString());
+		status.put("uptimeSeconds", Duration.between(started, Instant.now()).getSeconds());
+
+		JSONObject cycle = new JSONObject();
+		putIfPresent(cycle, "finishedAt", cycleStatus.getLastCycle());
+		cycle.put("outcome", cycleStatus.getLastCycle() == null ? "NONE" : cycleStatus.lastCycleSucceeded() ? "SUCCESS" : "FAILURE");
+		putIfPresent(cycle, "lastSuccessAt", cycleStatus.getLastSuccess());
+		cycle.put("events", cycleStatus.getLastEventCount());
+		cycle.put("consecutiveFailures", cycleStatus.getConsecutiveFailures());
+		putIfPresent(cycle, "error", cycleStatus.getLastError());
+		status.put("lastCycle", cycle);
+
+		JSONObject token = new JSONObject();
+		Optional<AccessToken> accessToken = AccessTokenServiceProvider.getAccessTokenService().peekAccessToken(AccessTokenStrategy.GOOGLE);
+		token.put("present", accessToken.isPresent());
+		accessToken.ifPresent(t -> {
+			token.put("expiresAt", t.getExpiry().toString());
+			token.put("expired", t.hasExpired());
+		});
+		status.put("accessToken", token);
+
+		JSONObject jobs = new JSONObject();
+		for (ScheduledJob job : scheduler.getJobs()) {
+			JSONObject jobStatus = new JSONObject();
+			jobStatus.put("running", job.isRunning());
+			jobStatus.put("runs", job.getRuns());
+			jobStatus.put("failures", job.getFailures());
+			jobStatus.put("missedRuns", job.getMissedRuns());
+			jobStatus.put("lastLagMillis", job.getLastLagMillis());
+			jobStatus.put("lastDurationMillis", job.getLastDurationMillis());
+			putIfPresent(jobStatus, "lastStart", job.getLastStart());
+			jobStatus.put("nextRun", job.getNextRun().toString());
+			jobs.put(job.getName(), jobStatus);
+		}
+		status.put("jobs", jobs);
+
+		JSONObject queues = new JSONObject();
+		scheduler.getQueueDepths().forEach((jobClass, depth) -> queues.put(jobClass.getThreadName(), depth.intValue()));
+		status.put("queues", queues);
+
+		JSONObject breakers = new JSONObject();
+		for (Endpoint endpoint : Endpoint.values()) {
+			breakers.put(endpoint.name().toLowerCase(), endpoint.getCircuitBreaker().getState().name());
+		}
+		status.put("circuitBreakers", breakers);
+
+		JSONObject metrics = new JSONObject();
+		for (Metric metric : MetricsRegistry.getMetrics()) {
+			String key = metric.getName().concat(metric.getLabels());
+			if (metric instanceof Counter) {
+				metrics.put(key, ((Counter) metric).get());
+			} else if (metric instanceof Gauge) {
+				metrics.put(key, ((Gauge) metric).get());
+			} else if (metric instanceof Histogram) {
+				Histogram histogram = (Histogram) metric;
+				JSONObject summary = new JSONObject();
+				summary.put("count", histogram.getCount());
+				summary.put("p50Millis", histogram.getPercentileNanos(50) / NANOS_PER_MILLI);
+				summary.put("p99Millis", histogram.getPercentileNanos(99) / NANOS_PER_MILLI);
+				summary.put("maxMillis", histogram.getMaxNanos() / NANOS_PER_MILLI);
+				metrics.put(key, summary);
+			}
+		}
+		status.put("metrics", metrics);
+		return status;
+	}
+
+	private static void putIfPresent(JSONObject object, String key, Object value) {
+		if (value != null) {
+			object.put(key, value.toString());
+		}
+	}
+
+	private static HttpHandler handler(String method, HttpHandler delegate) {
+		return exchange -> {
+			try {
+				if (!method.equals(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().set("Allow", method);
+					respond(exchange, 405, JSON_CONTENT_TYPE, "{}");
+				} else {
+					delegate.handle(exchange);
+				}
+			} catch (RuntimeException e) {
+				log.warning("Failed to handle {0} {1} due to [{2}]", exchange.getRequestMethod(),
+						exchange.getRequestURI(), e.getMessage());
+				respond(exchange, 500, JSON_CONTENT_TYPE, "{}");
+			} finally {
+				exchange.close();
+			}
+		};
+	}
+
+	private static void respond(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -1,42 +1,322 @@
 package com.john.application;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
+import com.john.application.checkpoint.Checkpoint;
+import com.john.application.checkpoint.CheckpointStore;
+import com.john.application.checkpoint.CheckpointWriter;
 import com.john.application.configuration.CustomLogManagement;
+import com.john.application.fanout.FanoutCoordinator;
+import com.john.application.fanout.FanoutRole;
+import com.john.application.fanout.FanoutWorker;
+import com.john.application.leadership.LeaderElection;
+import com.john.application.leadership.LeadershipListener;
+import com.john.application.scheduling.JobClass;
+import com.john.application.scheduling.JobScheduler;
+import com.john.application.scheduling.MissedRunPolicy;
+import com.john.application.scheduling.ScheduledJob;
+import com.john.security.oauth.AccessTokenServiceProvider;
+import com.john.security.oauth.AccessTokenService.AccessTokenStrategy;
+import com.john.utils.http.HttpTransportProvider;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.PrometheusFileExporter;
 import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.EmailProvider;
+import com.john.utils.providers.MockDataProvider;
 import com.john.utils.providers.RuntimeArgumentProvider;
+import com.john.utils.providers.SubscriberProvider;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
+import com.john.utils.providers.secrets.SecretProvider;
 
 public class StaviSearcherApplication {
-	private static final Logger log = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
-	
-	static {
-		CustomLogManagement.enableApplicationLogging();
-	}
+	private static final AppLogger log = AppLogger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+	private static final int DEFAULT_STATUS_PORT = 8787;
+	private static final String QUERY_JOB_NAME = "Stavi's Query Operator";
+	private static final String DEFAULT_CHECKPOINT_FILE = "./state/checkpoint.json";
+	private static final String DEFAULT_LOCK_FILE = "./state/leader.lock";
+	private static final String DEFAULT_SPOOL = "./spool";
 
 	public static void main(String[] args) {
+		// process any arguments provided first, so they can override every other configuration source
+		RuntimeArgumentProvider.init(args);
+		CustomLogManagement.enableApplicationLogging();
 		log.info("Sophie's Stavi's Searcher application is starting up!");
+		FanoutRole fanoutRole = FanoutRole.fromValue(ApplicationPropertyProvider.getProperty(Property.FANOUT_ROLE,
+				FanoutRole.NONE.getValue()));
+		bootstrap(fanoutRole);
 		
-		// process any arguments provided
-		RuntimeArgumentProvider.init(args);
+		// create the JobScheduler, and stop it and everything else in order when the application is terminated
+		ShutdownSequence shutdown = ShutdownSequence.register();
+		JobScheduler scheduler = new JobScheduler();
+		shutdown.scheduler(scheduler);
+		
+		// a fan-out worker only delivers what the coordinator publishes
+		if (fanoutRole == FanoutRole.WORKER) {
+			startFanoutWorker(scheduler);
+			log.info("Sophie's Stavi's Searcher application has been initialized successfully as a fan-out worker!");
+			return;
+		}
+		
+		// take part in the leader election, if enabled, before anything could notify
+		LeaderElection leaderElection = createLeaderElection();
+		
+		// continue where the previous run of the application stopped, unless checkpoints are disabled
+		CheckpointStore checkpointStore = isCheckpointingEnabled() ? createCheckpointStore() : null;
+		Optional<Checkpoint> checkpoint = checkpointStore == null ? Optional.empty() : checkpointStore.load();
+		QueryCycleStatus cycleStatus = new QueryCycleStatus();
+		checkpoint.flatMap(Checkpoint::getQueryCycle).ifPresent(cycleStatus::restore);
+		
+		// schedule main query operation, and reschedule it whenever its frequency changes
+		StavisQueryOperator queryOperator = createQueryOperator(fanoutRole, leaderElection);
+		ScheduledJob queryJob = scheduleQueryJob(scheduler, queryOperator, leaderElection, checkpoint);
+		queryOperator.addCycleListener(cycleStatus);
 		
-		// create the ScheduledExecutorService
-		ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+		// serve the application's status on localhost, unless disabled
+		if (!ApplicationPropertyProvider.hasProperty(Property.STATUS_SERVER_ENABLED)
+				|| ApplicationPropertyProvider.getBooleanProperty(Property.STATUS_SERVER_ENABLED)) {
+			startStatusServer(scheduler, queryJob, cycleStatus, shutdown);
+		}
 		
-		// schedule main query operation
-		executor.scheduleAtFixedRate(new StavisQueryOperator(),
-				ApplicationPropertyProvider.getLongProperty(Property.QUERY_INITIAL_DELAY, 0),
-				ApplicationPropertyProvider.getLongProperty(Property.QUERY_FREQUENCY_MINUTES), TimeUnit.MINUTES);
-		log.info("Stavi's Query Operator has been scheduled with the executor");
+		// export metrics periodically, unless disabled
+		if (!ApplicationPropertyProvider.hasProperty(Property.METRICS_EXPORT_ENABLED)
+				|| ApplicationPropertyProvider.getBooleanProperty(Property.METRICS_EXPORT_ENABLED)) {
+			scheduleMetricsExport(scheduler, shutdown);
+		}
 		
 		// kick off health checks
-		HealthChecker.start(executor);
+		HealthChecker.start(scheduler, checkpoint.flatMap(c -> c.getLastRun(HealthChecker.JOB_NAME)).orElse(null), leaderElection);
 		log.info("The health checking system has been started");
 		
+		// save checkpoints periodically, after every notification cycle and on shutdown
+		if (checkpointStore != null) {
+			scheduleCheckpointWriter(scheduler, checkpointStore, queryOperator, cycleStatus, leaderElection, shutdown);
+		}
+		
+		// keep the lease renewed or keep campaigning for it, and hand it over on shutdown
+		if (leaderElection != null) {
+			scheduleLeaderElection(scheduler, leaderElection, queryOperator, queryJob, checkpointStore);
+			shutdown.leaderElection(leaderElection);
+		}
+		
 		// initialization complete
 		log.info("Sophie's Stavi's Searcher application has been initialized successfully!");
 	}
+	
+	/** Creates the query operator, which notifies only as the leader and publishes to the spool as the coordinator */
+	private static StavisQueryOperator createQueryOperator(FanoutRole fanoutRole, LeaderElection leaderElection) {
+		StavisQueryOperator queryOperator = new StavisQueryOperator();
+		queryOperator.setLeaderElection(leaderElection);
+		if (fanoutRole == FanoutRole.COORDINATOR) {
+			int partitions = ApplicationPropertyProvider.getIntProperty(Property.FANOUT_PARTITIONS, 2);
+			queryOperator.setFanoutCoordinator(new FanoutCoordinator(Path.of(ApplicationPropertyProvider.getProperty(Property.FANOUT_SPOOL,
+					DEFAULT_SPOOL)), partitions, Duration.ofHours(ApplicationPropertyProvider.getLongProperty(Property.FANOUT_RETENTION_HOURS, 24))));
+			log.info("Notifications will be published to {0} fan-out partition(s)", partitions);
+		}
+		return queryOperator;
+	}
+	
+	/**
+	 * Schedules the query operator, resuming from the given checkpoint: a cycle that was interrupted while notifying
+	 * is finished right away, otherwise the schedule continues from the last run.
+	 */
+	private static ScheduledJob scheduleQueryJob(JobScheduler scheduler, StavisQueryOperator queryOperator,
+			LeaderElection leaderElection, Optional<Checkpoint> checkpoint) {
+		Supplier<Duration> queryInterval = () -> Duration.ofMinutes(ApplicationPropertyProvider.getLongProperty(Property.QUERY_FREQUENCY_MINUTES));
+		if (ApplicationPropertyProvider.hasProperty(Property.QUERY_ADAPTIVE_ENABLED)
+				&& ApplicationPropertyProvider.getBooleanProperty(Property.QUERY_ADAPTIVE_ENABLED)) {
+			AdaptivePollingStrategy adaptivePolling = new AdaptivePollingStrategy();
+			queryOperator.addCycleListener(adaptivePolling);
+			queryInterval = adaptivePolling;
+			log.info("Adaptive polling is enabled for Stavi's Query Operator");
+		}
+		ScheduledJob.Builder queryJobBuilder = ScheduledJob.newBuilder(QUERY_JOB_NAME, queryOperator)
+				.jobClass(JobClass.QUERY)
+				.initialDelay(Duration.ofMinutes(ApplicationPropertyProvider.getLongProperty(Property.QUERY_INITIAL_DELAY, 0)))
+				.interval(queryInterval)
+				.jitter(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.QUERY_JITTER_SECONDS, 0)))
+				.missedRunPolicy(getMissedRunPolicy(Property.QUERY_MISSED_RUN_POLICY, MissedRunPolicy.COALESCE));
+		// a standby leaves an interrupted cycle to the leader, and reads the checkpoint again if it takes over
+		Optional<NotificationProgress> interruptedCycle = leaderElection == null || leaderElection.isLeader()
+				? checkpoint.flatMap(Checkpoint::getNotificationProgress) : Optional.empty();
+		if (interruptedCycle.isPresent()) {
+			// a cycle was notifying subscribers when the application stopped, so finish it right away
+			queryOperator.resume(interruptedCycle.get());
+			queryJobBuilder.initialDelay(Duration.ZERO);
+		} else {
+			checkpoint.flatMap(c -> c.getLastRun(QUERY_JOB_NAME)).ifPresent(queryJobBuilder::resumeFrom);
+		}
+		ScheduledJob queryJob = scheduler.schedule(queryJobBuilder.build());
+		ApplicationPropertyProvider.addChangeListener(changed -> {
+			if (changed.contains(Property.QUERY_FREQUENCY_MINUTES) || changed.contains(Property.QUERY_ADAPTIVE_MIN_FREQUENCY)
+					|| changed.contains(Property.QUERY_ADAPTIVE_MAX_FREQUENCY)) {
+				queryJob.reschedule();
+			}
+		});
+		log.info("Stavi's Query Operator has been scheduled with the job scheduler");
+		return queryJob;
+	}
+	
+	/** Starts the status server, or logs why it could not be started */
+	private static void startStatusServer(JobScheduler scheduler, ScheduledJob queryJob, QueryCycleStatus cycleStatus,
+			ShutdownSequence shutdown) {
+		try {
+			shutdown.statusServer(StatusServer.start(ApplicationPropertyProvider.getIntProperty(Property.STATUS_SERVER_PORT,
+					DEFAULT_STATUS_PORT), scheduler, queryJob, cycleStatus));
+		} catch (IOException e) {
+			log.severe("Failed to start the status server due to [{0}] --> continuing without it", e.getMessage());
+		}
+	}
+	
+	/** Exports metrics every export interval, and once more on shutdown */
+	private static void scheduleMetricsExport(JobScheduler scheduler, ShutdownSequence shutdown) {
+		scheduler.schedule(ScheduledJob.newBuilder("Metrics Exporter", new PrometheusFileExporter())
+				.interval(() -> Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.METRICS_EXPORT_FREQUENCY_SECONDS, 60)))
+				.initialDelay(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.METRICS_EXPORT_FREQUENCY_SECONDS, 60)))
+				.build());
+		shutdown.metricsExporter(new PrometheusFileExporter());
+		log.info("Metrics will be exported periodically");
+	}
+	
+	private static boolean isCheckpointingEnabled() {
+		return !ApplicationPropertyProvider.hasProperty(Property.CHECKPOINT_ENABLED)
+				|| ApplicationPropertyProvider.getBooleanProperty(Property.CHECKPOINT_ENABLED);
+	}
+	
+	private static CheckpointStore createCheckpointStore() {
+		return new CheckpointStore(Path.of(ApplicationPropertyProvider.getProperty(Property.CHECKPOINT_FILE, DEFAULT_CHECKPOINT_FILE)));
+	}
+	
+	/** Saves a checkpoint every checkpoint interval, after every notification cycle and on shutdown */
+	private static void scheduleCheckpointWriter(JobScheduler scheduler, CheckpointStore checkpointStore, StavisQueryOperator queryOperator,
+			QueryCycleStatus cycleStatus, LeaderElection leaderElection, ShutdownSequence shutdown) {
+		CheckpointWriter checkpointWriter = new CheckpointWriter(checkpointStore, scheduler, queryOperator, cycleStatus, leaderElection);
+		queryOperator.addCycleListener(checkpointWriter);
+		scheduler.schedule(ScheduledJob.newBuilder("Checkpoint Writer", checkpointWriter)
+				.jobClass(JobClass.MAINTENANCE)
+				.interval(() -> Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.CHECKPOINT_FREQUENCY_SECONDS, 30)))
+				.initialDelay(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.CHECKPOINT_FREQUENCY_SECONDS, 30)))
+				.build());
+		shutdown.checkpointWriter(checkpointWriter);
+		log.info("Checkpoints will be saved to {0}", ApplicationPropertyProvider.getProperty(Property.CHECKPOINT_FILE,
+				DEFAULT_CHECKPOINT_FILE));
+	}
+	
+	/** Polls the spool for the partition this worker delivers */
+	private static void startFanoutWorker(JobScheduler scheduler) {
+		int partition = ApplicationPropertyProvider.getIntProperty(Property.FANOUT_PARTITION, 0);
+		if (ApplicationPropertyProvider.hasProperty(Property.FANOUT_PARTITIONS)
+				&& partition >= ApplicationPropertyProvider.getIntProperty(Property.FANOUT_PARTITIONS)) {
+			throw new IllegalStateException(String.format("fanout.partition must be below fanout.partitions (%d), but was %d",
+					ApplicationPropertyProvider.getIntProperty(Property.FANOUT_PARTITIONS), partition));
+		}
+		Path spool = Path.of(ApplicationPropertyProvider.getProperty(Property.FANOUT_SPOOL, DEFAULT_SPOOL));
+		scheduler.schedule(ScheduledJob.newBuilder("Fan-out Worker", new FanoutWorker(spool, partition))
+				.jobClass(JobClass.QUERY)
+				.interval(() -> Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.FANOUT_POLL_SECONDS, 1)))
+				.missedRunPolicy(MissedRunPolicy.COALESCE)
+				.build());
+		log.info("Delivering fan-out partition {0} from {1}", partition, spool.toAbsolutePath());
+	}
+	
+	/** Creates the leader election and campaigns once, or returns <code>null</code> if leader election is disabled */
+	private static LeaderElection createLeaderElection() {
+		if (!ApplicationPropertyProvider.hasProperty(Property.LEADER_ELECTION_ENABLED)
+				|| !ApplicationPropertyProvider.getBooleanProperty(Property.LEADER_ELECTION_ENABLED)) {
+			return null;
+		}
+		LeaderElection.Builder builder = LeaderElection.newBuilder(Path.of(ApplicationPropertyProvider.getProperty(Property.LEADER_LOCK_FILE,
+				DEFAULT_LOCK_FILE)))
+				.leaseDuration(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.LEADER_LEASE_SECONDS, 10)));
+		if (ApplicationPropertyProvider.hasProperty(Property.LEADER_INSTANCE_ID)) {
+			builder.instanceId(ApplicationPropertyProvider.getProperty(Property.LEADER_INSTANCE_ID));
+		}
+		LeaderElection leaderElection = builder.build();
+		leaderElection.run();
+		if (!leaderElection.isLeader()) {
+			log.info("{0} is starting as a standby --> it will query, but only notify once it becomes the leader",
+					leaderElection.getInstanceId());
+		}
+		return leaderElection;
+	}
+	
+	/**
+	 * Runs the leader election every heartbeat. A standby that takes over finishes the cycle the previous leader was
+	 * notifying, if the last checkpoint says it was interrupted.
+	 */
+	private static void scheduleLeaderElection(JobScheduler scheduler, LeaderElection leaderElection, StavisQueryOperator queryOperator,
+			ScheduledJob queryJob, CheckpointStore checkpointStore) {
+		leaderElection.addListener(new LeadershipListener() {
+			@Override
+			public void leadershipAcquired(long fencingToken) {
+				if (checkpointStore != null) {
+					checkpointStore.load().flatMap(Checkpoint::getNotificationProgress).ifPresent(progress -> {
+						queryOperator.resume(progress);
+						queryJob.trigger();
+					});
+				}
+			}
+
+			@Override
+			public void leadershipLost() {
+				// the query operator stops notifying by itself
+			}
+		});
+		scheduler.schedule(ScheduledJob.newBuilder("Leader Election", leaderElection)
+				.jobClass(JobClass.LEADERSHIP)
+				.interval(() -> Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.LEADER_HEARTBEAT_SECONDS, 2)))
+				.initialDelay(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.LEADER_HEARTBEAT_SECONDS, 2)))
+				.missedRunPolicy(MissedRunPolicy.COALESCE)
+				.build());
+		log.info("{0} takes part in the leader election as the {1}", leaderElection.getInstanceId(),
+				leaderElection.isLeader() ? "leader" : "standby");
+	}
+	
+	/**
+	 * Builds what the first query needs concurrently, instead of one after another as classes happen to load.
+	 * Components that the configuration does not need are left to load lazily, if at all.
+	 */
+	private static void bootstrap(FanoutRole fanoutRole) {
+		Bootstrap.Builder bootstrap = Bootstrap.newBuilder()
+				.timeout(Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(Property.BOOTSTRAP_TIMEOUT_SECONDS, 30)))
+				.component("Secrets", SecretProvider::init);
+		// a fan-out worker is handed its recipients and never queries
+		boolean queries = fanoutRole != FanoutRole.WORKER;
+		if (queries) {
+			bootstrap.component("Subscribers", () -> SubscriberProvider.getSubscribers())
+					.component("HTTP transport", () -> HttpTransportProvider.getTransport());
+		}
+		String tokenDependency = "Secrets";
+		if (queries && ApplicationPropertyProvider.shouldUseMocks()) {
+			bootstrap.component("Mock data", MockDataProvider::init);
+			tokenDependency = "Mock data";
+		}
+		if (ApplicationPropertyProvider.getBooleanProperty(Property.NOTIFICATIONS_ENABLED)
+				&& (ApplicationPropertyProvider.getBooleanProperty(Property.EMAIL_ENABLED)
+						|| ApplicationPropertyProvider.getBooleanProperty(Property.SMS_ENABLED))) {
+			bootstrap.component("Email sender password", EmailProvider::init, "Secrets");
+		}
+		// a token fetched long before the first query would only expire unused
+		if (queries && ApplicationPropertyProvider.getLongProperty(Property.QUERY_INITIAL_DELAY, 0) == 0) {
+			bootstrap.component("Google access token", () -> AccessTokenServiceProvider.getAccessTokenService()
+					.retrieveAccessToken(AccessTokenStrategy.GOOGLE)
+					.orElseThrow(() -> new IllegalStateException("No Google Access Token")), tokenDependency, "HTTP transport");
+		}
+		bootstrap.build().run();
+	}
+	
+	/** Reads a <code>MissedRunPolicy</code> from the given property, falling back to the default if it is absent or invalid */
+	static MissedRunPolicy getMissedRunPolicy(Property property, MissedRunPolicy defaultPolicy) {
+		String policy = ApplicationPropertyProvider.getProperty(property, defaultPolicy.name());
+		try {
+			return MissedRunPolicy.valueOf(policy.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			log.warning("Unknown missed run policy {0} for {1} --> using {2}", policy, property, defaultPolicy);
+			return defaultPolicy;
+		}
+	}
 }
@@ -1,13 +1,21 @@
 package com.john.application;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Logger;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import com.john.api.google.CalendarServiceImpl;
 import com.john.api.google.model.Event;
+import com.john.application.fanout.FanoutCoordinator;
+import com.john.application.fanout.NotificationBatch;
+import com.john.application.leadership.LeaderElection;
 import com.john.notifications.EmailNotificationService;
 import com.john.notifications.HtmlEmailNotificationService;
 import com.john.notifications.NotificationService;
@@ -19,8 +27,12 @@ import com.john.security.oauth.AccessTokenServiceProvider;
 import com.john.security.oauth.google.GoogleAccessToken;
 import com.john.utils.HtmlBuilder;
 import com.john.utils.HtmlTags;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.SubscriberProvider;
+import com.john.utils.providers.SubscriberSnapshot;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 import com.john.security.oauth.AccessTokenService.AccessTokenStrategy;
 
@@ -28,33 +40,77 @@ import com.john.security.oauth.AccessTokenService.AccessTokenStrategy;
  * The class containing the majority of the business logic. It's the brain
  * of the application, and must be able to trigger a query, interpret the results,
  * and trigger notifications. It implements <code>Runnable</code> so that it can 
- * execute in its own thread.
+ * execute in its own thread. While notifying, it keeps track of its <code>NotificationProgress</code>, so that a
+ * cycle interrupted by a restart can continue where it stopped.
  */
 public class StavisQueryOperator implements Runnable {
-	private static final Logger log = Logger.getLogger(StavisQueryOperator.class.getCanonicalName());
-	private static final int MAX_DAYS;
-	private static final String CALENDAR_ID;
-	private static final String KEYWORD;
+	private static final AppLogger log = AppLogger.getLogger(StavisQueryOperator.class.getCanonicalName());
+	private static final Timer RENDER_TIMER = MetricsRegistry.timer("stavis_render", "Notification bodies rendered", "format", "html");
 	
-	static {
-		MAX_DAYS = ApplicationPropertyProvider.getIntProperty(Property.QUERY_MAX_DAYS);
-		CALENDAR_ID = ApplicationPropertyProvider.getProperty(Property.CALENDAR_ID);
-		KEYWORD = ApplicationPropertyProvider.getProperty(Property.QUERY_KEYWORD);
+	private final List<QueryCycleListener> listeners = new CopyOnWriteArrayList<>();
+	private volatile NotificationProgress progress;
+	private volatile NotificationProgress interrupted;
+	private volatile LeaderElection leaderElection;
+	private volatile FanoutCoordinator fanoutCoordinator;
+	
+	/** Registers a listener that is told about the outcome of every notification cycle */
+	public void addCycleListener(QueryCycleListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Makes cycles notify only while this instance is the leader of the given election. A standby still queries, so
+	 * that its token and caches are warm when it takes over. Without an election, every cycle notifies.
+	 */
+	public void setLeaderElection(LeaderElection leaderElection) {
+		this.leaderElection = leaderElection;
+	}
+	
+	/**
+	 * Makes cycles publish their notifications to the given coordinator's spool, for its workers to deliver, instead
+	 * of sending them.
+	 */
+	public void setFanoutCoordinator(FanoutCoordinator fanoutCoordinator) {
+		this.fanoutCoordinator = fanoutCoordinator;
+	}
+	
+	/** Returns the progress of the cycle that is notifying subscribers right now, or <code>null</code> if none is */
+	public NotificationProgress getProgress() {
+		return progress;
+	}
+	
+	/**
+	 * Makes the next cycle skip the notifications already sent by a cycle that was interrupted, as long as it
+	 * would send the same notifications to the same subscribers.
+	 */
+	public void resume(NotificationProgress interrupted) {
+		this.interrupted = interrupted;
 	}
 
 	@Override
 	public void run() {
-		log.info("Stavi's Query Operator now running in Thread #" + Thread.currentThread().getId());
+		log.info("Stavi''s Query Operator now running in Thread #{0}", Thread.currentThread().getId());
 		try {
-			processEvents(queryEvents());
+			// read once per cycle so a property reload never splits a cycle across two configurations
+			final int maxDays = ApplicationPropertyProvider.getIntProperty(Property.QUERY_MAX_DAYS);
+			List<Event> events = queryEvents(maxDays);
+			if (leaderElection == null || leaderElection.verify()) {
+				processEvents(events, maxDays);
+			} else {
+				log.info("This instance is on standby --> {0} event(s) found, but the leader notifies subscribers", events.size());
+			}
+			progress = null;
 			log.info("Stavi's Query Operator has completed this notification cycle.");
+			listeners.forEach(listener -> listener.cycleSucceeded(events));
 		} catch (Exception e) {
-			log.severe("The following exception prevented this notification cycle from completing: ".concat(e.toString()));
+			progress = null;
+			log.severe("The following exception prevented this notification cycle from completing: {0}", e);
+			listeners.forEach(listener -> listener.cycleFailed(e));
 		}
 	}
 	
 	// returns a list of events sorted based on start time in asc order
-	private List<Event> queryEvents() {
+	private List<Event> queryEvents(int maxDays) {
 		AccessTokenService accessService = AccessTokenServiceProvider.getAccessTokenService();
 		Optional<AccessToken> token = accessService.retrieveAccessToken(AccessTokenStrategy.GOOGLE);
 		if (token.isEmpty()) {
@@ -62,24 +118,24 @@ public class StavisQueryOperator implements Runnable {
 			throw new RuntimeException("No Google Access Token");
 		}
 		
-		CalendarServiceImpl calendar = new CalendarServiceImpl(CALENDAR_ID);
+		CalendarServiceImpl calendar = new CalendarServiceImpl(ApplicationPropertyProvider.getProperty(Property.CALENDAR_ID));
+		final String keyword = ApplicationPropertyProvider.getProperty(Property.QUERY_KEYWORD);
 		Optional<List<Event>> results = null;
-		if (KEYWORD.isEmpty()) {
-			results = calendar.getEventsForNextNDays((GoogleAccessToken) token.get(), MAX_DAYS);
+		if (keyword.isEmpty()) {
+			results = calendar.getEventsForNextNDays((GoogleAccessToken) token.get(), maxDays);
 		} else {
-			results = calendar.searchEventsForNextNDays((GoogleAccessToken) token.get(), MAX_DAYS, KEYWORD);
+			results = calendar.searchEventsForNextNDays((GoogleAccessToken) token.get(), maxDays, keyword);
 		}
 		if (results.isEmpty()) {
 			log.severe("Failed to retrieve events from the Calendar API --> Query Operator will not proceed");
 			throw new RuntimeException("Calendar API request failed");
 		}
 		
-		List<Event> sortedEvents = results.get();
-		sortedEvents.sort(null);
-		return sortedEvents;
+		// the Calendar API already orders events by their start time
+		return results.get();
 	}
 	
-	private void processEvents(List<Event> events) {
+	private void processEvents(List<Event> events, int maxDays) throws IOException {
 		final String txtMsgSubject = ApplicationPropertyProvider.getProperty(Property.SMS_SUBJECT, "Alert");
 		final String emailMsgSubject = ApplicationPropertyProvider.getProperty(Property.EMAIL_SUBJECT, "Stavi's Searcher Alert");
 		String txtMsgBody = "";
@@ -89,25 +145,87 @@ public class StavisQueryOperator implements Runnable {
 		
 		if (events.isEmpty()) {
 			log.info("No events found with the specified properties");
-			txtMsgBody = emailMsgBody = String.format("We're sorry, but Stavi's is not coming in the next %d days", MAX_DAYS);
+			txtMsgBody = emailMsgBody = String.format("We're sorry, but Stavi's is not coming in the next %d days", maxDays);
 		} else if (events.size() == 1) {
-			log.info(String.valueOf(events.size()).concat(" event found with the specified properties"));
+			log.info("{0} event found with the specified properties", events.size());
 			txtMsgBody = emailMsgBody = formatEvent(events.get(0));
 		} else {
-			log.info(String.valueOf(events.size()).concat(" events found with the specified properties"));
+			log.info("{0} events found with the specified properties", events.size());
 			txtMsgBody = formatEventBrief(events.get(0), "hh:mm") + " with " + (events.size() - 1) + " other date(s) scheduled! Check your email for more details.";
-			emailMsgBody = composeEmailHTMLBody(events);
+			emailMsgBody = composeEmailHTMLBody(events, maxDays);
 			emailService = new HtmlEmailNotificationService();
 		}
 		
-		Recipient[] recipients = SubscriberProvider.getSubscribers();
-		for (Recipient recipient : recipients) {
-			if (recipient.getEmailEnabled()) {
-				emailService.notify(recipient, emailMsgSubject, emailMsgBody);
+		SubscriberSnapshot subscribers = SubscriberProvider.getSubscribers();
+		FanoutCoordinator coordinator = fanoutCoordinator;
+		if (coordinator != null) {
+			// publishing is all or nothing, so there is no progress to keep, and only several events make an HTML email
+			coordinator.publish(NotificationBatch.of(emailMsgSubject, emailMsgBody, events.size() > 1, txtMsgSubject, txtMsgBody),
+					subscribers);
+			return;
+		}
+		List<Recipient> emailRecipients = subscribers.getEmailRecipients();
+		List<Recipient> smsRecipients = subscribers.getSmsRecipients();
+		NotificationProgress current = startProgress(fingerprint(emailRecipients, smsRecipients, emailMsgSubject, emailMsgBody,
+				txtMsgSubject, txtMsgBody));
+		for (int i = current.getEmailsSent(); i < emailRecipients.size(); i++) {
+			checkLeadership();
+			emailService.notify(emailRecipients.get(i), emailMsgSubject, emailMsgBody);
+			current.emailSent();
+		}
+		for (int i = current.getTextsSent(); i < smsRecipients.size(); i++) {
+			checkLeadership();
+			textService.notify(smsRecipients.get(i), txtMsgSubject, txtMsgBody);
+			current.textSent();
+		}
+	}
+	
+	// the new leader resumes from the last checkpoint, so this instance must stop as soon as it has been replaced
+	private void checkLeadership() {
+		LeaderElection election = leaderElection;
+		if (election != null && !election.isLeader()) {
+			throw new IllegalStateException("Leadership was lost while notifying subscribers");
+		}
+	}
+	
+	// continues an interrupted cycle if it notifies the same subscribers of the same events, and starts afresh otherwise
+	private NotificationProgress startProgress(String fingerprint) {
+		NotificationProgress resumed = interrupted;
+		interrupted = null;
+		if (resumed != null && resumed.getFingerprint().equals(fingerprint)) {
+			log.info("Resuming the interrupted notification cycle --> skipping {0} email(s) and {1} text(s) already sent",
+					resumed.getEmailsSent(), resumed.getTextsSent());
+			progress = resumed;
+		} else {
+			if (resumed != null) {
+				log.info("The events or subscribers changed since the notification cycle was interrupted --> notifying everyone");
+			}
+			progress = new NotificationProgress(fingerprint);
+		}
+		return progress;
+	}
+	
+	// identifies the recipients, in the order they are notified, and what they are notified of
+	private static String fingerprint(List<Recipient> emailRecipients, List<Recipient> smsRecipients, String... messages) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (Recipient recipient : emailRecipients) {
+				digest.update(String.valueOf(recipient.getEmail()).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			digest.update((byte) 1);
+			for (Recipient recipient : smsRecipients) {
+				digest.update(String.valueOf(recipient.getPhoneNumber()).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
 			}
-			if (recipient.getSmsEnabled()) {
-				textService.notify(recipient, txtMsgSubject, txtMsgBody);
+			for (String message : messages) {
+				digest.update((byte) 0);
+				digest.update(message.getBytes(StandardCharsets.UTF_8));
 			}
+			return new BigInteger(1, digest.digest()).toString(16);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
 		}
 	}
 	
@@ -127,16 +245,19 @@ public class StavisQueryOperator implements Runnable {
 				event.getStart().format(DateTimeFormatter.ofPattern(timePattern)));
 	}
 	
-	private String composeEmailHTMLBody(List<Event> events) {
+	private String composeEmailHTMLBody(List<Event> events, int maxDays) {
+		final long start = RENDER_TIMER.start();
 		final String intro = String.format("Great news! Stavi's has %d events scheduled in the next %d days!",
-				events.size(), MAX_DAYS);
+				events.size(), maxDays);
 		HtmlBuilder html = HtmlBuilder.newBuilder().addElement(HtmlTags.SPAN, intro).addEmptyElement(HtmlTags.BREAK)
 				.addEmptyElement(HtmlTags.BREAK).openTag(HtmlTags.UNORDERED_LIST);
 		for (String event : events.stream().map(this::formatEventBrief).collect(Collectors.toList())) {
 			html.addElement(HtmlTags.LINE_ITEM, event);
 		}
 		html.closeTag(HtmlTags.UNORDERED_LIST);
-		return html.build();
+		String body = html.build();
+		RENDER_TIMER.stop(start);
+		return body;
 	}
 
 }
@@ -0,0 +1,87 @@
+package com.john.application.checkpoint;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.json.JSONObject;
+
+import com.john.application.NotificationProgress;
+import com.john.application.QueryCycleStatus;
+import com.john.application.StavisQueryOperator;
+import com.john.application.scheduling.JobScheduler;
+import com.john.application.scheduling.ScheduledJob;
+import com.john.model.JSONBasedObject;
+
+/**
+ * The state the application needs to continue where it stopped after a restart: when each scheduled job last ran,
+ * the outcome of the last notification cycles and, if a cycle was notifying subscribers, how far it got.
+ */
+public final class Checkpoint extends JSONBasedObject {
+	static final int VERSION = 1;
+
+	private final Instant savedAt;
+	private final Map<String, Instant> lastRuns;
+	private final JSONObject queryCycle;
+	private final NotificationProgress notificationProgress;
+
+	Checkpoint(JSONObject object) {
+		super(object);
+		if (object.optInt("version", 0) != VERSION) {
+			throw new IllegalArgumentException(String.format("Unsupported checkpoint version %d", object.optInt("version", 0)));
+		}
+		savedAt = Instant.parse(object.getString("savedAt"));
+		Map<String, Instant> runs = new HashMap<>();
+		JSONObject jobs = object.optJSONObject("jobs");
+		if (jobs != null) {
+			for (String job : jobs.keySet()) {
+				runs.put(job, Instant.parse(jobs.getString(job)));
+			}
+		}
+		lastRuns = Collections.unmodifiableMap(runs);
+		queryCycle = object.optJSONObject("queryCycle");
+		JSONObject progress = object.optJSONObject("notificationProgress");
+		notificationProgress = progress == null ? null : new NotificationProgress(progress);
+	}
+
+	/** Captures the current state of the application */
+	static Checkpoint capture(JobScheduler scheduler, StavisQueryOperator queryOperator, QueryCycleStatus cycleStatus) {
+		JSONObject object = new JSONObject();
+		object.put("version", VERSION);
+		object.put("savedAt", Instant.now().toString());
+		JSONObject jobs = new JSONObject();
+		for (ScheduledJob job : scheduler.getJobs()) {
+			if (job.getLastStart() != null) {
+				jobs.put(job.getName(), job.getLastStart().toString());
+			}
+		}
+		object.put("jobs", jobs);
+		object.put("queryCycle", cycleStatus.toJSON());
+		NotificationProgress progress = queryOperator.getProgress();
+		if (progress != null) {
+			object.put("notificationProgress", progress.toJSON());
+		}
+		return new Checkpoint(object);
+	}
+
+	public Instant getSavedAt() {
+		return savedAt;
+	}
+
+	/** Returns when the given job last started before the checkpoint was saved */
+	public Optional<Instant> getLastRun(String jobName) {
+		return Optional.ofNullable(lastRuns.get(jobName));
+	}
+
+	/** Returns the outcome of the last notification cycles, as saved by <code>QueryCycleStatus.toJSON</code> */
+	public Optional<JSONObject> getQueryCycle() {
+		return Optional.ofNullable(queryCycle);
+	}
+
+	/** Returns how far the notification cycle that was running got, if one was */
+	public Optional<NotificationProgress> getNotificationProgress() {
+		return Optional.ofNullable(notificationProgress);
+	}
+}
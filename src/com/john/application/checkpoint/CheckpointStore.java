@@ -0,0 +1,72 @@
+package com.john.application.checkpoint;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.json.JSONObject;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Keeps the latest <code>Checkpoint</code> in a single file. A checkpoint is written to a temporary file and synced
+ * to disk, then renamed over the previous one, so a crash or power cut at any moment leaves either the previous or
+ * the new checkpoint in place, never a partial one.
+ */
+public final class CheckpointStore {
+	private static final AppLogger log = AppLogger.getLogger(CheckpointStore.class.getCanonicalName());
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private final Path file;
+
+	public CheckpointStore(Path file) {
+		this.file = file.toAbsolutePath();
+	}
+
+	/** Returns the saved checkpoint, or nothing if there is none or it cannot be read */
+	public Optional<Checkpoint> load() {
+		if (!Files.exists(file)) {
+			log.info("No checkpoint at {0} --> starting afresh", file);
+			return Optional.empty();
+		}
+		try {
+			Checkpoint checkpoint = new Checkpoint(new JSONObject(Files.readString(file, UTF_8)));
+			log.info("Restored the checkpoint saved at {0}", checkpoint.getSavedAt());
+			return Optional.of(checkpoint);
+		} catch (IOException | RuntimeException e) {
+			log.warning("Failed to read the checkpoint at {0} due to [{1}] --> starting afresh", file, e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	public synchronized void save(Checkpoint checkpoint) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path temp = file.resolveSibling(file.getFileName() + TEMP_EXTENSION);
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.wrap(checkpoint.toString().getBytes(UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		syncDirectory();
+	}
+
+	// makes the rename itself durable, where the platform allows opening a directory
+	private void syncDirectory() {
+		try (FileChannel directory = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException e) {
+			log.fine("Unable to sync {0} due to [{1}]", file.getParent(), e.getMessage());
+		}
+	}
+}
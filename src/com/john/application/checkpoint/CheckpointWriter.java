@@ -0,0 +1,63 @@
+package com.john.application.checkpoint;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.john.api.google.model.Event;
+import com.john.application.QueryCycleListener;
+import com.john.application.QueryCycleStatus;
+import com.john.application.StavisQueryOperator;
+import com.john.application.leadership.LeaderElection;
+import com.john.application.scheduling.JobScheduler;
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Saves a <code>Checkpoint</code> of the application each time it runs. It runs periodically as a job, which
+ * bounds how much notification progress a crash can lose, at the end of every notification cycle and when the
+ * application shuts down.
+ */
+public final class CheckpointWriter implements Runnable, QueryCycleListener {
+	private static final AppLogger log = AppLogger.getLogger(CheckpointWriter.class.getCanonicalName());
+
+	private final CheckpointStore store;
+	private final JobScheduler scheduler;
+	private final StavisQueryOperator queryOperator;
+	private final QueryCycleStatus cycleStatus;
+	private final LeaderElection leaderElection;
+
+	/**
+	 * Creates a writer for the given application state. If a <code>LeaderElection</code> is given, checkpoints are
+	 * only saved while this instance is the leader, as a standby shares the checkpoint with the leader.
+	 */
+	public CheckpointWriter(CheckpointStore store, JobScheduler scheduler, StavisQueryOperator queryOperator,
+			QueryCycleStatus cycleStatus, LeaderElection leaderElection) {
+		this.store = store;
+		this.scheduler = scheduler;
+		this.queryOperator = queryOperator;
+		this.cycleStatus = cycleStatus;
+		this.leaderElection = leaderElection;
+	}
+
+	@Override
+	public void run() {
+		if (leaderElection != null && !leaderElection.isLeader()) {
+			return;
+		}
+		try {
+			store.save(Checkpoint.capture(scheduler, queryOperator, cycleStatus));
+			log.fine("Saved a checkpoint");
+		} catch (IOException | RuntimeException e) {
+			log.warning("Failed to save a checkpoint due to [{0}]", e.getMessage());
+		}
+	}
+
+	@Override
+	public void cycleSucceeded(List<Event> events) {
+		run();
+	}
+
+	@Override
+	public void cycleFailed(Exception e) {
+		run();
+	}
+}
@@ -0,0 +1,177 @@
+package com.john.application.configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import com.john.utils.metrics.Counter;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * A <code>Handler</code> that hands records to other handlers on a dedicated thread, so logging never makes the
+ * caller wait for the disk. Records are put on a <code>LogRingBuffer</code>, and the writer thread passes them
+ * on to the wrapped handlers in batches, flushing them once per batch rather than once per record. When the
+ * buffer is full the <code>OverflowPolicy</code> decides whether the caller waits for room or the record is
+ * dropped. Dropped records are counted and reported in a warning once there is room again. Closing the handler
+ * writes out every record already accepted before closing the wrapped handlers.
+ */
+public final class AsyncLogHandler extends Handler {
+	private static final int BATCH_SIZE = 256;
+	private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+	public static enum OverflowPolicy {
+		/** The caller waits until there is room in the buffer */
+		BLOCK,
+		/** The record is discarded, and counted */
+		DROP
+	}
+
+	private final Handler[] delegates;
+	private final LogRingBuffer<LogRecord> buffer;
+	private final OverflowPolicy overflowPolicy;
+	private final Thread writer;
+	private final AtomicLong droppedSinceReport = new AtomicLong();
+	private final Counter dropped = MetricsRegistry.counter("stavis_log_records_dropped_total",
+			"Log records dropped because the asynchronous log buffer was full");
+	private volatile boolean writerIdle;
+	private volatile boolean closed;
+
+	public AsyncLogHandler(Handler[] delegates, int capacity, OverflowPolicy overflowPolicy) {
+		this.delegates = delegates.clone();
+		this.buffer = new LogRingBuffer<>(capacity);
+		this.overflowPolicy = overflowPolicy;
+		setLevel(Level.ALL);
+		MetricsRegistry.gauge("stavis_log_buffer_depth", "Log records waiting to be written", buffer::size);
+		writer = new Thread(this::writeRecords, "async-log-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public boolean isLoggable(LogRecord record) {
+		if (!super.isLoggable(record)) {
+			return false;
+		}
+		for (Handler delegate : delegates) {
+			if (delegate.isLoggable(record)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		if (closed || !isLoggable(record)) {
+			return;
+		}
+		// the caller is inferred from the stack, which is only possible on the logging thread
+		record.getSourceClassName();
+		if (Thread.currentThread() == writer) {
+			// a wrapped handler logging about itself must not wait on the thread it is running on
+			writeRecord(record);
+			return;
+		}
+		while (!buffer.offer(record)) {
+			if (overflowPolicy == OverflowPolicy.DROP || closed) {
+				droppedSinceReport.incrementAndGet();
+				dropped.increment();
+				return;
+			}
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(FULL_PARK_NANOS);
+		}
+		if (writerIdle) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/** Wakes the writer thread, which flushes the wrapped handlers after writing what is buffered */
+	@Override
+	public void flush() {
+		LockSupport.unpark(writer);
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(CLOSE_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Handler delegate : delegates) {
+			delegate.close();
+		}
+	}
+
+	/** Returns the handlers records are passed on to */
+	public Handler[] getDelegates() {
+		return delegates.clone();
+	}
+
+	private void writeRecords() {
+		while (true) {
+			int written = 0;
+			LogRecord record;
+			while (written < BATCH_SIZE && (record = buffer.poll()) != null) {
+				writeRecord(record);
+				written++;
+			}
+			reportDropped();
+			if (written > 0) {
+				flushDelegates();
+				continue;
+			}
+			if (closed) {
+				return;
+			}
+			writerIdle = true;
+			// records offered just before writerIdle was set did not wake us, so look once more before parking
+			if (buffer.size() == 0 && !closed) {
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+			writerIdle = false;
+		}
+	}
+
+	private void writeRecord(LogRecord record) {
+		for (Handler delegate : delegates) {
+			try {
+				delegate.publish(record);
+			} catch (RuntimeException e) {
+				reportError(null, e, ErrorManager.WRITE_FAILURE);
+			}
+		}
+	}
+
+	private void flushDelegates() {
+		for (Handler delegate : delegates) {
+			try {
+				delegate.flush();
+			} catch (RuntimeException e) {
+				reportError(null, e, ErrorManager.FLUSH_FAILURE);
+			}
+		}
+	}
+
+	private void reportDropped() {
+		long count = droppedSinceReport.getAndSet(0);
+		if (count > 0) {
+			LogRecord warning = new LogRecord(Level.WARNING,
+					String.format("%d log record(s) were dropped because the asynchronous log buffer was full", count));
+			warning.setLoggerName(AsyncLogHandler.class.getCanonicalName());
+			writeRecord(warning);
+		}
+	}
+}
@@ -1,65 +1,134 @@
 package com.john.application.configuration;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ScheduledExecutorService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Filter;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
+import java.util.logging.XMLFormatter;
+import java.util.stream.Collectors;
 
+import com.john.application.configuration.AsyncLogHandler.OverflowPolicy;
+import com.john.utils.logging.AppLogger;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 /**
- * Responsible for loading the appropriate log properties file, and kicking off the scheduled task
- * of rotating log files. All interactions with the <code>LogManager</code> should occur through this class.
+ * Responsible for loading the appropriate log properties file, and for setting up log rotation and asynchronous
+ * logging on top of it. All interactions with the <code>LogManager</code> should occur through this class.
  */
 public class CustomLogManagement {
-	private static final Logger log = Logger.getLogger(CustomLogManagement.class.getCanonicalName());
-	private static final String FILE_HANDLER_PATTERN_KEY = "java.util.logging.FileHandler.pattern";
+	private static final AppLogger log = AppLogger.getLogger(CustomLogManagement.class.getCanonicalName());
 	private static final String HANDLERS_KEY = "handlers";
 	private static final String FILE_HANDLER = "java.util.logging.FileHandler";
+	private static final String FILE_HANDLER_PATTERN_KEY = FILE_HANDLER.concat(".pattern");
+	private static final String FILE_HANDLER_FORMATTER_KEY = FILE_HANDLER.concat(".formatter");
+	private static final String FILE_HANDLER_LEVEL_KEY = FILE_HANDLER.concat(".level");
+	private static final String FILE_HANDLER_ENCODING_KEY = FILE_HANDLER.concat(".encoding");
+	private static final String DEFAULT_FILE_HANDLER_PATTERN = "%h/java%u.log";
+	private static final int DEFAULT_ASYNC_CAPACITY = 8192;
+	private static final long DEFAULT_THROTTLE_INTERVAL_SECONDS = 60;
 	
 	/**
-	 * Read the logging.properties file and apply the configs globally
+	 * Read the logging.properties file and apply the configs globally. Unless disabled, a configured
+	 * <code>FileHandler</code> is replaced by a <code>RotatingFileHandler</code> writing to the same file, and the
+	 * configured handlers are then moved behind an <code>AsyncLogHandler</code>, so logging never waits for the disk,
+	 * and a <code>LogThrottleFilter</code> keeps repeated messages from flooding them.
 	 */
 	public static void enableApplicationLogging() {
-		readConfiguration();
+		Properties configuration = readConfiguration();
+		if (isEnabled(Property.LOGGING_ROTATION_ENABLED) && configuration.getProperty(HANDLERS_KEY, "").contains(FILE_HANDLER)) {
+			enableRotatingLogs(configuration);
+		}
+		if (isEnabled(Property.LOGGING_ASYNC_ENABLED)) {
+			enableAsyncLogging();
+		}
+		if (isEnabled(Property.LOGGING_THROTTLE_ENABLED)) {
+			enableLogThrottling();
+		}
 		log.fine("Enabled application logging");
 	}
 	
 	/**
-	 * Enable the use of different logging files swapped out at
-	 * predefined time intervals instead of always logging to the same
-	 * file. This only takes effect if a FileHandler is in use. The
-	 * provided <code>ScheduledExecutorService</code> instance will be in
-	 * charge of rotating log files. The log rotation will begin after an
-	 * initial delay of the specified frequency.
+	 * Adds a <code>RotatingFileHandler</code> to the root logger, set up like the <code>FileHandler</code> of the
+	 * given logging configuration, which it takes the place of.
 	 */
-	public static void enableRotatingLogs(ScheduledExecutorService executor) {
-		LogManager manager = LogManager.getLogManager();
-		if (manager.getProperty(HANDLERS_KEY).contains(FILE_HANDLER)) {
-			long frequency = Long.parseLong(ApplicationPropertyProvider.getProperty(Property.LOGGING_ROTATION_FREQUENCY));
-			log.fine(String.format("Enabling log rotation --> Logs will be rotated every %d minutes", frequency));
-			
-			try {
-				manager.updateConfiguration(key -> {
-					if (key.equals(FILE_HANDLER_PATTERN_KEY)) {
-						System.out.println(constructFileHandlerPattern());
-						return (oldV, newV) -> constructFileHandlerPattern();
-					}
-					return (oldV, newV) -> oldV;
-				});
-			} catch (IOException e) {
-				throw new RuntimeException(e);
+	private static void enableRotatingLogs(Properties configuration) {
+		String pattern = configuration.getProperty(FILE_HANDLER_PATTERN_KEY, DEFAULT_FILE_HANDLER_PATTERN);
+		try {
+			RotatingFileHandler handler = new RotatingFileHandler(resolvePattern(pattern), createFormatter(configuration),
+					Charset.forName(configuration.getProperty(FILE_HANDLER_ENCODING_KEY, Charset.defaultCharset().name())));
+			handler.setLevel(Level.parse(configuration.getProperty(FILE_HANDLER_LEVEL_KEY, Level.ALL.getName())));
+			Logger.getLogger("").addHandler(handler);
+			log.info("Enabled log rotation for {0}", resolvePattern(pattern));
+		} catch (IOException | IllegalArgumentException e) {
+			log.severe("Failed to enable log rotation for {0} due to [{1}] --> logging to the console only",
+					pattern, e.getMessage());
+		}
+	}
+	
+	private static void enableAsyncLogging() {
+		Logger root = Logger.getLogger("");
+		Handler[] handlers = root.getHandlers();
+		if (handlers.length == 0) {
+			return;
+		}
+		OverflowPolicy policy = OverflowPolicy.BLOCK;
+		String configuredPolicy = ApplicationPropertyProvider.getProperty(Property.LOGGING_ASYNC_OVERFLOW_POLICY, policy.name());
+		try {
+			policy = OverflowPolicy.valueOf(configuredPolicy.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			log.warning("Unknown log overflow policy {0} --> using {1}", configuredPolicy, policy);
+		}
+		int capacity = ApplicationPropertyProvider.getIntProperty(Property.LOGGING_ASYNC_CAPACITY, DEFAULT_ASYNC_CAPACITY);
+		
+		AsyncLogHandler asyncHandler = new AsyncLogHandler(handlers, capacity, policy);
+		for (Handler handler : handlers) {
+			root.removeHandler(handler);
+			if (handler instanceof RotatingFileHandler) {
+				// the async handler flushes once per batch
+				((RotatingFileHandler) handler).setAutoFlush(false);
 			}
 		}
+		root.addHandler(asyncHandler);
+		log.info("Logging asynchronously through a buffer of {0} records with a {1} overflow policy", capacity, policy);
 	}
 	
-	private static void readConfiguration() {
+	/**
+	 * Adds a <code>LogThrottleFilter</code> to the root handlers, after any filter they were configured with. When
+	 * logging asynchronously there is only the <code>AsyncLogHandler</code>, so repeats are dropped before they are
+	 * ever buffered.
+	 */
+	private static void enableLogThrottling() {
+		long intervalSeconds = Math.max(1, ApplicationPropertyProvider.getLongProperty(Property.LOGGING_THROTTLE_INTERVAL_SECONDS,
+				DEFAULT_THROTTLE_INTERVAL_SECONDS));
+		LogThrottleFilter throttle = new LogThrottleFilter(Duration.ofSeconds(intervalSeconds));
+		for (Handler handler : Logger.getLogger("").getHandlers()) {
+			Filter configured = handler.getFilter();
+			handler.setFilter(configured == null ? throttle : record -> configured.isLoggable(record) && throttle.isLoggable(record));
+		}
+		log.info("Repeated log messages will be summarized every {0} second(s)", intervalSeconds);
+	}
+	
+	/**
+	 * Reads the logging properties file for the current environment and applies it, except that a
+	 * <code>FileHandler</code> is left out when rotation is enabled. A <code>FileHandler</code> opens, and may
+	 * truncate, its file as soon as it is created, which must not happen to the file being rotated. Returns the
+	 * configuration as read from the file.
+	 */
+	private static Properties readConfiguration() {
 		LogManager logManager = LogManager.getLogManager();
 		File logFile = null;
 		if (ApplicationPropertyProvider.getBooleanProperty(Property.PROD)) {
@@ -70,22 +139,50 @@ public class CustomLogManagement {
 			logFile = new File("./resources/dev_logging.properties");
 		}
 		
-		try {
-			logManager.readConfiguration(new FileInputStream(logFile));
+		try (InputStream in = new FileInputStream(logFile)) {
+			Properties configuration = new Properties();
+			configuration.load(in);
+			Properties applied = new Properties();
+			applied.putAll(configuration);
+			if (isEnabled(Property.LOGGING_ROTATION_ENABLED) && configuration.containsKey(HANDLERS_KEY)) {
+				applied.setProperty(HANDLERS_KEY, Arrays.stream(configuration.getProperty(HANDLERS_KEY).split("[\\s,]+"))
+						.filter(handler -> !handler.equals(FILE_HANDLER))
+						.collect(Collectors.joining(",")));
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			applied.store(bytes, null);
+			logManager.readConfiguration(new ByteArrayInputStream(bytes.toByteArray()));
+			return configuration;
 		} catch (IOException e) {
-			log.severe("Failed to enable application logging due to: " + e.getMessage());
+			log.severe("Failed to enable application logging due to: {0}", e.getMessage());
 			throw new RuntimeException(e);
 		}
 	}
 	
-	private static String constructFileHandlerPattern() {
-		LogManager manager = LogManager.getLogManager();
-		final Path filePath = Path.of(manager.getProperty(FILE_HANDLER_PATTERN_KEY));
-		String fileName = filePath.getName(filePath.getNameCount() - 1).toString();
-		fileName = LocalDateTime.now()
-				.format(DateTimeFormatter
-						.ofPattern(ApplicationPropertyProvider.getProperty(Property.LOGGING_ROTATION_PREFIX)))
-				.concat(fileName);
-		return filePath.resolveSibling(fileName).toString().replaceAll("\\\\", "/");
+	private static Formatter createFormatter(Properties configuration) {
+		String formatter = configuration.getProperty(FILE_HANDLER_FORMATTER_KEY);
+		if (formatter == null) {
+			return new XMLFormatter();
+		}
+		try {
+			return (Formatter) Class.forName(formatter.trim()).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalArgumentException(String.format("Invalid formatter %s", formatter), e);
+		}
+	}
+	
+	// resolves the FileHandler pattern tokens to the single file a RotatingFileHandler writes to
+	private static Path resolvePattern(String pattern) {
+		String resolved = pattern.trim()
+				.replace("%h", System.getProperty("user.home"))
+				.replace("%t", System.getProperty("java.io.tmpdir"))
+				.replace("%g", "")
+				.replace("%u", "")
+				.replace("%%", "%");
+		return Path.of(resolved.replaceAll("\\\\", "/"));
+	}
+	
+	private static boolean isEnabled(Property property) {
+		return !ApplicationPropertyProvider.hasProperty(property) || ApplicationPropertyProvider.getBooleanProperty(property);
 	}
 }
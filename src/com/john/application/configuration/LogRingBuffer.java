@@ -0,0 +1,75 @@
+package com.john.application.configuration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producers and a single consumer. Each slot carries a sequence number that
+ * tells producers and the consumer whose turn it is: a producer claims a position with one compare-and-set on
+ * the tail, and the slot becomes visible to the consumer once its sequence is advanced. Neither side ever takes
+ * a lock, so a slow consumer can only make producers find the queue full, never make them wait on each other.
+ */
+final class LogRingBuffer<T> {
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<T> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	// only read and written by the consumer
+	private long head;
+
+	/** Creates a buffer holding at least the given number of elements, rounded up to a power of two */
+	LogRingBuffer(int requestedCapacity) {
+		capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+		mask = capacity - 1;
+		slots = new AtomicReferenceArray<>(capacity);
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/** Adds the given element, or returns <code>false</code> if the buffer is full. Safe for any thread. */
+	boolean offer(T element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.set(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/** Removes and returns the oldest element, or <code>null</code> if there is none. Only for the consumer. */
+	T poll() {
+		int index = (int) (head & mask);
+		if (sequences.get(index) != head + 1) {
+			return null;
+		}
+		T element = slots.get(index);
+		slots.set(index, null);
+		sequences.set(index, head + capacity);
+		head++;
+		return element;
+	}
+
+	/** Returns an estimate of the number of elements waiting */
+	int size() {
+		return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
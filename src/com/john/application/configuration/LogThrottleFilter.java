@@ -0,0 +1,149 @@
+package com.john.application.configuration;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Filter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import com.john.utils.metrics.Counter;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * A <code>Filter</code> that keeps repeated messages from flooding the logs. Records are recognized as repeats when
+ * they come from the same logger with the same message template, whatever their parameters, so for example a warning
+ * for every recipient of a disabled notification channel counts as one message. Within each interval the first
+ * <code>logging.throttle.burst</code> records of a message pass, and the rest are counted instead. At the end of
+ * the interval a single summary line with the count is logged for every message that had records suppressed, at
+ * the highest level among them, and the next interval starts afresh.
+ * <p>
+ * One instance may be shared by several handlers: a record is only counted once, however many handlers ask about it.
+ */
+public final class LogThrottleFilter implements Filter {
+	private static final int DEFAULT_BURST = 10;
+	private static final int MAX_TRACKED_MESSAGES = 1000;
+	private static final String SUMMARY_TEMPLATE = "Suppressed {0} repeat(s) of [{1}] in the last {2} second(s)";
+
+	private final Duration interval;
+	private final Thread summaryThread;
+	// logger name to message template to occurrences
+	private final Map<String, Map<String, Occurrences>> messages = new ConcurrentHashMap<>();
+	private final AtomicInteger trackedMessages = new AtomicInteger();
+	private final ThreadLocal<Decision> lastDecision = ThreadLocal.withInitial(Decision::new);
+	private final Counter suppressed = MetricsRegistry.counter("stavis_log_records_suppressed_total",
+			"Log records suppressed as repeats of the same message");
+	private volatile int burst;
+
+	public LogThrottleFilter(Duration interval) {
+		this.interval = interval;
+		this.burst = readBurst();
+		summaryThread = new Thread(this::summarizePeriodically, "log-throttle");
+		summaryThread.setDaemon(true);
+		summaryThread.start();
+	}
+
+	@Override
+	public boolean isLoggable(LogRecord record) {
+		// summaries are logged from the summary thread and always pass
+		if (Thread.currentThread() == summaryThread || record.getMessage() == null) {
+			return true;
+		}
+		Decision decision = lastDecision.get();
+		if (decision.record != record) {
+			decision.record = record;
+			decision.loggable = count(record);
+		}
+		return decision.loggable;
+	}
+
+	private boolean count(LogRecord record) {
+		String loggerName = record.getLoggerName() == null ? "" : record.getLoggerName();
+		Map<String, Occurrences> templates = messages.computeIfAbsent(loggerName, name -> new ConcurrentHashMap<>());
+		Occurrences occurrences = templates.get(record.getMessage());
+		if (occurrences == null) {
+			// the message may not be a template at all, so only so many distinct messages are tracked
+			if (trackedMessages.get() >= MAX_TRACKED_MESSAGES) {
+				return true;
+			}
+			occurrences = templates.computeIfAbsent(record.getMessage(), template -> {
+				trackedMessages.incrementAndGet();
+				return new Occurrences(record);
+			});
+		}
+		if (occurrences.passed.incrementAndGet() <= burst) {
+			return true;
+		}
+		occurrences.suppress(record.getLevel());
+		suppressed.increment();
+		return false;
+	}
+
+	private void summarizePeriodically() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				Thread.sleep(interval.toMillis());
+			} catch (InterruptedException e) {
+				return;
+			}
+			summarize();
+		}
+	}
+
+	// ends the interval: logs a summary for every throttled message, and forgets messages that were not seen
+	private void summarize() {
+		burst = readBurst();
+		messages.forEach((loggerName, templates) -> templates.forEach((template, occurrences) -> {
+			long count = occurrences.suppressed.getAndSet(0);
+			Level level = occurrences.maxSuppressedLevel;
+			occurrences.maxSuppressedLevel = Level.ALL;
+			if (occurrences.passed.getAndSet(0) == 0) {
+				templates.remove(template);
+				trackedMessages.decrementAndGet();
+			}
+			if (count > 0) {
+				LogRecord summary = new LogRecord(level, SUMMARY_TEMPLATE);
+				summary.setLoggerName(loggerName.isEmpty() ? null : loggerName);
+				summary.setParameters(new Object[] { String.valueOf(count), template, String.valueOf(interval.toSeconds()) });
+				summary.setSourceClassName(occurrences.sourceClassName);
+				summary.setSourceMethodName(occurrences.sourceMethodName);
+				Logger.getLogger(loggerName).log(summary);
+			}
+		}));
+	}
+
+	private static int readBurst() {
+		return Math.max(1, ApplicationPropertyProvider.getIntProperty(Property.LOGGING_THROTTLE_BURST, DEFAULT_BURST));
+	}
+
+	private static final class Occurrences {
+		private final AtomicInteger passed = new AtomicInteger();
+		private final AtomicLong suppressed = new AtomicLong();
+		private final String sourceClassName;
+		private final String sourceMethodName;
+		private volatile Level maxSuppressedLevel = Level.ALL;
+
+		private Occurrences(LogRecord first) {
+			this.sourceClassName = first.getSourceClassName();
+			this.sourceMethodName = first.getSourceMethodName();
+		}
+
+		private void suppress(Level level) {
+			suppressed.incrementAndGet();
+			if (level.intValue() > maxSuppressedLevel.intValue()) {
+				maxSuppressedLevel = level;
+			}
+		}
+	}
+
+	// the last record a thread asked about, so a record offered to several handlers is counted once
+	private static final class Decision {
+		private LogRecord record;
+		private boolean loggable;
+	}
+}
@@ -0,0 +1,282 @@
+package com.john.application.configuration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.zip.GZIPOutputStream;
+
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * A <code>Handler</code> that writes to a single active log file and rotates it when a period boundary passes or
+ * the file reaches <code>logging.rotation.maxsize</code> bytes. Periods are <code>logging.rotation.frequency</code>
+ * minutes long and aligned to local midnight, so a frequency of 1440 rotates daily at midnight. Rotating renames
+ * the active file to its archive name (the period start formatted with <code>logging.rotation.prefix</code>,
+ * followed by the file name) and opens a fresh one, all while holding the handler's lock, so no record is lost
+ * or written to the wrong file. A rename is only a metadata update, so callers are never held up for long.
+ * Compressing archives with gzip and deleting the oldest ones, until at most <code>logging.rotation.maxfiles</code>
+ * archives using at most <code>logging.rotation.maxtotalsize</code> bytes remain, happens afterwards on a
+ * low-priority background thread.
+ */
+public final class RotatingFileHandler extends Handler {
+	private static final long DEFAULT_FREQUENCY_MINUTES = 1440;
+	private static final String DEFAULT_PREFIX = "yyyy-MM-dd_";
+	private static final long DEFAULT_MAX_SIZE = 10L * 1024 * 1024;
+	private static final int DEFAULT_MAX_FILES = 14;
+	private static final long DEFAULT_MAX_TOTAL_SIZE = 100L * 1024 * 1024;
+	private static final String COMPRESSED_EXTENSION = ".gz";
+	private static final String TEMP_EXTENSION = ".tmp";
+	private static final String LOCK_EXTENSION = ".lck";
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Path activeFile;
+	private final String fileName;
+	private final ExecutorService archiver;
+	private boolean autoFlush = true;
+
+	// guarded by this
+	private OutputStream out;
+	private long bytesWritten;
+	private LocalDateTime periodStart;
+	private LocalDateTime nextRotation;
+
+	public RotatingFileHandler(Path activeFile, Formatter formatter, Charset encoding) throws IOException {
+		this.activeFile = activeFile.toAbsolutePath();
+		this.fileName = this.activeFile.getFileName().toString();
+		setFormatter(formatter);
+		try {
+			setEncoding(encoding.name());
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+		archiver = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "log-archiver");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		Files.createDirectories(this.activeFile.getParent());
+
+		LocalDateTime now = LocalDateTime.now();
+		computePeriod(now);
+		// a file left over from a period that has passed, e.g. before a restart after midnight, is archived first
+		if (Files.exists(this.activeFile) && Files.size(this.activeFile) > 0) {
+			LocalDateTime lastWrite = LocalDateTime.ofInstant(Files.getLastModifiedTime(this.activeFile).toInstant(),
+					ZoneId.systemDefault());
+			if (lastWrite.isBefore(periodStart)) {
+				archive(lastWrite);
+			}
+		}
+		open();
+		archiver.execute(this::compressAndPrune);
+	}
+
+	/**
+	 * Sets whether every record is flushed to disk as soon as it is written. Turned off when records arrive in
+	 * batches that are flushed together, as from an <code>AsyncLogHandler</code>.
+	 */
+	public void setAutoFlush(boolean autoFlush) {
+		this.autoFlush = autoFlush;
+	}
+
+	@Override
+	public synchronized void publish(LogRecord record) {
+		if (out == null || !isLoggable(record)) {
+			return;
+		}
+		byte[] bytes;
+		try {
+			bytes = getFormatter().format(record).getBytes(getEncoding());
+		} catch (Exception e) {
+			reportError(null, e, ErrorManager.FORMAT_FAILURE);
+			return;
+		}
+		try {
+			LocalDateTime now = LocalDateTime.now();
+			if (!now.isBefore(nextRotation) || (bytesWritten > 0 && bytesWritten + bytes.length > maxSize())) {
+				rotate(now);
+			}
+			out.write(bytes);
+			bytesWritten += bytes.length;
+			if (autoFlush) {
+				out.flush();
+			}
+		} catch (IOException e) {
+			reportError(null, e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+
+	@Override
+	public synchronized void flush() {
+		if (out != null) {
+			try {
+				out.flush();
+			} catch (IOException e) {
+				reportError(null, e, ErrorManager.FLUSH_FAILURE);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (out == null) {
+				return;
+			}
+			try {
+				out.close();
+			} catch (IOException e) {
+				reportError(null, e, ErrorManager.CLOSE_FAILURE);
+			}
+			out = null;
+		}
+		archiver.shutdown();
+		try {
+			archiver.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void rotate(LocalDateTime now) throws IOException {
+		out.close();
+		try {
+			archive(periodStart);
+		} finally {
+			// if the file could not be moved aside, keep appending to it rather than stop logging
+			computePeriod(now);
+			open();
+		}
+		archiver.execute(this::compressAndPrune);
+	}
+
+	private void open() throws IOException {
+		out = new BufferedOutputStream(Files.newOutputStream(activeFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+				BUFFER_SIZE);
+		bytesWritten = Files.size(activeFile);
+	}
+
+	// moves the active file aside under the archive name of the period it was written in
+	private void archive(LocalDateTime period) throws IOException {
+		String archiveName = period.format(prefixFormatter()).concat(fileName);
+		Path archive = activeFile.resolveSibling(archiveName);
+		// rotations by size within one period get a sequence number
+		for (int sequence = 1; Files.exists(archive) || Files.exists(compressedPathOf(archive)); sequence++) {
+			archive = activeFile.resolveSibling(String.format("%s.%d", archiveName, sequence));
+		}
+		Files.move(activeFile, archive, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void computePeriod(LocalDateTime now) {
+		long frequencyMinutes = Math.max(1, ApplicationPropertyProvider.getLongProperty(Property.LOGGING_ROTATION_FREQUENCY,
+				DEFAULT_FREQUENCY_MINUTES));
+		LocalDateTime midnight = now.toLocalDate().atStartOfDay();
+		long periodsSinceMidnight = Duration.between(midnight, now).toMinutes() / frequencyMinutes;
+		periodStart = midnight.plusMinutes(periodsSinceMidnight * frequencyMinutes);
+		nextRotation = periodStart.plusMinutes(frequencyMinutes);
+		// periods never span midnight, so that daily archives always line up with dates
+		LocalDateTime nextMidnight = midnight.plusDays(1);
+		if (nextRotation.isAfter(nextMidnight)) {
+			nextRotation = nextMidnight;
+		}
+	}
+
+	private void compressAndPrune() {
+		try {
+			for (Path archive : listArchives()) {
+				if (!archive.getFileName().toString().endsWith(COMPRESSED_EXTENSION)) {
+					compress(archive);
+				}
+			}
+			prune();
+		} catch (IOException | RuntimeException e) {
+			reportError("Failed to compress or prune rotated log files", e, ErrorManager.GENERIC_FAILURE);
+		}
+	}
+
+	private static void compress(Path archive) throws IOException {
+		Path compressed = compressedPathOf(archive);
+		Path temp = compressed.resolveSibling(compressed.getFileName() + TEMP_EXTENSION);
+		try (InputStream in = Files.newInputStream(archive);
+				OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+			in.transferTo(gzip);
+		}
+		Files.setLastModifiedTime(temp, Files.getLastModifiedTime(archive));
+		Files.move(temp, compressed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Files.delete(archive);
+	}
+
+	private void prune() throws IOException {
+		List<Path> archives = listArchives();
+		archives.sort(Comparator.comparing(RotatingFileHandler::lastModified).reversed());
+		int maxFiles = ApplicationPropertyProvider.getIntProperty(Property.LOGGING_ROTATION_MAX_FILES, DEFAULT_MAX_FILES);
+		long maxTotalSize = ApplicationPropertyProvider.getLongProperty(Property.LOGGING_ROTATION_MAX_TOTAL_SIZE,
+				DEFAULT_MAX_TOTAL_SIZE);
+		long totalSize = 0;
+		for (int i = 0; i < archives.size(); i++) {
+			Path archive = archives.get(i);
+			totalSize += Files.size(archive);
+			if (i >= maxFiles || totalSize > maxTotalSize) {
+				Files.deleteIfExists(archive);
+			}
+		}
+	}
+
+	// every file next to the active file that was rotated from it, compressed or not
+	private List<Path> listArchives() throws IOException {
+		List<Path> archives = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(activeFile.getParent())) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (!name.equals(fileName) && name.contains(fileName) && !name.endsWith(TEMP_EXTENSION)
+						&& !name.endsWith(LOCK_EXTENSION)) {
+					archives.add(file);
+				}
+			}
+		}
+		return archives;
+	}
+
+	private static Path compressedPathOf(Path archive) {
+		return archive.resolveSibling(archive.getFileName() + COMPRESSED_EXTENSION);
+	}
+
+	private static Instant lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toInstant();
+		} catch (IOException e) {
+			return Instant.EPOCH;
+		}
+	}
+
+	private static DateTimeFormatter prefixFormatter() {
+		return DateTimeFormatter.ofPattern(ApplicationPropertyProvider.getProperty(Property.LOGGING_ROTATION_PREFIX, DEFAULT_PREFIX));
+	}
+
+	private static long maxSize() {
+		return ApplicationPropertyProvider.getLongProperty(Property.LOGGING_ROTATION_MAX_SIZE, DEFAULT_MAX_SIZE);
+	}
+}
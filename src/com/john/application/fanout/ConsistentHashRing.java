@@ -0,0 +1,71 @@
+package com.john.application.fanout;
+
+import java.util.Arrays;
+
+/**
+ * Assigns keys to partitions with consistent hashing. Every partition owns many points on a ring of 64-bit hashes,
+ * and a key belongs to the partition that owns the first point at or after the key's hash. When the number of
+ * partitions changes, only about one in every <i>n</i> keys moves to another partition, so each worker keeps
+ * notifying mostly the same subscribers, and with them the same mail provider reputation.
+ */
+public final class ConsistentHashRing {
+	private static final int DEFAULT_POINTS_PER_PARTITION = 128;
+
+	private final int partitions;
+	private final long[] points;
+	private final int[] owners;
+
+	public ConsistentHashRing(int partitions) {
+		this(partitions, DEFAULT_POINTS_PER_PARTITION);
+	}
+
+	public ConsistentHashRing(int partitions, int pointsPerPartition) {
+		if (partitions < 1 || pointsPerPartition < 1) {
+			throw new IllegalArgumentException(String.format("Cannot build a ring of %d partition(s) with %d point(s) each",
+					partitions, pointsPerPartition));
+		}
+		this.partitions = partitions;
+		long[][] ring = new long[partitions * pointsPerPartition][];
+		for (int partition = 0; partition < partitions; partition++) {
+			for (int point = 0; point < pointsPerPartition; point++) {
+				ring[partition * pointsPerPartition + point] = new long[] { hash(String.format("partition-%d#%d", partition, point)),
+						partition };
+			}
+		}
+		Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+		points = new long[ring.length];
+		owners = new int[ring.length];
+		for (int i = 0; i < ring.length; i++) {
+			points[i] = ring[i][0];
+			owners[i] = (int) ring[i][1];
+		}
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/** Returns the partition, from 0 to <code>getPartitions() - 1</code>, that the given key belongs to */
+	public int partitionOf(String key) {
+		int index = Arrays.binarySearch(points, hash(key));
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return owners[index == points.length ? 0 : index];
+	}
+
+	// FNV-1a over the characters, finished with the MurmurHash3 mix so that similar keys spread over the whole ring
+	static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
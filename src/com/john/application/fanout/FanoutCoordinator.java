@@ -0,0 +1,120 @@
+package com.john.application.fanout;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.SubscriberSnapshot;
+import com.john.utils.providers.SubscriberStoreCompiler;
+
+/**
+ * Publishes notification cycles to the spool, instead of sending them, for <code>FanoutWorker</code>s to deliver.
+ * The recipients are split into partitions with a <code>ConsistentHashRing</code>, keyed by their email address, or
+ * their phone number if they have none, so that a subscriber is always notified by the same worker on every channel.
+ * Publishing also removes batches that every worker has finished with, and batches older than the retention period.
+ */
+public final class FanoutCoordinator {
+	private static final AppLogger log = AppLogger.getLogger(FanoutCoordinator.class.getCanonicalName());
+
+	private final Path spool;
+	private final ConsistentHashRing ring;
+	private final Duration retention;
+	private long lastPublishedMillis;
+	private int sequence;
+
+	public FanoutCoordinator(Path spool, int partitions, Duration retention) {
+		this.spool = spool.toAbsolutePath();
+		this.ring = new ConsistentHashRing(partitions);
+		this.retention = retention;
+	}
+
+	public synchronized void publish(NotificationBatch batch, SubscriberSnapshot subscribers) throws IOException {
+		final long start = System.nanoTime();
+		List<List<Recipient>> partitions = new ArrayList<>(ring.getPartitions());
+		for (int i = 0; i < ring.getPartitions(); i++) {
+			partitions.add(new ArrayList<>());
+		}
+		int recipients = 0;
+		for (Recipient recipient : subscribers.getRecipients()) {
+			if (recipient.getEmailEnabled() || (recipient.getSmsEnabled() && recipient.getPhoneProvider() != null)) {
+				partitions.get(ring.partitionOf(keyOf(recipient))).add(recipient);
+				recipients++;
+			}
+		}
+
+		String id = nextBatchId();
+		Path temp = spool.resolve(".".concat(id));
+		Files.createDirectories(temp);
+		Files.writeString(temp.resolve(FanoutSpool.BATCH_FILE), batch.withPartitions(partitions.size()).toString(),
+				StandardCharsets.UTF_8);
+		for (int i = 0; i < partitions.size(); i++) {
+			List<Recipient> partition = partitions.get(i);
+			if (partition.isEmpty()) {
+				Files.writeString(FanoutSpool.doneFile(temp, i), "empty");
+			} else {
+				SubscriberStoreCompiler.compile(partition.toArray(new Recipient[0]), FanoutSpool.partitionFile(temp, i));
+			}
+		}
+		Files.move(temp, spool.resolve(id), StandardCopyOption.ATOMIC_MOVE);
+		log.info("Published {0} with {1} recipient(s) in {2} partition(s) in {3}ms", id, recipients, partitions.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		removeFinishedBatches();
+	}
+
+	static String keyOf(Recipient recipient) {
+		String email = recipient.getEmail();
+		return email == null || email.isEmpty() ? String.valueOf(recipient.getPhoneNumber()) : email.toLowerCase();
+	}
+
+	// the epoch millis keep batch names in publishing order across restarts, the sequence within a millisecond
+	private String nextBatchId() {
+		long now = System.currentTimeMillis();
+		if (now <= lastPublishedMillis) {
+			sequence++;
+			now = lastPublishedMillis;
+		} else {
+			sequence = 0;
+			lastPublishedMillis = now;
+		}
+		return FanoutSpool.batchId(now, sequence);
+	}
+
+	// the newest batch is kept, so a worker that starts later still delivers the current notifications
+	private void removeFinishedBatches() {
+		try {
+			List<Path> batches = FanoutSpool.listBatches(spool);
+			long expiry = System.currentTimeMillis() - retention.toMillis();
+			for (Path batch : batches.subList(0, Math.max(0, batches.size() - 1))) {
+				List<Integer> pending = pendingPartitions(batch);
+				if (pending.isEmpty()) {
+					FanoutSpool.delete(batch);
+				} else if (FanoutSpool.publishedAt(batch) < expiry) {
+					log.warning("Removing {0}, which partition(s) {1} never delivered", batch.getFileName(), pending);
+					FanoutSpool.delete(batch);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			log.warning("Failed to remove finished batches from {0} due to [{1}]", spool, e.getMessage());
+		}
+	}
+
+	// counted against the partitions the batch was published in, as fanout.partitions may have changed since
+	private List<Integer> pendingPartitions(Path batch) throws IOException {
+		int partitions = FanoutSpool.readBatch(batch).getPartitions();
+		List<Integer> pending = new ArrayList<>();
+		for (int i = 0; i < (partitions > 0 ? partitions : ring.getPartitions()); i++) {
+			if (!Files.exists(FanoutSpool.doneFile(batch, i))) {
+				pending.add(i);
+			}
+		}
+		return pending;
+	}
+}
@@ -0,0 +1,34 @@
+package com.john.application.fanout;
+
+/**
+ * The part an instance of the application plays in notification fan-out, as set by <code>fanout.role</code>:
+ * <ul>
+ * <li><code>none</code> (the default) sends every notification itself</li>
+ * <li><code>coordinator</code> queries the calendar and publishes every notification cycle to the spool</li>
+ * <li><code>worker</code> only delivers its partition of every cycle published to the spool</li>
+ * </ul>
+ */
+public enum FanoutRole {
+	NONE("none"),
+	COORDINATOR("coordinator"),
+	WORKER("worker");
+
+	private final String value;
+
+	FanoutRole(String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static FanoutRole fromValue(String value) {
+		for (FanoutRole role : values()) {
+			if (role.value.equalsIgnoreCase(value.trim())) {
+				return role;
+			}
+		}
+		throw new IllegalArgumentException(String.format("Unknown fan-out role %s", value));
+	}
+}
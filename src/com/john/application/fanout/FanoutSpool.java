@@ -0,0 +1,76 @@
+package com.john.application.fanout;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+
+/**
+ * The layout of the spool directory shared by the <code>FanoutCoordinator</code> and its <code>FanoutWorker</code>s.
+ * Every notification cycle is a batch directory, named so that batches sort by the time they were published:
+ * <pre>
+ * batch-&lt;epoch millis&gt;-&lt;sequence&gt;/
+ *     batch.json            the rendered notifications and the number of partitions, a <code>NotificationBatch</code>
+ *     partition-&lt;n&gt;.bin      the recipients of partition n, compiled like the subscriber file
+ *     partition-&lt;n&gt;.progress how many emails and texts the worker of partition n has sent so far
+ *     partition-&lt;n&gt;.done     written once partition n has been delivered, or superseded by a newer batch
+ * </pre>
+ * Batches are assembled in a hidden directory and renamed into place, so workers never see a partial batch.
+ */
+final class FanoutSpool {
+	static final String BATCH_FILE = "batch.json";
+	static final String BATCH_PREFIX = "batch-";
+
+	private FanoutSpool() {}
+
+	static String batchId(long epochMillis, int sequence) {
+		return String.format("%s%013d-%03d", BATCH_PREFIX, epochMillis, sequence);
+	}
+
+	/** Returns the epoch millis a batch was published at, from its directory name */
+	static long publishedAt(Path batch) {
+		String name = batch.getFileName().toString();
+		return Long.parseLong(name.substring(BATCH_PREFIX.length(), name.lastIndexOf('-')));
+	}
+
+	static Path partitionFile(Path batch, int partition) {
+		return batch.resolve(String.format("partition-%d.bin", partition));
+	}
+
+	static Path progressFile(Path batch, int partition) {
+		return batch.resolve(String.format("partition-%d.progress", partition));
+	}
+
+	static Path doneFile(Path batch, int partition) {
+		return batch.resolve(String.format("partition-%d.done", partition));
+	}
+
+	static NotificationBatch readBatch(Path batch) throws IOException {
+		return new NotificationBatch(new JSONObject(Files.readString(batch.resolve(BATCH_FILE), StandardCharsets.UTF_8)));
+	}
+
+	/** Returns every complete batch in the spool, oldest first */
+	static List<Path> listBatches(Path spool) throws IOException {
+		if (!Files.isDirectory(spool)) {
+			return List.of();
+		}
+		try (Stream<Path> entries = Files.list(spool)) {
+			return entries.filter(entry -> entry.getFileName().toString().startsWith(BATCH_PREFIX) && Files.isDirectory(entry))
+					.sorted(Comparator.comparing(entry -> entry.getFileName().toString())).collect(Collectors.toList());
+		}
+	}
+
+	static void delete(Path directory) throws IOException {
+		try (Stream<Path> entries = Files.walk(directory)) {
+			for (Path entry : entries.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(entry);
+			}
+		}
+	}
+}
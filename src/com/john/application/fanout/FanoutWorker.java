@@ -0,0 +1,170 @@
+package com.john.application.fanout;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.john.notifications.EmailNotificationService;
+import com.john.notifications.HtmlEmailNotificationService;
+import com.john.notifications.NotificationService;
+import com.john.notifications.TextNotificationService;
+import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.MappedSubscriberStore;
+import com.john.utils.providers.SubscriberSnapshot;
+
+/**
+ * Delivers one partition of every batch the <code>FanoutCoordinator</code> publishes to the spool. Each time it runs,
+ * it claims its partition of the newest batch with an exclusive lock on the partition file, so that a second worker
+ * started for the same partition by mistake waits instead of notifying twice, and a worker that crashed releases its
+ * claim with its process. Progress is saved after every notification, so a restarted worker skips the recipients it
+ * already notified, and re-sends at most the one notification it was sending when it stopped. Undelivered partitions
+ * of older batches are marked as superseded instead of delivered, as each batch notifies of every upcoming event. A
+ * worker whose partition is not below the number of partitions the newest batch was published in has nothing to
+ * deliver, which is logged as an error until either is changed.
+ */
+public final class FanoutWorker implements Runnable {
+	private static final AppLogger log = AppLogger.getLogger(FanoutWorker.class.getCanonicalName());
+
+	private final Path spool;
+	private final int partition;
+	private int reportedPartitions;
+
+	public FanoutWorker(Path spool, int partition) {
+		if (partition < 0) {
+			throw new IllegalArgumentException(String.format("A fan-out partition cannot be negative, but was %d", partition));
+		}
+		this.spool = spool.toAbsolutePath();
+		this.partition = partition;
+	}
+
+	@Override
+	public void run() {
+		List<Path> batches;
+		try {
+			batches = FanoutSpool.listBatches(spool);
+		} catch (IOException e) {
+			log.warning("Failed to list the batches in {0} due to [{1}]", spool, e.getMessage());
+			return;
+		}
+		if (!batches.isEmpty() && !isPublished(batches.get(batches.size() - 1))) {
+			return;
+		}
+		for (int i = 0; i < batches.size(); i++) {
+			Path batch = batches.get(i);
+			if (Files.exists(FanoutSpool.doneFile(batch, partition)) || !Files.exists(FanoutSpool.partitionFile(batch, partition))) {
+				continue;
+			}
+			try {
+				claim(batch, i == batches.size() - 1);
+			} catch (NoSuchFileException e) {
+				// removed by the coordinator in the meantime
+			} catch (IOException | RuntimeException e) {
+				log.warning("Failed to deliver partition {0} of {1} due to [{2}] --> retrying on the next run", partition,
+						batch.getFileName(), e.getMessage());
+			}
+		}
+	}
+
+	// whether the coordinator publishes this worker's partition at all, judged by the newest batch
+	private boolean isPublished(Path batch) {
+		int partitions;
+		try {
+			partitions = FanoutSpool.readBatch(batch).getPartitions();
+		} catch (IOException | RuntimeException e) {
+			// the batch is read again when it is delivered, which reports the failure
+			return true;
+		}
+		if (partitions == 0 || partition < partitions) {
+			reportedPartitions = 0;
+			return true;
+		}
+		if (partitions != reportedPartitions) {
+			log.severe("Fan-out partition {0} is not published, as the coordinator publishes {1} partition(s) --> "
+					+ "nothing will be delivered until fanout.partition is below {1}", partition, partitions);
+			reportedPartitions = partitions;
+		}
+		return false;
+	}
+
+	private void claim(Path batch, boolean newest) throws IOException {
+		try (FileChannel channel = FileChannel.open(FanoutSpool.partitionFile(batch, partition), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			FileLock lock;
+			try {
+				lock = channel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				lock = null;
+			}
+			if (lock == null) {
+				log.fine("Partition {0} of {1} is claimed by another worker", partition, batch.getFileName());
+				return;
+			}
+			// the previous holder of the lock may have finished it
+			if (Files.exists(FanoutSpool.doneFile(batch, partition))) {
+				return;
+			}
+			if (newest) {
+				deliver(batch);
+			} else {
+				Files.writeString(FanoutSpool.doneFile(batch, partition), "superseded");
+				log.info("Partition {0} of {1} was superseded by a newer batch --> not delivering it", partition,
+						batch.getFileName());
+			}
+		}
+	}
+
+	private void deliver(Path batch) throws IOException {
+		final long start = System.nanoTime();
+		NotificationBatch notifications = FanoutSpool.readBatch(batch);
+		SubscriberSnapshot recipients = MappedSubscriberStore.open(FanoutSpool.partitionFile(batch, partition));
+		int[] sent = readProgress(batch);
+		if (sent[0] > 0 || sent[1] > 0) {
+			log.info("Resuming partition {0} of {1} --> skipping {2} email(s) and {3} text(s) already sent", partition,
+					batch.getFileName(), sent[0], sent[1]);
+		}
+		NotificationService emailService = notifications.isHtmlEmail() ? new HtmlEmailNotificationService()
+				: new EmailNotificationService();
+		NotificationService textService = new TextNotificationService();
+		List<Recipient> emailRecipients = recipients.getEmailRecipients();
+		while (sent[0] < emailRecipients.size()) {
+			emailService.notify(emailRecipients.get(sent[0]), notifications.getEmailSubject(), notifications.getEmailBody());
+			sent[0]++;
+			saveProgress(batch, sent);
+		}
+		List<Recipient> smsRecipients = recipients.getSmsRecipients();
+		while (sent[1] < smsRecipients.size()) {
+			textService.notify(smsRecipients.get(sent[1]), notifications.getTextSubject(), notifications.getTextBody());
+			sent[1]++;
+			saveProgress(batch, sent);
+		}
+		Files.writeString(FanoutSpool.doneFile(batch, partition), "delivered");
+		Files.deleteIfExists(FanoutSpool.progressFile(batch, partition));
+		log.info("Delivered partition {0} of {1}: {2} email(s) and {3} text(s) in {4}ms", partition, batch.getFileName(),
+				emailRecipients.size(), smsRecipients.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	private int[] readProgress(Path batch) throws IOException {
+		Path progress = FanoutSpool.progressFile(batch, partition);
+		if (!Files.exists(progress)) {
+			return new int[2];
+		}
+		String[] counts = Files.readString(progress).trim().split(" ");
+		return new int[] { Integer.parseInt(counts[0]), Integer.parseInt(counts[1]) };
+	}
+
+	private void saveProgress(Path batch, int[] sent) throws IOException {
+		Path progress = FanoutSpool.progressFile(batch, partition);
+		Path temp = progress.resolveSibling(progress.getFileName() + ".tmp");
+		Files.writeString(temp, String.format("%d %d", sent[0], sent[1]));
+		Files.move(temp, progress, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
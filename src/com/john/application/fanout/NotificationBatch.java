@@ -0,0 +1,87 @@
+package com.john.application.fanout;
+
+import java.time.Instant;
+
+import org.json.JSONObject;
+
+import com.john.model.JSONBasedObject;
+
+/**
+ * The notifications of one cycle, as published to the spool by the <code>FanoutCoordinator</code>. Messages are
+ * rendered once by the coordinator, so every worker sends exactly the same text. The batch also records how many
+ * partitions the coordinator split its recipients into, which may differ between batches.
+ */
+public final class NotificationBatch extends JSONBasedObject {
+	private final Instant createdAt;
+	private final String emailSubject;
+	private final String emailBody;
+	private final boolean htmlEmail;
+	private final String textSubject;
+	private final String textBody;
+	private final int partitions;
+
+	NotificationBatch(JSONObject object) {
+		super(object);
+		createdAt = Instant.parse(object.getString("createdAt"));
+		emailSubject = object.getString("emailSubject");
+		emailBody = object.getString("emailBody");
+		htmlEmail = object.getBoolean("htmlEmail");
+		textSubject = object.getString("textSubject");
+		textBody = object.getString("textBody");
+		partitions = object.optInt("partitions", 0);
+	}
+
+	public static NotificationBatch of(String emailSubject, String emailBody, boolean htmlEmail, String textSubject, String textBody) {
+		return create(Instant.now(), emailSubject, emailBody, htmlEmail, textSubject, textBody, 0);
+	}
+
+	/** Returns a copy of this batch that records the given number of partitions */
+	NotificationBatch withPartitions(int partitions) {
+		return create(createdAt, emailSubject, emailBody, htmlEmail, textSubject, textBody, partitions);
+	}
+
+	private static NotificationBatch create(Instant createdAt, String emailSubject, String emailBody, boolean htmlEmail,
+			String textSubject, String textBody, int partitions) {
+		JSONObject object = new JSONObject();
+		object.put("createdAt", createdAt.toString());
+		object.put("emailSubject", emailSubject);
+		object.put("emailBody", emailBody);
+		object.put("htmlEmail", htmlEmail);
+		object.put("textSubject", textSubject);
+		object.put("textBody", textBody);
+		if (partitions > 0) {
+			object.put("partitions", partitions);
+		}
+		return new NotificationBatch(object);
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public String getEmailSubject() {
+		return emailSubject;
+	}
+
+	public String getEmailBody() {
+		return emailBody;
+	}
+
+	/** Returns whether the email body is HTML rather than plain text */
+	public boolean isHtmlEmail() {
+		return htmlEmail;
+	}
+
+	public String getTextSubject() {
+		return textSubject;
+	}
+
+	public String getTextBody() {
+		return textBody;
+	}
+
+	/** Returns the number of partitions the batch was published in, or 0 if it has not been published yet */
+	public int getPartitions() {
+		return partitions;
+	}
+}
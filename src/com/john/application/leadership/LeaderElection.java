@@ -0,0 +1,293 @@
+package com.john.application.leadership;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * Elects one leader among instances of the application that share a lock file, for example two processes on one
+ * machine or two machines with the file on a shared drive. Only the leader notifies subscribers and admins; the
+ * others are standbys that keep querying, so their tokens, connections and caches are warm when they take over.
+ * <p>
+ * The leader holds an exclusive lock on the file and writes a <code>Lease</code> into it on every heartbeat. An
+ * instance only takes the lease if it gets the lock and the lease has been released, or has not changed for the
+ * lease duration as measured by its own clock. The second condition covers shared drives that do not honour locks
+ * across machines, as well as a leader that died moments ago. Content that cannot be parsed, such as a lease read
+ * halfway through a heartbeat, counts as a live lease too. Every instance that takes the lease increments the highest
+ * fencing token it has seen, so a leader that was paused for longer than the lease and lost it finds out on its next
+ * heartbeat, or sooner through <code>verify</code>, and steps down.
+ * <p>
+ * The election advances each time it runs, so it is meant to be scheduled every heartbeat interval. Instances
+ * are created with <code>newBuilder</code>.
+ */
+public final class LeaderElection implements Runnable {
+	private static final AppLogger log = AppLogger.getLogger(LeaderElection.class.getCanonicalName());
+
+	private final Path lockFile;
+	private final Duration leaseDuration;
+	private final String instanceId;
+	private final List<LeadershipListener> listeners = new CopyOnWriteArrayList<>();
+
+	private FileChannel channel;
+	private FileLock lock;
+	private String observed;
+	private long observedAtNanos;
+	private long highestToken;
+	private long sequence;
+	private volatile long fencingToken;
+	private volatile long lastRenewalNanos;
+	private volatile boolean leader;
+	private boolean closed;
+
+	private LeaderElection(Builder builder) {
+		this.lockFile = builder.lockFile.toAbsolutePath();
+		this.leaseDuration = builder.leaseDuration;
+		this.instanceId = builder.instanceId;
+		MetricsRegistry.gauge("stavis_leader", "Whether this instance is the leader", () -> isLeader() ? 1 : 0);
+		MetricsRegistry.gauge("stavis_fencing_token", "The fencing token of this instance's last lease", () -> fencingToken);
+	}
+
+	public static Builder newBuilder(Path lockFile) {
+		return new Builder(lockFile);
+	}
+
+	/** Registers a listener that is told whenever this instance becomes the leader or stops being it */
+	public void addListener(LeadershipListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Returns whether this instance is the leader. A leader that has not renewed its lease for the lease duration,
+	 * for example because it was paused, is not considered the leader until it has.
+	 */
+	public boolean isLeader() {
+		return leader && System.nanoTime() - lastRenewalNanos < leaseDuration.toNanos();
+	}
+
+	/** Returns the fencing token of this instance's current or last lease, or 0 if it has never held one */
+	public long getFencingToken() {
+		return fencingToken;
+	}
+
+	public String getInstanceId() {
+		return instanceId;
+	}
+
+	/** Renews the lease if this instance is the leader, or tries to take it otherwise */
+	@Override
+	public synchronized void run() {
+		if (closed) {
+			return;
+		}
+		try {
+			if (leader) {
+				renew();
+			} else {
+				campaign();
+			}
+		} catch (IOException e) {
+			log.warning("Failed to access the lock file {0} due to [{1}]", lockFile, e.getMessage());
+			if (leader && !isLeader()) {
+				stepDown("its lease could not be renewed");
+			}
+		}
+	}
+
+	/**
+	 * Checks against the lock file that this instance still holds the lease, and steps down if it does not. Meant for
+	 * right before work that must not be done twice, as the resources it uses cannot check a fencing token themselves.
+	 */
+	public synchronized boolean verify() {
+		if (!isLeader()) {
+			return false;
+		}
+		try {
+			String content = read();
+			Lease lease = Lease.parse(content);
+			if (lease == null && !content.isBlank()) {
+				log.warning("Failed to verify the lease in {0} --> its content [{1}] could not be parsed", lockFile, content.trim());
+				return false;
+			}
+			if (lease == null || lease.getToken() != fencingToken || !lease.getOwner().equals(instanceId)) {
+				stepDown(String.format("the lease is now held by %s", lease == null ? "nobody" : lease.getOwner()));
+				return false;
+			}
+			return true;
+		} catch (IOException e) {
+			log.warning("Failed to verify the lease in {0} due to [{1}]", lockFile, e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Gives up the lease, if this instance holds it, so that a standby can take over at its next heartbeat. The
+	 * election does nothing after this.
+	 */
+	public synchronized void release() {
+		closed = true;
+		try {
+			if (leader && verify()) {
+				write(new Lease(fencingToken, ++sequence, true, instanceId));
+				stepDown("it released its lease");
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			log.warning("Failed to release the lease in {0} due to [{1}]", lockFile, e.getMessage());
+		}
+	}
+
+	private void campaign() throws IOException {
+		if (channel == null || !channel.isOpen()) {
+			Files.createDirectories(lockFile.getParent());
+			channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		try {
+			lock = channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// another election in this JVM holds the lock
+			lock = null;
+		}
+		if (lock == null) {
+			log.fine("{0} is on standby --> the lock on {1} is held by another instance", instanceId, lockFile);
+			return;
+		}
+		String content = read();
+		Lease lease = Lease.parse(content);
+		highestToken = Math.max(highestToken, lease == null ? Lease.parseToken(content) : lease.getToken());
+		boolean live = lease == null ? !content.isBlank() : !lease.isReleased() && !lease.getOwner().equals(instanceId);
+		if (live && !hasExpired(content)) {
+			lock.release();
+			lock = null;
+			log.fine("{0} is on standby --> {1} holds a live lease", instanceId, lease == null ? "an unreadable lease" : lease.getOwner());
+			return;
+		}
+		fencingToken = highestToken + 1;
+		highestToken = fencingToken;
+		sequence = 0;
+		write(new Lease(fencingToken, sequence, false, instanceId));
+		lastRenewalNanos = System.nanoTime();
+		leader = true;
+		log.info("{0} is now the leader with fencing token {1}{2}", instanceId, fencingToken,
+				content.isBlank() ? "" : String.format(", taking over from %s", lease == null ? "an unreadable lease" : lease.getOwner()));
+		listeners.forEach(listener -> listener.leadershipAcquired(fencingToken));
+	}
+
+	private void renew() throws IOException {
+		String content = read();
+		Lease lease = Lease.parse(content);
+		if (lease == null && !content.isBlank()) {
+			// another instance is writing to a drive that ignores the lock, the next heartbeat reads it whole
+			log.warning("Skipped renewing the lease in {0} --> its content [{1}] could not be parsed", lockFile, content.trim());
+			if (!isLeader()) {
+				stepDown("its lease could not be renewed");
+			}
+			return;
+		}
+		if (lease == null || lease.getToken() != fencingToken || !lease.getOwner().equals(instanceId)) {
+			stepDown(String.format("the lease is now held by %s", lease == null ? "nobody" : lease.getOwner()));
+			return;
+		}
+		write(new Lease(fencingToken, ++sequence, false, instanceId));
+		lastRenewalNanos = System.nanoTime();
+	}
+
+	// a lease expires once it has not changed for the lease duration, which does not depend on clocks agreeing
+	private boolean hasExpired(String content) {
+		long now = System.nanoTime();
+		if (!content.equals(observed)) {
+			observed = content;
+			observedAtNanos = now;
+			return false;
+		}
+		return now - observedAtNanos >= leaseDuration.toNanos();
+	}
+
+	private void stepDown(String reason) {
+		leader = false;
+		observed = null;
+		if (lock != null) {
+			try {
+				lock.release();
+			} catch (IOException e) {
+				// closing the channel releases it too
+			}
+			lock = null;
+		}
+		log.warning("{0} is no longer the leader, as {1}", instanceId, reason);
+		listeners.forEach(LeadershipListener::leadershipLost);
+	}
+
+	private String read() throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 4096));
+		while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+			// keep reading until the buffer is full
+		}
+		return new String(buffer.array(), 0, buffer.position(), UTF_8);
+	}
+
+	// overwrites in place and only then cuts off what is left of a longer lease, so the file is never empty
+	private void write(Lease lease) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(lease.toString().concat(System.lineSeparator()).getBytes(UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, buffer.position());
+		}
+		channel.truncate(buffer.limit());
+		channel.force(true);
+	}
+
+	public static final class Builder {
+		private final Path lockFile;
+		private Duration leaseDuration = Duration.ofSeconds(10);
+		private String instanceId = defaultInstanceId();
+
+		private Builder(Path lockFile) {
+			this.lockFile = lockFile;
+		}
+
+		/** How long a lease that is no longer renewed keeps standbys from taking over, 10 seconds by default */
+		public Builder leaseDuration(Duration leaseDuration) {
+			this.leaseDuration = leaseDuration;
+			return this;
+		}
+
+		/** How this instance is identified in the lock file and the logs, its host name and process id by default */
+		public Builder instanceId(String instanceId) {
+			this.instanceId = instanceId;
+			return this;
+		}
+
+		public LeaderElection build() {
+			if (instanceId == null || instanceId.isBlank()) {
+				throw new IllegalStateException("A leader election needs an instance id");
+			}
+			return new LeaderElection(this);
+		}
+
+		private static String defaultInstanceId() {
+			String host;
+			try {
+				host = InetAddress.getLocalHost().getHostName();
+			} catch (UnknownHostException e) {
+				host = "unknown";
+			}
+			return String.format("%s-%d", host, ProcessHandle.current().pid());
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.john.application.leadership;
+
+/**
+ * Notified by the <code>LeaderElection</code> when this instance becomes the leader or stops being it. Listeners run
+ * on the heartbeat thread, so they should return quickly and must not throw.
+ */
+public interface LeadershipListener {
+	/** Called after this instance took the lease with the given fencing token */
+	void leadershipAcquired(long fencingToken);
+
+	/** Called after this instance released the lease, or found that another instance took it */
+	void leadershipLost();
+}
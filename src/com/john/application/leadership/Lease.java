@@ -0,0 +1,81 @@
+package com.john.application.leadership;
+
+/**
+ * The content of the lock file: the fencing token of the current leader, a heartbeat sequence the leader increments
+ * on every heartbeat, whether the leader released the lease, and who the leader is. It is kept on a single line,
+ * e.g. <code>7 1532 false pi-kitchen-2211</code>, so that it can be read with any text editor.
+ */
+final class Lease {
+	private final long token;
+	private final long sequence;
+	private final boolean released;
+	private final String owner;
+
+	Lease(long token, long sequence, boolean released, String owner) {
+		this.token = token;
+		this.sequence = sequence;
+		this.released = released;
+		this.owner = owner;
+	}
+
+	/** Returns the lease in the given lock file content, or <code>null</code> if there is none */
+	static Lease parse(String content) {
+		String[] fields = content.trim().split(" ", 4);
+		if (fields.length < 4) {
+			return null;
+		}
+		try {
+			return new Lease(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Boolean.parseBoolean(fields[2]), fields[3]);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the number the given lock file content starts with, or 0 if there is none, so that a lease left half
+	 * written still keeps the fencing token of the next leader from starting over.
+	 */
+	static long parseToken(String content) {
+		String trimmed = content.trim();
+		int end = 0;
+		while (end < trimmed.length() && end < 18 && Character.isDigit(trimmed.charAt(end))) {
+			end++;
+		}
+		return end == 0 ? 0 : Long.parseLong(trimmed.substring(0, end));
+	}
+
+	long getToken() {
+		return token;
+	}
+
+	long getSequence() {
+		return sequence;
+	}
+
+	boolean isReleased() {
+		return released;
+	}
+
+	String getOwner() {
+		return owner;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Lease)) {
+			return false;
+		}
+		Lease lease = (Lease) other;
+		return token == lease.token && sequence == lease.sequence && released == lease.released && owner.equals(lease.owner);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(token) * 31 + Long.hashCode(sequence);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d %d %b %s", token, sequence, released, owner);
+	}
+}
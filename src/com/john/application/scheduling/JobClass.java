@@ -0,0 +1,21 @@
+package com.john.application.scheduling;
+
+/**
+ * Groups <code>ScheduledJob</code>s that may share a worker. Every job class gets its own worker thread
+ * from the <code>JobScheduler</code>, so a slow job can only delay jobs of the same class.
+ */
+public enum JobClass {
+	QUERY("query"),
+	HEALTH_CHECK("health-check"),
+	MAINTENANCE("maintenance"),
+	LEADERSHIP("leadership");
+
+	private final String threadName;
+	private JobClass(String threadName) {
+		this.threadName = threadName;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+}
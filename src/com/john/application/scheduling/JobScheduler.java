@@ -0,0 +1,96 @@
+package com.john.application.scheduling;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * Runs <code>ScheduledJob</code>s on isolated workers. Each <code>JobClass</code> gets its own worker thread,
+ * created on first use, so for example a slow SMTP send during a health check cannot delay the next query.
+ */
+public final class JobScheduler {
+	private static final AppLogger log = AppLogger.getLogger(JobScheduler.class.getCanonicalName());
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+	private final Map<JobClass, ScheduledThreadPoolExecutor> workers = new EnumMap<>(JobClass.class);
+	private final List<ScheduledJob> jobs = new ArrayList<>();
+	private boolean shutdown;
+
+	/** Starts the given job on the worker of its job class and returns it */
+	public synchronized ScheduledJob schedule(ScheduledJob job) {
+		if (shutdown) {
+			throw new IllegalStateException("JobScheduler has been shut down");
+		}
+		job.start(workers.computeIfAbsent(job.getJobClass(), JobScheduler::newWorker));
+		jobs.add(job);
+		registerMetrics(job);
+		return job;
+	}
+
+	public synchronized List<ScheduledJob> getJobs() {
+		return List.copyOf(jobs);
+	}
+
+	public synchronized Optional<ScheduledJob> getJob(String name) {
+		return jobs.stream().filter(job -> job.getName().equals(name)).findFirst();
+	}
+
+	/** Returns how many runs are queued on the worker of each job class that has one */
+	public synchronized Map<JobClass, Integer> getQueueDepths() {
+		Map<JobClass, Integer> depths = new EnumMap<>(JobClass.class);
+		workers.forEach((jobClass, worker) -> depths.put(jobClass, worker.getQueue().size()));
+		return depths;
+	}
+
+	/** Cancels every job and waits for running jobs to finish */
+	public void shutdown() {
+		List<ScheduledExecutorService> stopping;
+		synchronized (this) {
+			if (shutdown) {
+				return;
+			}
+			shutdown = true;
+			jobs.forEach(ScheduledJob::cancel);
+			stopping = new ArrayList<>(workers.values());
+		}
+		log.info("Shutting down the job scheduler");
+		stopping.forEach(ScheduledExecutorService::shutdown);
+		try {
+			for (ScheduledExecutorService worker : stopping) {
+				if (!worker.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					log.warning("A job did not finish in time and was abandoned");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		jobs.forEach(job -> log.info("{0}", job));
+	}
+
+	private static void registerMetrics(ScheduledJob job) {
+		MetricsRegistry.gauge("stavis_job_runs", "Completed runs of a scheduled job", job::getRuns, "job", job.getName());
+		MetricsRegistry.gauge("stavis_job_failures", "Failed runs of a scheduled job", job::getFailures, "job", job.getName());
+		MetricsRegistry.gauge("stavis_job_missed_runs", "Skipped or coalesced runs of a scheduled job", job::getMissedRuns,
+				"job", job.getName());
+		MetricsRegistry.gauge("stavis_job_last_lag_seconds", "How late the last run of a scheduled job started",
+				() -> job.getLastLagMillis() / 1000.0, "job", job.getName());
+		MetricsRegistry.gauge("stavis_job_last_duration_seconds", "How long the last run of a scheduled job took",
+				() -> job.getLastDurationMillis() / 1000.0, "job", job.getName());
+	}
+
+	private static ScheduledThreadPoolExecutor newWorker(JobClass jobClass) {
+		ScheduledThreadPoolExecutor worker = new ScheduledThreadPoolExecutor(1,
+				r -> new Thread(r, "scheduler-".concat(jobClass.getThreadName())));
+		// rescheduled and triggered jobs cancel their pending run, which should not linger in the queue
+		worker.setRemoveOnCancelPolicy(true);
+		return worker;
+	}
+}
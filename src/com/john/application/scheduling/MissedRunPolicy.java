@@ -0,0 +1,14 @@
+package com.john.application.scheduling;
+
+/**
+ * Decides what a <code>ScheduledJob</code> does when one or more of its scheduled runs were missed, either
+ * because the previous run took longer than the interval or because the worker was busy.
+ */
+public enum MissedRunPolicy {
+	/** Drops every missed run and waits for the next scheduled time */
+	SKIP,
+	/** Runs once immediately for all missed runs combined, then continues from that run */
+	COALESCE,
+	/** Runs once for every missed run, back to back, until the job is on schedule again */
+	CATCH_UP;
+}
@@ -0,0 +1,309 @@
+package com.john.application.scheduling;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * A periodic task run by the <code>JobScheduler</code>. Unlike <code>scheduleAtFixedRate</code>, a job tracks when
+ * each run was due, never overlaps with itself, and applies its <code>MissedRunPolicy</code> instead of silently
+ * stacking late runs. The interval is asked for again before every run, so it may change at any time. Each run
+ * records how late it started compared to when it was due (its lag). A job may resume from a run before a restart,
+ * in which case its next run is due an interval after that run, and runs missed while the application was down are
+ * handled by its <code>MissedRunPolicy</code>. Instances are created with <code>newBuilder</code>.
+ */
+public final class ScheduledJob {
+	private static final AppLogger log = AppLogger.getLogger(ScheduledJob.class.getCanonicalName());
+	private static final long LAG_WARNING_FLOOR_MILLIS = 1000;
+
+	private final String name;
+	private final Runnable task;
+	private final JobClass jobClass;
+	private final Supplier<Duration> interval;
+	private final Duration initialDelay;
+	private final Duration jitter;
+	private final MissedRunPolicy missedRunPolicy;
+	private final Instant resumeFrom;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong missedRuns = new AtomicLong();
+	private volatile long lastLagMillis;
+	private volatile long maxLagMillis;
+	private volatile long lastDurationMillis;
+	private volatile Instant lastStart;
+
+	// scheduling state, guarded by this
+	private ScheduledExecutorService executor;
+	private ScheduledFuture<?> pending;
+	private long nextDueNanos;
+	private long generation;
+	private boolean cancelled;
+	private boolean triggered;
+
+	private ScheduledJob(Builder builder) {
+		this.name = builder.name;
+		this.task = builder.task;
+		this.jobClass = builder.jobClass;
+		this.interval = builder.interval;
+		this.initialDelay = builder.initialDelay;
+		this.jitter = builder.jitter;
+		this.missedRunPolicy = builder.missedRunPolicy;
+		this.resumeFrom = builder.resumeFrom;
+		this.lastStart = builder.resumeFrom;
+	}
+
+	public static Builder newBuilder(String name, Runnable task) {
+		return new Builder(name, task);
+	}
+
+	synchronized void start(ScheduledExecutorService executor) {
+		this.executor = executor;
+		if (resumeFrom != null) {
+			long sinceLastRun = Math.max(0, Duration.between(resumeFrom, Instant.now()).toNanos());
+			scheduleNext(generation, System.nanoTime() - sinceLastRun);
+			log.info("{0} resumed from its run at {1}, scheduled every {2} with a {3} missed run policy, next run in {4} second(s)",
+					name, resumeFrom, interval.get(), missedRunPolicy, NANOSECONDS.toSeconds(Math.max(0, nextDueNanos - System.nanoTime())));
+			return;
+		}
+		long delay = initialDelay.toNanos();
+		if (!jitter.isZero()) {
+			delay += ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1);
+		}
+		scheduleAt(System.nanoTime() + delay);
+		log.info("{0} scheduled every {1} with a {2} missed run policy, first run in {3} second(s)", name,
+				interval.get(), missedRunPolicy, NANOSECONDS.toSeconds(delay));
+	}
+
+	/**
+	 * Discards the pending run and schedules the next one a full interval from now. Used when the interval
+	 * has changed and the job should not wait for the previously computed run.
+	 */
+	public synchronized void reschedule() {
+		if (executor == null || cancelled) {
+			return;
+		}
+		pending.cancel(false);
+		scheduleAt(System.nanoTime() + interval.get().toNanos());
+		log.info("{0} rescheduled to run every {1}", name, interval.get());
+	}
+
+	/**
+	 * Runs the job as soon as possible, then continues a full interval after that run. Triggers coalesce: if a
+	 * triggered run is already waiting to start, or the job is running right now, nothing more is scheduled and
+	 * <code>false</code> is returned.
+	 */
+	public synchronized boolean trigger() {
+		if (executor == null || cancelled || triggered || running.get()) {
+			return false;
+		}
+		triggered = true;
+		pending.cancel(false);
+		scheduleAt(System.nanoTime());
+		log.info("{0} was triggered --> running now", name);
+		return true;
+	}
+
+	synchronized void cancel() {
+		cancelled = true;
+		if (pending != null) {
+			pending.cancel(false);
+		}
+	}
+
+	private void scheduleAt(long dueNanos) {
+		final long chain = ++generation;
+		nextDueNanos = dueNanos;
+		pending = executor.schedule(() -> fire(chain), Math.max(0, dueNanos - System.nanoTime()), NANOSECONDS);
+	}
+
+	private void fire(long chain) {
+		long dueNanos;
+		synchronized (this) {
+			if (chain != generation || cancelled) {
+				return;
+			}
+			triggered = false;
+			dueNanos = nextDueNanos;
+		}
+		long startNanos = System.nanoTime();
+		recordLag(NANOSECONDS.toMillis(startNanos - dueNanos));
+		if (running.compareAndSet(false, true)) {
+			try {
+				lastStart = Instant.now();
+				task.run();
+				runs.incrementAndGet();
+			} catch (RuntimeException e) {
+				failures.incrementAndGet();
+				log.severe("{0} failed due to [{1}]", name, e.getMessage());
+			} finally {
+				lastDurationMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+				running.set(false);
+			}
+		} else {
+			missedRuns.incrementAndGet();
+			log.warning("{0} is still running --> this run is skipped", name);
+		}
+		scheduleNext(chain, dueNanos);
+	}
+
+	private synchronized void scheduleNext(long chain, long previousDueNanos) {
+		if (chain != generation || cancelled) {
+			return;
+		}
+		long period = Math.max(1, interval.get().toNanos());
+		long now = System.nanoTime();
+		long due = previousDueNanos + period;
+		if (due <= now) {
+			long missed = (now - due) / period + 1;
+			switch (missedRunPolicy) {
+			case SKIP:
+				due += missed * period;
+				missedRuns.addAndGet(missed);
+				break;
+			case COALESCE:
+				due = now;
+				missedRuns.addAndGet(missed - 1);
+				break;
+			case CATCH_UP:
+				break;
+			}
+			log.warning("{0} missed {1} run(s) --> applying the {2} policy", name, missed, missedRunPolicy);
+		}
+		scheduleAt(due);
+	}
+
+	private void recordLag(long lagMillis) {
+		lastLagMillis = lagMillis;
+		if (lagMillis > maxLagMillis) {
+			maxLagMillis = lagMillis;
+		}
+		long threshold = Math.max(LAG_WARNING_FLOOR_MILLIS, interval.get().toMillis() / 20);
+		if (lagMillis > threshold) {
+			log.warning("{0} started {1}ms after it was due", name, lagMillis);
+		} else {
+			log.fine("{0} started with a lag of {1}ms", name, lagMillis);
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public JobClass getJobClass() {
+		return jobClass;
+	}
+
+	public boolean isRunning() {
+		return running.get();
+	}
+
+	public long getRuns() {
+		return runs.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	public long getMissedRuns() {
+		return missedRuns.get();
+	}
+
+	public long getLastLagMillis() {
+		return lastLagMillis;
+	}
+
+	public long getMaxLagMillis() {
+		return maxLagMillis;
+	}
+
+	public long getLastDurationMillis() {
+		return lastDurationMillis;
+	}
+
+	/** Returns when the last run started, including the run a resumed job resumed from, or <code>null</code> if it has not run yet */
+	public Instant getLastStart() {
+		return lastStart;
+	}
+
+	/** Returns when the next run is due */
+	public synchronized Instant getNextRun() {
+		return Instant.now().plusNanos(nextDueNanos - System.nanoTime());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s [runs=%d, failures=%d, missed=%d, lastLag=%dms, maxLag=%dms, lastDuration=%dms]", name,
+				getRuns(), getFailures(), getMissedRuns(), lastLagMillis, maxLagMillis, lastDurationMillis);
+	}
+
+	public static final class Builder {
+		private final String name;
+		private final Runnable task;
+		private JobClass jobClass = JobClass.MAINTENANCE;
+		private Supplier<Duration> interval;
+		private Duration initialDelay = Duration.ZERO;
+		private Duration jitter = Duration.ZERO;
+		private MissedRunPolicy missedRunPolicy = MissedRunPolicy.SKIP;
+		private Instant resumeFrom;
+
+		private Builder(String name, Runnable task) {
+			this.name = name;
+			this.task = task;
+		}
+
+		public Builder jobClass(JobClass jobClass) {
+			this.jobClass = jobClass;
+			return this;
+		}
+
+		/** The interval between runs. It is read again before every run, so it may change over time. */
+		public Builder interval(Supplier<Duration> interval) {
+			this.interval = interval;
+			return this;
+		}
+
+		public Builder initialDelay(Duration initialDelay) {
+			this.initialDelay = initialDelay;
+			return this;
+		}
+
+		/** A random delay of up to the given duration that is added to the initial delay */
+		public Builder jitter(Duration jitter) {
+			this.jitter = jitter;
+			return this;
+		}
+
+		public Builder missedRunPolicy(MissedRunPolicy missedRunPolicy) {
+			this.missedRunPolicy = missedRunPolicy;
+			return this;
+		}
+
+		/**
+		 * The start of the job's last run before a restart. The initial delay and jitter are ignored, and the
+		 * next run is due an interval after the given run instead.
+		 */
+		public Builder resumeFrom(Instant lastRun) {
+			this.resumeFrom = lastRun;
+			return this;
+		}
+
+		public ScheduledJob build() {
+			if (interval == null) {
+				throw new IllegalStateException(String.format("No interval was provided for %s", name));
+			}
+			return new ScheduledJob(this);
+		}
+	}
+}
@@ -1,18 +1,21 @@
 package com.john.notifications;
 
 import static com.john.utils.Utils.maskEmail;
-
-import java.util.logging.Logger;
+import static com.john.utils.logging.AppLogger.lazy;
 
 import org.simplejavamail.api.email.Email;
 
 import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.EmailProvider;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 public class EmailNotificationService implements NotificationService {
-	private static final Logger log = Logger.getLogger(EmailNotificationService.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(EmailNotificationService.class.getCanonicalName());
+	private static final Timer SEND_TIMER = MetricsRegistry.timer("stavis_notification", "Notifications sent", "channel", "email");
 
 	@Override
 	public void notify(Recipient recipient, String subject, String message) {
@@ -26,17 +29,22 @@ public class EmailNotificationService implements NotificationService {
 	}
 	
 	private void sendEmail(Email email, Recipient recipient) {
+		// masked only if a message about this recipient is actually written
+		final Object maskedEmail = lazy(() -> maskEmail(recipient.getEmail()));
+		final long start = SEND_TIMER.start();
 		try {
 			if (ApplicationPropertyProvider.getBooleanProperty(Property.EMAIL_ENABLED)) {
-				log.info(String.format("Sending email to %s", maskEmail(recipient.getEmail())));
+				log.info("Sending email to {0}", maskedEmail);
 				EmailProvider.sendMail(email);
-				log.info(String.format("Successfully sent email to %s", maskEmail(recipient.getEmail())));
+				SEND_TIMER.stop(start);
+				log.info("Successfully sent email to {0}", maskedEmail);
 			} else {
-				log.warning(String.format("Email notifications are disabled. No email will be sent to %s", maskEmail(recipient.getEmail())));
+				log.warning("Email notifications are disabled. No email will be sent to {0}", maskedEmail);
 			}
 		} catch (RuntimeException e) {
-			log.severe(String.format("Failed to send email to %s due to [%s] with root cause [%s]",
-					maskEmail(recipient.getEmail()), e.getMessage(), e.getCause()));
+			SEND_TIMER.stopWithError(start);
+			log.severe("Failed to send email to {0} due to [{1}] with root cause [{2}]",
+					maskedEmail, e.getMessage(), e.getCause());
 		}
 	}
 
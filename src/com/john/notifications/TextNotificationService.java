@@ -1,18 +1,21 @@
 package com.john.notifications;
 
 import static com.john.utils.Utils.maskPhoneNumber;
-
-import java.util.logging.Logger;
+import static com.john.utils.logging.AppLogger.lazy;
 
 import org.simplejavamail.api.email.Email;
 
 import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.EmailProvider;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 public class TextNotificationService implements NotificationService {
-	private static final Logger log = Logger.getLogger(TextNotificationService.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(TextNotificationService.class.getCanonicalName());
+	private static final Timer SEND_TIMER = MetricsRegistry.timer("stavis_notification", "Notifications sent", "channel", "sms");
 
 	@Override
 	public void notify(Recipient recipient, String subject, String message) {
@@ -21,23 +24,27 @@ public class TextNotificationService implements NotificationService {
 				.withPlainText(limitMessageSize(subject, message, EmailProvider.getDefaultSender(), recipient.getPhoneProvider().getMaxLength()))
 				.buildEmail();
 		
+		// masked only if a message about this recipient is actually written
+		final Object maskedNumber = lazy(() -> maskPhoneNumber(recipient.getPhoneNumber()));
+		final long start = SEND_TIMER.start();
 		try {
 			if (ApplicationPropertyProvider.getBooleanProperty(Property.SMS_ENABLED)) {
-				log.info(String.format("Sending SMS text to: %s over the %s network",
-						maskPhoneNumber(recipient.getPhoneNumber()), recipient.getPhoneProvider()));
+				log.info("Sending SMS text to: {0} over the {1} network", maskedNumber, recipient.getPhoneProvider());
 				EmailProvider.sendMail(email);
-				log.info(String.format("Successfully sent SMS text to: %s", maskPhoneNumber(recipient.getPhoneNumber())));
+				SEND_TIMER.stop(start);
+				log.info("Successfully sent SMS text to: {0}", maskedNumber);
 			} else {
-				log.warning(String.format("SMS notifications are disabled. No text will be sent to %s", maskPhoneNumber(recipient.getPhoneNumber())));
+				log.warning("SMS notifications are disabled. No text will be sent to {0}", maskedNumber);
 			}
 		} catch (RuntimeException e) {
-			log.severe(String.format("Failed to send SMS text to %s due to [%s] with root cause [%s]",
-					maskPhoneNumber(recipient.getPhoneNumber()), e.getMessage(), e.getCause()));
+			SEND_TIMER.stopWithError(start);
+			log.severe("Failed to send SMS text to {0} due to [{1}] with root cause [{2}]",
+					maskedNumber, e.getMessage(), e.getCause());
 		}
 	}
 	
 	// phone carriers limit the length of messages sent
-	private String limitMessageSize(String subject, String message, String sender, short maxLength) {
+	static String limitMessageSize(String subject, String message, String sender, short maxLength) {
 		if (subject.length() + message.length() + sender.length() > maxLength) {
 			int diff = subject.length() + message.length() + sender.length() - maxLength;
 			return message.substring(0, message.length() - 3 - diff).concat("...");
@@ -2,41 +2,40 @@ package com.john.notifications.model;
 
 import org.json.JSONObject;
 
-public class Recipient {
-	private String firstName;
-	private String lastName;
-	private String email;
-	private String phoneNumber;
-	private PhoneProvider provider;
-	private boolean emailNotifications;
-	private boolean smsNotifications;
+/**
+ * An immutable subscriber or admin. Instances are shared between threads and notification cycles
+ * without copying.
+ */
+public final class Recipient {
+	private final String firstName;
+	private final String lastName;
+	private final String email;
+	private final String phoneNumber;
+	private final PhoneProvider provider;
+	private final boolean emailNotifications;
+	private final boolean smsNotifications;
 	
 	// most basic recipient with bare minimum info
 	public Recipient(String firstName, String email, boolean emailNotifications) {
-		this.firstName = firstName;
-		this.email = email;
-		this.emailNotifications = emailNotifications;
+		this(firstName, null, email, emailNotifications);
 	}
 	
 	// email-only recipient
 	public Recipient(String firstName, String lastName, String email, boolean emailNotifications) {
-		this(firstName, email, emailNotifications);
-		this.lastName = lastName;
+		this(firstName, lastName, email, null, null, emailNotifications, false);
 	}
 	
 	// recipient with all info
 	public Recipient(String firstName, String lastName, String email, String phoneNumber, PhoneProvider provider, boolean emailNotifications, boolean smsNotifications) {
-		this(firstName, lastName, email, emailNotifications);
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.email = email;
 		this.phoneNumber = phoneNumber;
 		this.provider = provider;
+		this.emailNotifications = emailNotifications;
 		this.smsNotifications = smsNotifications;
 	}
 	
-	// copy constructor for deep cloning
-	public Recipient(Recipient r) {
-		this(r.getFirstName(), r.getLastName(), r.getEmail(), r.getPhoneNumber(), r.getPhoneProvider(), r.getEmailEnabled(), r.getSmsEnabled());
-	}
-	
 	// create Recipient from JSON object with matching structure
 	public Recipient(JSONObject jsonRecipient) {
 		this(jsonRecipient.getString("firstName"), jsonRecipient.getString("lastName"),
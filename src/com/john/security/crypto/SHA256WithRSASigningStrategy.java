@@ -9,7 +9,10 @@ import java.security.Signature;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Base64;
-import java.util.logging.Logger;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 
 /**
  * A <code>SigningStrategy</code> implementation capable of signing data using the SHA256WithRSA signing
@@ -17,9 +20,10 @@ import java.util.logging.Logger;
  * must be instantiated with a valid base64-encoded private key string, which it will use to sign data.
  */
 public class SHA256WithRSASigningStrategy implements SigningStrategy {
-	private static final Logger log = Logger.getLogger(SHA256WithRSASigningStrategy.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(SHA256WithRSASigningStrategy.class.getCanonicalName());
 	private static final String NAME = "SHA256WithRSA";
 	private static final String SIGNING_ALGORITHM = "SHA256WithRSA";
+	private static final Timer SIGNING_TIMER = MetricsRegistry.timer("stavis_signing", "Data signed", "algorithm", SIGNING_ALGORITHM);
 	private final PrivateKey pk;
 
 	public SHA256WithRSASigningStrategy(String pk) throws InvalidKeySpecException {
@@ -42,14 +46,18 @@ public class SHA256WithRSASigningStrategy implements SigningStrategy {
 	 */
 	@Override
 	public byte[] sign(byte[] toSign) {
-		log.info(String.format("Signing data with %s signing algorithm", SIGNING_ALGORITHM));
+		log.info("Signing data with {0} signing algorithm", SIGNING_ALGORITHM);
+		final long start = SIGNING_TIMER.start();
 		try {
 			Signature signature = Signature.getInstance(SIGNING_ALGORITHM);
 			signature.initSign(pk);
 			signature.update(toSign);
-			return signature.sign();
+			byte[] signed = signature.sign();
+			SIGNING_TIMER.stop(start);
+			return signed;
 		} catch (Exception e) {
-			log.severe(String.format("Failed to sign data: ", e.getMessage()));
+			SIGNING_TIMER.stopWithError(start);
+			log.severe("Failed to sign data: {0}", e.getMessage());
 			return new byte[0];
 		}
 	}
@@ -1,10 +1,10 @@
 package com.john.security.jwt;
 
 import java.security.spec.InvalidKeySpecException;
-import java.util.logging.Logger;
 
 import com.john.security.crypto.SHA256WithRSASigningStrategy;
 import com.john.security.crypto.SigningStrategy;
+import com.john.utils.logging.AppLogger;
 
 /** 
  * A child of <code>JWTTokenTemplate</code> that resolves required claims needed to 
@@ -14,7 +14,7 @@ import com.john.security.crypto.SigningStrategy;
  * and the private key has not changed since the last token was requested.
  */
 public final class GoogleJWTToken extends JWTTokenTemplate {
-	private static final Logger log = Logger.getLogger(GoogleJWTToken.class.getPackageName());
+	private static final AppLogger log = AppLogger.getLogger(GoogleJWTToken.class.getPackageName());
 	private static GoogleJWTToken instance;
 	private static String privateKey;
 	
@@ -6,11 +6,11 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.Base64.Encoder;
-import java.util.logging.Logger;
 
 import org.json.JSONObject;
 
 import com.john.security.crypto.SigningStrategy;
+import com.john.utils.logging.AppLogger;
 
 /**
  * A class following the Template design pattern that is capable of building <code>JWTToken</code>
@@ -20,7 +20,7 @@ import com.john.security.crypto.SigningStrategy;
  * <code>resolveJti</code> to include optional claims in the constructed <code>JWTToken</code>.
  */
 public abstract class JWTTokenTemplate implements JWTToken {
-	private static final Logger log = Logger.getLogger(JWTTokenTemplate.class.getPackageName());
+	private static final AppLogger log = AppLogger.getLogger(JWTTokenTemplate.class.getPackageName());
 	
 	private JSONObject header;
 	private JSONObject claims;
@@ -38,7 +38,7 @@ public abstract class JWTTokenTemplate implements JWTToken {
 	
 	protected JWTTokenTemplate(SigningStrategy signingStrategy) {
 		this.signingStrategy = signingStrategy;
-		log.info(String.format("Initializing JWTToken with a signing strategy of %s", signingStrategy.getStrategyName()));
+		log.info("Initializing JWTToken with a signing strategy of {0}", signingStrategy.getStrategyName());
 		buildToken();
 	}
 	
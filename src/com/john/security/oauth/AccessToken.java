@@ -1,5 +1,7 @@
 package com.john.security.oauth;
 
+import java.time.Instant;
+
 /**
  * An data model representing an access token and its metadata as returned from an authentication server.
  * It should be able to deduce if it has expired based on when it was issued.
@@ -9,4 +11,5 @@ public interface AccessToken {
 	public String getScope();
 	public String getTokenType();
 	public boolean hasExpired();
+	public Instant getExpiry();
 }
@@ -15,6 +15,12 @@ public interface AccessTokenService {
 	 */
 	public Optional<AccessToken> retrieveAccessToken(AccessTokenStrategy strategy);
 	
+	/**
+	 * Returns the <code>AccessToken</code> currently held for the given <code>AccessTokenStrategy</code>, even if
+	 * it has expired, without ever retrieving a new one. Returns an empty <code>Optional</code> if none is held.
+	 */
+	public Optional<AccessToken> peekAccessToken(AccessTokenStrategy strategy);
+	
 	/**
 	 * Defines the supported Access Token Strategies that can be used to get an
 	 * <code>AccessToken</code>
@@ -4,9 +4,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 import com.john.security.oauth.google.GoogleAccessTokenRetrievalStrategy;
+import com.john.utils.logging.AppLogger;
 
 /**
  * An implementation of <code>AccessTokenService</code> that can get <code>AccessToken</code>
@@ -16,7 +16,7 @@ import com.john.security.oauth.google.GoogleAccessTokenRetrievalStrategy;
  * requested and accessed by multiple threads.
  */
 public class AccessTokenServiceImpl implements AccessTokenService {
-	private static final Logger log = Logger.getLogger(AccessTokenServiceImpl.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(AccessTokenServiceImpl.class.getCanonicalName());
 	
 	private final Map<AccessTokenStrategy, AccessToken> currentAccessTokens;
 	
@@ -24,14 +24,19 @@ public class AccessTokenServiceImpl implements AccessTokenService {
 		currentAccessTokens = Collections.synchronizedMap(new HashMap<>());
 	}
 
+	@Override
+	public Optional<AccessToken> peekAccessToken(AccessTokenStrategy strategy) {
+		return Optional.ofNullable(currentAccessTokens.get(strategy));
+	}
+
 	public Optional<AccessToken> retrieveAccessToken(AccessTokenStrategy strategy) {
 		if (currentAccessTokens.get(strategy) != null && !currentAccessTokens.get(strategy).hasExpired()) {
-			log.info(String.format("Valid access token exists for %s strategy --> returning existing token", strategy.getName()));
+			log.info("Valid access token exists for {0} strategy --> returning existing token", strategy.getName());
 			return Optional.of(currentAccessTokens.get(strategy));
 		}
 		switch (strategy) {
 		case GOOGLE:
-			log.info(String.format("No valid access token exists for %s strategy --> returning new token", strategy.getName()));
+			log.info("No valid access token exists for {0} strategy --> returning new token", strategy.getName());
 			AccessTokenRetrievalStrategy googleStrategy = GoogleAccessTokenRetrievalStrategy.getInstance();
 			Optional<AccessToken> token = googleStrategy.retrieveAccessToken();
 			if (token.isPresent()) {				
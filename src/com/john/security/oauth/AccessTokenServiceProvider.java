@@ -1,6 +1,6 @@
 package com.john.security.oauth;
 
-import java.util.logging.Logger;
+import com.john.utils.logging.AppLogger;
 
 /** 
  * A provider responsible for keeping track of existing <code>AccessTokenService</code> instances,
@@ -8,7 +8,7 @@ import java.util.logging.Logger;
  * be a singleton, and be registered in this class. The only way to get an instance is to ask this provider.
  */
 public class AccessTokenServiceProvider {
-	private static final Logger log = Logger.getLogger(AccessTokenServiceProvider.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(AccessTokenServiceProvider.class.getCanonicalName());
 	private static AccessTokenService service;
 	
 	private AccessTokenServiceProvider() {}
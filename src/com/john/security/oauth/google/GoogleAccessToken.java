@@ -4,16 +4,16 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.logging.Logger;
 
 import com.john.security.oauth.AccessToken;
+import com.john.utils.logging.AppLogger;
 
 /**
  * An implementation of <code>AccessToken</code> representing a token returned by Google 
  * authentication servers.
  */
 public class GoogleAccessToken implements AccessToken {
-	private static final Logger log = Logger.getLogger(GoogleAccessToken.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(GoogleAccessToken.class.getCanonicalName());
 	private static final String TOKEN_TYPE = "Bearer";
 	private String bearerToken;
 	private String scope;
@@ -24,8 +24,8 @@ public class GoogleAccessToken implements AccessToken {
 		this.scope = scope;
 		expiry = Instant.now().plusSeconds(expiresIn);
 		LocalDateTime expiresAt = LocalDateTime.ofInstant(expiry, ZoneId.systemDefault());
-		log.info(String.format("Successfully built GoogleAccessToken with scope=[%s] that expires at %s", scope,
-				expiresAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+		log.info("Successfully built GoogleAccessToken with scope=[{0}] that expires at {1}", scope,
+				expiresAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
 	}
 
 	@Override
@@ -48,6 +48,11 @@ public class GoogleAccessToken implements AccessToken {
 		return Instant.now().isAfter(expiry);
 	}
 	
+	@Override
+	public Instant getExpiry() {
+		return expiry;
+	}
+	
 	@Override
 	public String toString() {
 		return String.format("{access_token: %s,%n scope: %s,%n token_type: %s,%n expiresIn: %d}", getRawAccessToken(),
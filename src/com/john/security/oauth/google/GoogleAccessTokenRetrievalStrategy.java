@@ -1,15 +1,15 @@
 package com.john.security.oauth.google;
 
-import static com.john.utils.Utils.logExecutionDuration;
-
 import java.io.IOException;
 import java.net.http.HttpResponse;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 import org.json.JSONObject;
 
+import com.john.api.google.quota.GoogleApi;
+import com.john.api.google.quota.GoogleQuotaManager;
+import com.john.api.google.quota.QuotaLane;
 import com.john.security.jwt.GoogleJWTToken;
 import com.john.security.jwt.JWTToken;
 import com.john.security.oauth.AccessToken;
@@ -17,9 +17,16 @@ import com.john.security.oauth.AccessTokenRetrievalStrategy;
 import com.john.utils.FileReader;
 import com.john.utils.http.HttpClientHelper;
 import com.john.utils.http.HttpHeader;
+import com.john.utils.http.RequestThrottle;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
 import com.john.utils.providers.ApplicationPropertyProvider;
 import com.john.utils.providers.MockDataProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
 import com.john.utils.providers.secrets.MissingSecretException;
+import com.john.utils.resilience.Endpoint;
+import com.john.utils.resilience.ResilienceException;
 import com.saltweaver.salting.api.InvalidSaltingStrategyException;
 
 /** 
@@ -27,9 +34,12 @@ import com.saltweaver.salting.api.InvalidSaltingStrategyException;
  * Google authentication servers.
  */
 public class GoogleAccessTokenRetrievalStrategy implements AccessTokenRetrievalStrategy {
-	private static final Logger log = Logger.getLogger(GoogleAccessTokenRetrievalStrategy.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(GoogleAccessTokenRetrievalStrategy.class.getCanonicalName());
 	private static final String PRIVATE_KEY_LOCATION = "./resources/google/sophies-stavi-searcher-pk.txt";
 	private static final String GRANT_TYPE = "urn:ietf:params:oauth:grant-type:jwt-bearer";
+	// a token refresh is needed by every other Google request, so it is never queued behind them
+	private static final RequestThrottle TOKEN_THROTTLE = GoogleQuotaManager.throttle(GoogleApi.OAUTH, QuotaLane.PRIORITY);
+	private static final Timer FETCH_TIMER = MetricsRegistry.timer("stavis_token_fetch", "Google Access Token requests");
 	private static GoogleAccessTokenRetrievalStrategy googleRetrievalStrategy;
 	
 	private GoogleAccessTokenRetrievalStrategy() {}
@@ -46,8 +56,8 @@ public class GoogleAccessTokenRetrievalStrategy implements AccessTokenRetrievalS
 			FileReader fr = FileReader.standardDecryptionReader(PRIVATE_KEY_LOCATION, 200);
 			return FileReader.toUTF8String(fr.readFile());
 		} catch (IOException | MissingSecretException | InvalidSaltingStrategyException e) {
-			log.severe(String.format("Failed to retrieve private key to generate JWT to get Google Access Token: %s",
-					e.getMessage()));
+			log.severe("Failed to retrieve private key to generate JWT to get Google Access Token: {0}",
+					e.getMessage());
 			return "";
 		}
 	}
@@ -66,8 +76,7 @@ public class GoogleAccessTokenRetrievalStrategy implements AccessTokenRetrievalS
 		body.put("grant_type", GRANT_TYPE);
 		body.put("assertion", token.toTransmissionReadyToken());
 		
-		final String operationName = "Fetch Google Access Token";
-		final long start = System.currentTimeMillis();
+		final long start = FETCH_TIMER.start();
 		
 		log.info("Fetching new Google Access Token");
 		HttpResponse<String> response = null;
@@ -75,15 +84,23 @@ public class GoogleAccessTokenRetrievalStrategy implements AccessTokenRetrievalS
 		if (ApplicationPropertyProvider.shouldUseMocks()) {
 			responseBody = MockDataProvider.getGoogleAccessKey();
 		} else {
-			response = HttpClientHelper.POST(token.getAudience(), body.toString(), HttpHeader.JSON_CONTENT_TYPE).get();
+			try {
+				// the token endpoint is the audience of the JWT, unless requests are sent elsewhere, e.g. to a stand-in
+				String tokenUrl = ApplicationPropertyProvider.getProperty(Property.GOOGLE_OAUTH_TOKEN_URL, token.getAudience());
+				response = HttpClientHelper.POST(Endpoint.OAUTH, TOKEN_THROTTLE, tokenUrl, body.toString(), HttpHeader.JSON_CONTENT_TYPE);
+			} catch (ResilienceException e) {
+				log.severe("Failed to fetch a Google Access Token due to [{0}]", e.getMessage());
+				FETCH_TIMER.stopWithError(start);
+				return null;
+			}
 			responseBody = new JSONObject(response.body());
 		}
 		if (responseBody.has("error")) {
 			log.severe(responseBody.getString("error_description"));
-			logExecutionDuration(start, operationName, log);
+			FETCH_TIMER.stopWithError(start);
 			return null;
 		} else {
-			logExecutionDuration(start, operationName, log);
+			FETCH_TIMER.stop(start);
 			return convertToAccessToken(responseBody, token.getScope());
 		}
 	}
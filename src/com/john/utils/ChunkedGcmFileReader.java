@@ -0,0 +1,53 @@
+package com.john.utils;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
+
+/**
+ * A high-level decorator for other <code>FileReader</code> implementations that verifies and decrypts
+ * version 2 encrypted resources (raw binary, chunked AES/GCM) as described in <code>ChunkedGcmFormat</code>.
+ * It will use the wrapped <code>FileReader</code> to get the raw bytes of a file, and then decrypts those
+ * contents using the provided Base64-encoded private key. Like <code>EncryptedFileReader</code>, a new
+ * instance should be created for each file to read, as the private key is nullified after the invocation
+ * of the <code>readFile</code> method.
+ */
+public class ChunkedGcmFileReader implements FileReader {
+	private static final AppLogger log = AppLogger.getLogger(ChunkedGcmFileReader.class.getCanonicalName());
+	private static final Timer DECRYPTION_TIMER = MetricsRegistry.timer("stavis_decryption", "Encrypted files read", "format", "v2");
+
+	private final FileReader fileReader;
+	private Key pk;
+
+	public ChunkedGcmFileReader(FileReader fileReader, byte[] pk) {
+		this.fileReader = fileReader;
+		this.pk = new SecretKeySpec(Base64.getDecoder().decode(pk), "AES");
+	}
+
+	@Override
+	public byte[] readFile() throws IOException {
+		if (pk == null) {
+			throw new IOException(
+					"No available private key. Are you perhaps trying to invoke this method more than once on the same instance?");
+		}
+		final long start = DECRYPTION_TIMER.start();
+		try {
+			byte[] decrypted = ChunkedGcmFormat.decrypt(fileReader.readFile(), pk);
+			DECRYPTION_TIMER.stop(start);
+			return decrypted;
+		} catch (IOException e) {
+			DECRYPTION_TIMER.stopWithError(start);
+			log.severe(e.getMessage());
+			throw e;
+		} finally {
+			pk = null;
+		}
+	}
+
+}
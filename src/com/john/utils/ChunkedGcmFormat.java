@@ -0,0 +1,131 @@
+package com.john.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Describes version 2 of the encrypted resource format. Unlike the original Base64 text holding
+ * AES/ECB/PKCS5Padding ciphertext, a v2 resource is raw binary: a fixed-size header followed by
+ * independently authenticated AES/GCM chunks, so chunks can be decrypted and verified in parallel.
+ * <pre>
+ * offset  size  field
+ * 0       4     magic (0x89 'S' 'S' 'E')
+ * 4       1     format version (2)
+ * 5       4     plaintext chunk size in bytes
+ * 9       8     total plaintext length in bytes
+ * 17      8     random nonce prefix
+ * 25      ...   chunks, each holding up to chunk size bytes of ciphertext plus a 16 byte tag
+ * </pre>
+ * The nonce of every chunk is the nonce prefix followed by the 4 byte chunk index, and the whole header
+ * is used as additional authenticated data. Reordered, truncated or tampered chunks therefore fail to decrypt.
+ * Positions and lengths are computed as <code>long</code>s, as resources close to 2 GB overflow an <code>int</code>.
+ */
+final class ChunkedGcmFormat {
+	static final byte[] MAGIC = { (byte) 0x89, 'S', 'S', 'E' };
+	static final byte VERSION = 2;
+	static final int HEADER_LENGTH = 25;
+	static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	private static final String ALGORITHM = "AES/GCM/NoPadding";
+	private static final int TAG_LENGTH = 16;
+	private static final int NONCE_PREFIX_LENGTH = 8;
+
+	private ChunkedGcmFormat() {}
+
+	/** Returns <code>true</code> if the given content starts with the v2 magic number */
+	static boolean isChunkedGcm(byte[] content) {
+		return content.length >= MAGIC.length && Arrays.equals(content, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+	}
+
+	static byte[] encrypt(byte[] plaintext, Key key, int chunkSize) throws GeneralSecurityException {
+		byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+		new SecureRandom().nextBytes(noncePrefix);
+		byte[] header = ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).put(VERSION).putInt(chunkSize)
+				.putLong(plaintext.length).put(noncePrefix).array();
+		int chunks = chunkCount(plaintext.length, chunkSize);
+		long encryptedLength = encryptedLength(plaintext.length, chunks);
+		if (encryptedLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("%d bytes are too many for a single encrypted resource",
+					plaintext.length));
+		}
+
+		ByteBuffer out = ByteBuffer.allocate((int) encryptedLength).put(header);
+		Cipher cipher = Cipher.getInstance(ALGORITHM);
+		for (int i = 0; i < chunks; i++) {
+			long offset = (long) i * chunkSize;
+			cipher.init(Cipher.ENCRYPT_MODE, key, nonce(noncePrefix, i));
+			cipher.updateAAD(header);
+			out.put(cipher.doFinal(plaintext, (int) offset, (int) Math.min(chunkSize, plaintext.length - offset)));
+		}
+		return out.array();
+	}
+
+	/**
+	 * Verifies and decrypts a v2 resource. Resources with more than one chunk are decrypted in parallel,
+	 * each chunk with its own <code>Cipher</code> instance.
+	 */
+	static byte[] decrypt(byte[] encrypted, Key key) throws IOException {
+		if (encrypted.length < HEADER_LENGTH || !isChunkedGcm(encrypted) || encrypted[MAGIC.length] != VERSION) {
+			throw new IOException("Content is not a version 2 encrypted resource");
+		}
+		ByteBuffer header = ByteBuffer.wrap(encrypted, 0, HEADER_LENGTH).position(MAGIC.length + 1);
+		int chunkSize = header.getInt();
+		long plaintextLength = header.getLong();
+		byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+		header.get(noncePrefix);
+
+		if (chunkSize <= 0 || plaintextLength < 0 || plaintextLength > Integer.MAX_VALUE) {
+			throw new IOException("Corrupt version 2 header");
+		}
+		int chunks = chunkCount(plaintextLength, chunkSize);
+		if (encrypted.length != encryptedLength(plaintextLength, chunks)) {
+			throw new IOException("Encrypted resource has been truncated or extended");
+		}
+
+		byte[] aad = Arrays.copyOf(encrypted, HEADER_LENGTH);
+		byte[] plaintext = new byte[(int) plaintextLength];
+		IntStream indexes = IntStream.range(0, chunks);
+		try {
+			(chunks > 1 ? indexes.parallel() : indexes).forEach(i -> {
+				// both fit in an int, as the length check above bounds them by the array lengths
+				long plainOffset = (long) i * chunkSize;
+				int plainLength = (int) Math.min(chunkSize, plaintext.length - plainOffset);
+				long cipherOffset = HEADER_LENGTH + (long) i * ((long) chunkSize + TAG_LENGTH);
+				try {
+					Cipher cipher = Cipher.getInstance(ALGORITHM);
+					cipher.init(Cipher.DECRYPT_MODE, key, nonce(noncePrefix, i));
+					cipher.updateAAD(aad);
+					cipher.doFinal(encrypted, (int) cipherOffset, plainLength + TAG_LENGTH, plaintext, (int) plainOffset);
+				} catch (GeneralSecurityException e) {
+					throw new IllegalStateException(String.format("Chunk %d failed verification", i), e);
+				}
+			});
+		} catch (IllegalStateException e) {
+			throw new IOException(e.getMessage(), e.getCause());
+		}
+		return plaintext;
+	}
+
+	private static int chunkCount(long plaintextLength, int chunkSize) {
+		// an empty resource still carries one (empty) authenticated chunk
+		return (int) Math.max(1, (plaintextLength + chunkSize - 1) / chunkSize);
+	}
+
+	private static long encryptedLength(long plaintextLength, int chunks) {
+		return HEADER_LENGTH + plaintextLength + (long) chunks * TAG_LENGTH;
+	}
+
+	private static GCMParameterSpec nonce(byte[] noncePrefix, int chunkIndex) {
+		byte[] nonce = ByteBuffer.allocate(NONCE_PREFIX_LENGTH + Integer.BYTES).put(noncePrefix).putInt(chunkIndex)
+				.array();
+		return new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce);
+	}
+}
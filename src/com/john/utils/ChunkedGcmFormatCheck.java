@@ -0,0 +1,95 @@
+package com.john.utils;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Checks that the version 2 encrypted resource format round-trips, and that truncated, extended, reordered or
+ * tampered resources are rejected. Run it with <code>java com.john.utils.ChunkedGcmFormatCheck</code>; it exits
+ * with a non-zero status on the first failed check.
+ */
+final class ChunkedGcmFormatCheck {
+	private static final int CHUNK_SIZE = 16;
+	private static final int TAG_LENGTH = 16;
+
+	private static final Key KEY = new SecretKeySpec(bytes(16, 1), "AES");
+	private static final Key OTHER_KEY = new SecretKeySpec(bytes(16, 2), "AES");
+
+	private ChunkedGcmFormatCheck() {}
+
+	public static void main(String[] args) throws GeneralSecurityException, IOException {
+		// empty, shorter than a chunk, an exact multiple of the chunk size and a partial last chunk
+		for (int length : new int[] { 0, 5, CHUNK_SIZE, 3 * CHUNK_SIZE, 3 * CHUNK_SIZE + 7 }) {
+			byte[] plaintext = bytes(length, length);
+			byte[] decrypted = ChunkedGcmFormat.decrypt(ChunkedGcmFormat.encrypt(plaintext, KEY, CHUNK_SIZE), KEY);
+			check(Arrays.equals(plaintext, decrypted), "round-trip of " + length + " bytes");
+		}
+		byte[] plaintext = bytes(ChunkedGcmFormat.DEFAULT_CHUNK_SIZE * 2 + 1, 3);
+		check(Arrays.equals(plaintext, ChunkedGcmFormat.decrypt(ChunkedGcmFormat.encrypt(plaintext, KEY,
+				ChunkedGcmFormat.DEFAULT_CHUNK_SIZE), KEY)), "round-trip with the default chunk size");
+
+		byte[] encrypted = ChunkedGcmFormat.encrypt(bytes(3 * CHUNK_SIZE + 7, 4), KEY, CHUNK_SIZE);
+		check(!Arrays.equals(encrypted, ChunkedGcmFormat.encrypt(bytes(3 * CHUNK_SIZE + 7, 4), KEY, CHUNK_SIZE)),
+				"fresh nonce per encryption");
+
+		rejects("truncated last chunk", Arrays.copyOf(encrypted, encrypted.length - 1));
+		rejects("dropped last chunk", Arrays.copyOf(encrypted, encrypted.length - (7 + TAG_LENGTH)));
+		rejects("extended resource", Arrays.copyOf(encrypted, encrypted.length + 1));
+		rejects("header only", Arrays.copyOf(encrypted, ChunkedGcmFormat.HEADER_LENGTH));
+
+		byte[] reordered = encrypted.clone();
+		int chunkLength = CHUNK_SIZE + TAG_LENGTH;
+		System.arraycopy(encrypted, ChunkedGcmFormat.HEADER_LENGTH, reordered, ChunkedGcmFormat.HEADER_LENGTH + chunkLength,
+				chunkLength);
+		System.arraycopy(encrypted, ChunkedGcmFormat.HEADER_LENGTH + chunkLength, reordered, ChunkedGcmFormat.HEADER_LENGTH,
+				chunkLength);
+		rejects("swapped chunks", reordered);
+
+		rejects("flipped ciphertext bit", flip(encrypted, ChunkedGcmFormat.HEADER_LENGTH + chunkLength + 3));
+		rejects("flipped tag bit", flip(encrypted, encrypted.length - 1));
+		// the nonce prefix is not checked by any length, only through the additional authenticated data
+		rejects("flipped nonce prefix bit", flip(encrypted, ChunkedGcmFormat.HEADER_LENGTH - 1));
+		rejects("flipped magic bit", flip(encrypted, 0));
+		rejects("flipped chunk size bit", flip(encrypted, 8));
+
+		try {
+			ChunkedGcmFormat.decrypt(encrypted, OTHER_KEY);
+			check(false, "rejects the wrong key");
+		} catch (IOException e) {
+			// expected
+		}
+		System.out.println("All ChunkedGcmFormat checks passed");
+	}
+
+	private static void rejects(String name, byte[] encrypted) {
+		try {
+			ChunkedGcmFormat.decrypt(encrypted, KEY);
+		} catch (IOException e) {
+			return;
+		}
+		check(false, "rejects " + name);
+	}
+
+	private static void check(boolean passed, String name) {
+		if (!passed) {
+			throw new IllegalStateException("Check failed: " + name);
+		}
+	}
+
+	private static byte[] flip(byte[] content, int index) {
+		byte[] flipped = content.clone();
+		flipped[index] ^= 1;
+		return flipped;
+	}
+
+	private static byte[] bytes(int length, long seed) {
+		byte[] bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+}
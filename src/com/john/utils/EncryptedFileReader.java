@@ -3,11 +3,14 @@ package com.john.utils;
 import java.io.IOException;
 import java.security.Key;
 import java.util.Base64;
-import java.util.logging.Logger;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+import com.john.utils.metrics.Timer;
+
 /** 
  * A high-level decorator for other <code>FileReader</code> implementations that decrypts file contents
  * using the AES/ECB/PKCS5Padding algorithm. It will use the wrapped <code>FileReader</code> to get the
@@ -17,8 +20,9 @@ import javax.crypto.spec.SecretKeySpec;
  * after the invocation of the <code>readFile</code> method.
  */
 public class EncryptedFileReader implements FileReader {
-	private static final Logger log = Logger.getLogger(EncryptedFileReader.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(EncryptedFileReader.class.getCanonicalName());
 	private static final String ALGORITHM = "AES/ECB/PKCS5Padding";
+	private static final Timer DECRYPTION_TIMER = MetricsRegistry.timer("stavis_decryption", "Encrypted files read", "format", "v1");
 	
 	private final FileReader fileReader;
 	private Key pk;
@@ -34,9 +38,13 @@ public class EncryptedFileReader implements FileReader {
 			throw new IOException(
 					"No available private key. Are you perhaps trying to invoke this method more than once on the same instance?");
 		}
+		final long start = DECRYPTION_TIMER.start();
 		try {
-			return decrypt(fileReader.readFile());
+			byte[] decrypted = decrypt(fileReader.readFile());
+			DECRYPTION_TIMER.stop(start);
+			return decrypted;
 		} catch (Exception e) {
+			DECRYPTION_TIMER.stopWithError(start);
 			log.severe(e.getMessage());
 			throw new IOException(e);
 		} finally {
@@ -0,0 +1,81 @@
+package com.john.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.RuntimeArgumentProvider;
+import com.john.utils.providers.secrets.MissingSecretException;
+import com.john.utils.providers.secrets.SecretProvider;
+import com.john.utils.providers.secrets.SecretProvider.Secret;
+
+/**
+ * Command line tool that converts encrypted resources from the original Base64 AES/ECB format to the binary
+ * chunked AES/GCM format (v2). The salt is kept as is, so the migrated files can still be read through
+ * <code>FileReader.standardDecryptionReader</code>. Each original file is kept next to the migrated one
+ * with a <code>.v1.bak</code> suffix. Usage:
+ * <pre>
+ * java com.john.utils.EncryptedResourceMigrator --secrets-location=/path/to/secrets.properties file [file...]
+ * </pre>
+ */
+public final class EncryptedResourceMigrator {
+	private static final AppLogger log = AppLogger.getLogger(EncryptedResourceMigrator.class.getCanonicalName());
+	private static final String BACKUP_SUFFIX = ".v1.bak";
+
+	private EncryptedResourceMigrator() {}
+
+	public static void main(String[] args) throws Exception {
+		List<String> arguments = new ArrayList<>();
+		List<String> files = new ArrayList<>();
+		for (String arg : args) {
+			(arg.contains("=") ? arguments : files).add(arg);
+		}
+		if (files.isEmpty()) {
+			System.err.println("Usage: EncryptedResourceMigrator --secrets-location=<file> <file> [<file>...]");
+			System.exit(1);
+		}
+		RuntimeArgumentProvider.init(arguments.toArray(new String[0]));
+		for (String file : files) {
+			migrate(Path.of(file));
+		}
+	}
+
+	/**
+	 * Migrates a single resource in place. Files that are already in the v2 format are left untouched.
+	 */
+	public static void migrate(Path file) throws IOException, MissingSecretException, GeneralSecurityException {
+		byte[] content = Files.readAllBytes(file);
+		if (ChunkedGcmFormat.isChunkedGcm(content)) {
+			log.info("{0} is already in the version 2 format --> skipping", file);
+			return;
+		}
+		byte[] pk = SecretProvider.getSecret(Secret.AES_PRIVATE_KEY).getBytes(UTF_8);
+
+		// decrypt without removing the salt, the v2 reader is composed with the same SaltedFileReader
+		byte[] salted = new EncryptedFileReader(new Base64DecodingFileReader(() -> content), pk).readFile();
+		byte[] migrated = ChunkedGcmFormat.encrypt(salted,
+				new SecretKeySpec(Base64.getDecoder().decode(pk), "AES"), ChunkedGcmFormat.DEFAULT_CHUNK_SIZE);
+
+		// make sure the new file round-trips before replacing anything
+		if (!Arrays.equals(salted, new ChunkedGcmFileReader(() -> migrated, pk).readFile())) {
+			throw new IOException(String.format("Verification of migrated content failed for %s", file));
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, migrated);
+		Files.copy(file, file.resolveSibling(file.getFileName() + BACKUP_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Migrated {0} from {1} to {2} bytes", file, content.length, migrated.length);
+	}
+}
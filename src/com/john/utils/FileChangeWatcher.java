@@ -0,0 +1,104 @@
+package com.john.utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Watches individual files for changes using a single <code>WatchService</code> and a single daemon thread.
+ * Editors often write a file in several steps, so events for the same file arriving within a short settle
+ * period are collapsed into one callback. Callbacks run on the watcher thread and should return quickly.
+ */
+public final class FileChangeWatcher {
+	private static final AppLogger log = AppLogger.getLogger(FileChangeWatcher.class.getCanonicalName());
+	private static final long SETTLE_MILLIS = 250;
+	private static final Map<Path, List<Watch>> WATCHES = new ConcurrentHashMap<>();
+	private static WatchService watchService;
+
+	private FileChangeWatcher() {}
+
+	/**
+	 * Invokes the callback every time the given file is created or modified. Failing to register the
+	 * watch is logged, but never prevents the caller from continuing with the current file contents.
+	 */
+	public static synchronized void watch(Path file, Runnable onChange) {
+		Path absolute = file.toAbsolutePath().normalize();
+		Path directory = absolute.getParent();
+		try {
+			if (watchService == null) {
+				watchService = FileSystems.getDefault().newWatchService();
+				Thread watcher = new Thread(FileChangeWatcher::processEvents, "file-change-watcher");
+				watcher.setDaemon(true);
+				watcher.start();
+			}
+			if (!WATCHES.containsKey(directory)) {
+				directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+			}
+			WATCHES.computeIfAbsent(directory, d -> new CopyOnWriteArrayList<>())
+					.add(new Watch(absolute.getFileName(), onChange));
+			log.info("Watching {0} for changes", absolute);
+		} catch (IOException e) {
+			log.warning("Unable to watch {0} for changes due to [{1}]", absolute, e.getMessage());
+		}
+	}
+
+	private static void processEvents() {
+		while (true) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+				// let the writer finish before reacting, and pick up the events it produced meanwhile
+				Thread.sleep(SETTLE_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			Path directory = (Path) key.watchable();
+			List<Watch> watches = WATCHES.getOrDefault(directory, List.of());
+			boolean overflowed = false;
+			Set<Path> changed = new HashSet<>();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					overflowed = true;
+				} else {
+					changed.add((Path) event.context());
+				}
+			}
+			key.reset();
+			for (Watch watch : watches) {
+				if (overflowed || changed.contains(watch.fileName)) {
+					try {
+						watch.onChange.run();
+					} catch (RuntimeException e) {
+						log.severe("Change callback for {0} failed due to [{1}]", watch.fileName, e.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	private static final class Watch {
+		private final Path fileName;
+		private final Runnable onChange;
+
+		private Watch(Path fileName, Runnable onChange) {
+			this.fileName = fileName;
+			this.onChange = onChange;
+		}
+	}
+}
@@ -3,7 +3,9 @@ package com.john.utils;
 import static com.john.utils.Utils.getSaltingStrategy;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Map;
 
 import com.john.utils.providers.secrets.MissingSecretException;
 import com.john.utils.providers.secrets.SecretProvider;
@@ -20,14 +22,28 @@ public interface FileReader {
 	
 	/** 
 	 * Helper method to construct a composed <code>FileReader</code> capable of decrypting 
-	 * data that was encrypted using the application standards.
+	 * data that was encrypted using the application standards. Both the original Base64 AES/ECB format
+	 * and the binary chunked AES/GCM format (v2) are supported, and the format is detected from the file itself.
 	 */
 	static FileReader standardDecryptionReader(String path, int bufferSize)
 			throws MissingSecretException, InvalidSaltingStrategyException {
-		SaltingStrategy strategy = getSaltingStrategy();
-		return new SaltedFileReader(
-				new EncryptedFileReader(new Base64DecodingFileReader(new SimpleFileReader(path, bufferSize)),
-						SecretProvider.getSecret(Secret.AES_PRIVATE_KEY).getBytes(UTF_8)),
-				strategy);
+		Map<Secret, String> secrets = SecretProvider.getSecrets(Secret.AES_PRIVATE_KEY,
+				Secret.SALTING_STRATEGY_COMPOSITION, Secret.SALTING_STRATEGY_LENGTH);
+		SaltingStrategy strategy = getSaltingStrategy(secrets);
+		byte[] pk = secrets.get(Secret.AES_PRIVATE_KEY).getBytes(UTF_8);
+		FileReader source = new SimpleFileReader(path, bufferSize);
+		if (isChunkedGcmResource(path)) {
+			return new SaltedFileReader(new ChunkedGcmFileReader(source, pk), strategy);
+		}
+		return new SaltedFileReader(new EncryptedFileReader(new Base64DecodingFileReader(source), pk), strategy);
+	}
+	
+	private static boolean isChunkedGcmResource(String path) {
+		try (FileInputStream fis = new FileInputStream(path)) {
+			return ChunkedGcmFormat.isChunkedGcm(fis.readNBytes(ChunkedGcmFormat.MAGIC.length));
+		} catch (IOException e) {
+			// let the legacy reader surface the failure when the file is actually read
+			return false;
+		}
 	}
 }
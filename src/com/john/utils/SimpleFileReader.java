@@ -5,7 +5,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
+
+import com.john.utils.logging.AppLogger;
 
 /** 
  * A utility for reading basic text content from files using a custom buffer size. The class takes care of
@@ -13,7 +14,7 @@ import java.util.logging.Logger;
  * is provided, it will default to 50 bytes.
  */
 public class SimpleFileReader implements FileReader {
-	private static final Logger log = Logger.getLogger(SimpleFileReader.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(SimpleFileReader.class.getCanonicalName());
 	private static final int DEFAULT_BUFFER_SIZE = 50;
 	
 	private final String path;
@@ -26,7 +27,7 @@ public class SimpleFileReader implements FileReader {
 	public SimpleFileReader(String path, int bufferSize) {
 		this.path = path;
 		this.bufferSize = bufferSize;
-		log.fine(String.format("Simple File Reader initialized with buffer size of %d bytes", bufferSize));
+		log.fine("Simple File Reader initialized with buffer size of {0} bytes", bufferSize);
 	}
 	
 	/** 
@@ -34,7 +35,7 @@ public class SimpleFileReader implements FileReader {
 	 * as a String. The operation of reading a file is blocking, and is not guaranteed to be thread-safe.
 	 */
 	public byte[] readFile() throws IOException {
-		log.fine(String.format("Attempting to read file at %s", path));
+		log.fine("Attempting to read file at {0}", path);
 		try (FileInputStream fis = new FileInputStream(new File(path))) {
 			List<Byte> result = new ArrayList<>();
 			byte[] buffer = new byte[bufferSize];
@@ -44,14 +45,14 @@ public class SimpleFileReader implements FileReader {
 					result.add(buffer[i]);
 				}
 			}
-			log.fine(String.format("Successfully read file at %s", path));
+			log.fine("Successfully read file at {0}", path);
 			byte[] unboxedResult = new byte[result.size()];
 			for (int i = 0; i < result.size(); i++) {
 				unboxedResult[i] = result.get(i);
 			}
 			return unboxedResult;
 		} catch (IOException e) {
-			log.severe("Failed to read file due to exception: " + e.getMessage());
+			log.severe("Failed to read file due to exception: {0}", e.getMessage());
 			throw e;
 		}
 	}
@@ -2,7 +2,7 @@ package com.john.utils;
 
 import java.io.File;
 import java.util.Arrays;
-import java.util.logging.Logger;
+import java.util.Map;
 
 import com.john.utils.providers.secrets.MissingSecretException;
 import com.john.utils.providers.secrets.SecretProvider;
@@ -11,11 +11,7 @@ import com.saltweaver.salting.api.InvalidSaltingStrategyException;
 import com.saltweaver.salting.api.SaltingStrategy;
 
 public class Utils {
-	
-	public static void logExecutionDuration(long start, String name, Logger logger) {
-		long end = System.currentTimeMillis();
-		logger.info(String.format("%s took %dms to execute", name, end - start));
-	}
+	private static volatile SaltingStrategy saltingStrategy;
 	
 	public static String maskPhoneNumber(String numberToMask) {
 		String lastFourDigits = numberToMask.substring(6);
@@ -29,9 +25,26 @@ public class Utils {
 	}
 	
 	public static SaltingStrategy getSaltingStrategy() throws MissingSecretException, InvalidSaltingStrategyException {
-		int saltLength = SecretProvider.getIntSecret(Secret.SALTING_STRATEGY_LENGTH);
-		String saltingComposition = SecretProvider.getSecret(Secret.SALTING_STRATEGY_COMPOSITION);
-		return SaltingStrategy.getStrategy(Arrays.asList(saltingComposition.split(",")), saltLength);
+		return getSaltingStrategy(
+				SecretProvider.getSecrets(Secret.SALTING_STRATEGY_COMPOSITION, Secret.SALTING_STRATEGY_LENGTH));
+	}
+	
+	/**
+	 * Builds the <code>SaltingStrategy</code> from already resolved secrets. When secrets are cached for the
+	 * lifetime of the application, the strategy is only built once.
+	 */
+	public static SaltingStrategy getSaltingStrategy(Map<Secret, String> secrets) throws InvalidSaltingStrategyException {
+		SaltingStrategy strategy = saltingStrategy;
+		if (strategy != null) {
+			return strategy;
+		}
+		int saltLength = Integer.parseInt(secrets.get(Secret.SALTING_STRATEGY_LENGTH));
+		String saltingComposition = secrets.get(Secret.SALTING_STRATEGY_COMPOSITION);
+		strategy = SaltingStrategy.getStrategy(Arrays.asList(saltingComposition.split(",")), saltLength);
+		if (SecretProvider.cachesSecrets()) {
+			saltingStrategy = strategy;
+		}
+		return strategy;
 	}
 	
 	public static boolean deleteFile(String filePath) {
@@ -0,0 +1,115 @@
+package com.john.utils.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import javax.net.ssl.SSLSession;
+
+import com.john.utils.metrics.Counter;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * A response whose body has been decompressed, if the server compressed it, and decoded into a <code>String</code>
+ * with the charset from its <code>Content-Type</code>, or UTF-8 if it names none. The headers no longer describe
+ * the encoding, as the body is no longer encoded.
+ */
+final class DecodedResponse implements HttpResponse<String> {
+	private static final Counter RECEIVED_BYTES = MetricsRegistry.counter("stavis_http_response_bytes",
+			"HTTP response body bytes", "stage", "received");
+	private static final Counter DECODED_BYTES = MetricsRegistry.counter("stavis_http_response_bytes",
+			"HTTP response body bytes", "stage", "decoded");
+	private static final String CONTENT_ENCODING = "Content-Encoding";
+	private static final String CONTENT_LENGTH = "Content-Length";
+	private static final String CHARSET = "charset=";
+
+	private final HttpResponse<byte[]> response;
+	private final HttpHeaders headers;
+	private final String body;
+
+	private DecodedResponse(HttpResponse<byte[]> response, HttpHeaders headers, String body) {
+		this.response = response;
+		this.headers = headers;
+		this.body = body;
+	}
+
+	static HttpResponse<String> of(HttpResponse<byte[]> response) throws IOException {
+		byte[] bytes = response.body() == null ? new byte[0] : response.body();
+		RECEIVED_BYTES.add(bytes.length);
+		String encoding = response.headers().firstValue(CONTENT_ENCODING).orElse("identity").trim().toLowerCase(Locale.ROOT);
+		HttpHeaders headers = response.headers();
+		if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+				bytes = in.readAllBytes();
+			}
+			headers = HttpHeaders.of(response.headers().map(), (name, value) -> !name.equalsIgnoreCase(CONTENT_ENCODING)
+					&& !name.equalsIgnoreCase(CONTENT_LENGTH));
+		}
+		DECODED_BYTES.add(bytes.length);
+		return new DecodedResponse(response, headers, new String(bytes, charsetOf(response)));
+	}
+
+	private static Charset charsetOf(HttpResponse<?> response) {
+		String contentType = response.headers().firstValue("Content-Type").orElse("");
+		int index = contentType.toLowerCase(Locale.ROOT).indexOf(CHARSET);
+		if (index >= 0) {
+			String name = contentType.substring(index + CHARSET.length()).split(";")[0].replace("\"", "").trim();
+			try {
+				return Charset.forName(name);
+			} catch (IllegalArgumentException e) {
+				// an unknown charset, so fall back to what JSON APIs send anyway
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	@Override
+	public int statusCode() {
+		return response.statusCode();
+	}
+
+	@Override
+	public HttpRequest request() {
+		return response.request();
+	}
+
+	@Override
+	public Optional<HttpResponse<String>> previousResponse() {
+		return Optional.empty();
+	}
+
+	@Override
+	public HttpHeaders headers() {
+		return headers;
+	}
+
+	@Override
+	public String body() {
+		return body;
+	}
+
+	@Override
+	public Optional<SSLSession> sslSession() {
+		return response.sslSession();
+	}
+
+	@Override
+	public URI uri() {
+		return response.uri();
+	}
+
+	@Override
+	public HttpClient.Version version() {
+		return response.version();
+	}
+}
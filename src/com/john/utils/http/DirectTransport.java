@@ -0,0 +1,24 @@
+package com.john.utils.http;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+
+/**
+ * Sends requests over the network. All requests share one <code>HttpClient</code>, and with it its connection pool.
+ * Response bodies are received as bytes and decompressed if the server compressed them, which the
+ * <code>HttpClient</code> does not do by itself.
+ */
+final class DirectTransport implements HttpTransport {
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+
+	@Override
+	public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		return DecodedResponse.of(client.send(request, BodyHandlers.ofByteArray()));
+	}
+}
@@ -3,45 +3,86 @@ package com.john.utils.http;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Logger;
 
+import com.john.utils.logging.AppLogger;
+import com.john.utils.resilience.Endpoint;
+import com.john.utils.resilience.Resilience;
+import com.john.utils.resilience.ResilienceException;
+
+/**
+ * Sends HTTP requests to an <code>Endpoint</code> through <code>Resilience</code>, so every request is bounded by
+ * the endpoint's timeout, retried on failure and rejected while its circuit breaker is open. Connection failures,
+ * timeouts, 5xx and 429 responses count as failures. Other responses are returned to the caller as they are.
+ * Requests are carried by the <code>HttpTransport</code> from <code>HttpTransportProvider</code>, so they can be
+ * recorded and replayed without changing anything above this class. Every request asks for a gzip compressed
+ * response, and query parameters are URL encoded, so callers pass them as they are.
+ */
 public final class HttpClientHelper {
-	private static final Logger log = Logger.getLogger(HttpClientHelper.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(HttpClientHelper.class.getCanonicalName());
+	private static final int TOO_MANY_REQUESTS = 429;
+	private static final int SERVER_ERROR = 500;
 	
-	public static Optional<HttpResponse<String>> GET(String url, Map<String, String> queryParams, HttpHeader ...headers) {
-		HttpClient client = HttpClient.newHttpClient();
-		try {
-			URI uri = constructURI(url, queryParams);
-			HttpRequest request = constructRequest(uri, HttpMethod.GET, null, headers);
-			HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
-			return Optional.of(response);
-		} catch (URISyntaxException | IOException | InterruptedException e) {
-			log.severe(e.getMessage());
-			return Optional.empty();
-		}
+	/**
+	 * Sends a GET request to the given endpoint and returns its response.
+	 * @throws ResilienceException if no response could be obtained
+	 */
+	public static HttpResponse<String> GET(Endpoint endpoint, String url, Map<String, String> queryParams, HttpHeader ...headers) {
+		return GET(endpoint, RequestThrottle.NONE, url, queryParams, headers);
+	}
+	
+	/**
+	 * Sends a GET request to the given endpoint once the given throttle allows it, and returns its response.
+	 * @throws ResilienceException if no response could be obtained
+	 */
+	public static HttpResponse<String> GET(Endpoint endpoint, RequestThrottle throttle, String url, Map<String, String> queryParams,
+			HttpHeader ...headers) {
+		return send(endpoint, throttle, url, queryParams, HttpMethod.GET, null, headers);
 	}
 	
-	public static Optional<HttpResponse<String>> POST(String url, String body, HttpHeader ...headers) {
-		HttpClient client = HttpClient.newHttpClient();
+	/**
+	 * Sends a POST request to the given endpoint and returns its response.
+	 * @throws ResilienceException if no response could be obtained
+	 */
+	public static HttpResponse<String> POST(Endpoint endpoint, String url, String body, HttpHeader ...headers) {
+		return POST(endpoint, RequestThrottle.NONE, url, body, headers);
+	}
+	
+	/**
+	 * Sends a POST request to the given endpoint once the given throttle allows it, and returns its response.
+	 * @throws ResilienceException if no response could be obtained
+	 */
+	public static HttpResponse<String> POST(Endpoint endpoint, RequestThrottle throttle, String url, String body, HttpHeader ...headers) {
+		return send(endpoint, throttle, url, Collections.emptyMap(), HttpMethod.POST, body, headers);
+	}
+	
+	private static HttpResponse<String> send(Endpoint endpoint, RequestThrottle throttle, String url, Map<String, String> queryParams,
+			HttpMethod method, String body, HttpHeader ...headers) {
+		URI uri;
 		try {
-			URI uri = constructURI(url, Collections.emptyMap());
-			HttpRequest request = constructRequest(uri, HttpMethod.POST, body, headers);
-			HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
-			return Optional.of(response);
-		} catch (URISyntaxException | IOException | InterruptedException e) {
+			uri = constructURI(url, queryParams);
+		} catch (URISyntaxException e) {
 			log.severe(e.getMessage());
-			return Optional.empty();
+			throw new IllegalArgumentException(e.getMessage(), e);
 		}
+		return Resilience.call(endpoint, () -> {
+			throttle.acquire();
+			HttpRequest request = constructRequest(uri, method, body, endpoint.getTimeout(), headers);
+			HttpResponse<String> response = HttpTransportProvider.getTransport().send(request);
+			if (response.statusCode() == TOO_MANY_REQUESTS || response.statusCode() >= SERVER_ERROR) {
+				throw new IOException(String.format("%s responded with HTTP %d", endpoint, response.statusCode()));
+			}
+			return response;
+		});
 	}
 	
 	private static URI constructURI(String url, Map<String, String> queryParams) throws URISyntaxException {
@@ -50,15 +91,18 @@ public final class HttpClientHelper {
 			urlAccumulator.append('?');
 			Set<Entry<String, String>> params = queryParams.entrySet();
 			for (var param : params) {
-				urlAccumulator.append(String.format("%s=%s&", param.getKey(), param.getValue()));
+				urlAccumulator.append(String.format("%s=%s&", URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8),
+						URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8)));
 			}
 			urlAccumulator.deleteCharAt(urlAccumulator.length() - 1);
 		}
 		return new URI(urlAccumulator.toString());
 	}
 	
-	private static HttpRequest constructRequest(URI uri, HttpMethod method, String body, HttpHeader ...headers) {
-		HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri);
+	private static HttpRequest constructRequest(URI uri, HttpMethod method, String body, Duration timeout, HttpHeader ...headers) {
+		HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri).timeout(timeout)
+				.header(HttpHeader.ACCEPT_GZIP.getName(), HttpHeader.ACCEPT_GZIP.getValue())
+				.header(HttpHeader.USER_AGENT.getName(), HttpHeader.USER_AGENT.getValue());
 		for (HttpHeader header : headers) {
 			requestBuilder.header(header.getName(), header.getValue());
 		}
@@ -2,9 +2,14 @@ package com.john.utils.http;
 
 public class HttpHeader {
 	public static final HttpHeader JSON_CONTENT_TYPE;
+	public static final HttpHeader ACCEPT_GZIP;
+	public static final HttpHeader USER_AGENT;
 	
 	static {
 		JSON_CONTENT_TYPE = new HttpHeader("Content-Type", "application/json");
+		ACCEPT_GZIP = new HttpHeader("Accept-Encoding", "gzip");
+		// Google APIs only compress responses for user agents that mention gzip
+		USER_AGENT = new HttpHeader("User-Agent", "sophies-stavis-searcher (gzip)");
 	}
 	
 	private String name;
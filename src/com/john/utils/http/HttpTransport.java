@@ -0,0 +1,19 @@
+package com.john.utils.http;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Carries requests from <code>HttpClientHelper</code> to wherever responses come from, which is the network unless
+ * requests are being replayed. Implementations are shared by all threads. <code>HttpTransportProvider</code> supplies
+ * the configured transport.
+ */
+@FunctionalInterface
+public interface HttpTransport {
+	/**
+	 * Sends the request and returns the response, whatever its status.
+	 * @throws IOException if no response was received, including when the request timed out
+	 */
+	HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException;
+}
@@ -0,0 +1,80 @@
+package com.john.utils.http;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * Supplies the <code>HttpTransport</code> selected by <code>http.transport</code>:
+ * <ul>
+ * <li><code>direct</code> (the default) sends requests over the network</li>
+ * <li><code>record</code> sends requests over the network and records every exchange to
+ * <code>http.recordings</code></li>
+ * <li><code>replay</code> answers requests from the exchanges recorded in <code>http.recordings</code></li>
+ * </ul>
+ * The transport is chosen once, the first time it is needed.
+ */
+public final class HttpTransportProvider {
+	private static final AppLogger log = AppLogger.getLogger(HttpTransportProvider.class.getCanonicalName());
+	private static final String DEFAULT_RECORDINGS = "./recordings";
+	private static HttpTransport transport;
+
+	private HttpTransportProvider() {}
+
+	public static synchronized HttpTransport getTransport() {
+		if (transport == null) {
+			transport = createTransport();
+		}
+		return transport;
+	}
+
+	private static HttpTransport createTransport() {
+		TransportMode mode = TransportMode.fromValue(ApplicationPropertyProvider.getProperty(Property.HTTP_TRANSPORT,
+				TransportMode.DIRECT.getValue()));
+		Path recordings = Path.of(ApplicationPropertyProvider.getProperty(Property.HTTP_RECORDINGS, DEFAULT_RECORDINGS));
+		log.info("Using the {0} HTTP transport", mode.getValue());
+		try {
+			switch (mode) {
+			case RECORD:
+				return new RecordingTransport(new DirectTransport(), recordings);
+			case REPLAY:
+				return new ReplayTransport(recordings);
+			default:
+				return new DirectTransport();
+			}
+		} catch (IOException | RuntimeException e) {
+			// replaying against the real services by accident would be worse than not starting
+			log.severe("Failed to set up the {0} HTTP transport with {1} due to [{2}]", mode.getValue(), recordings,
+					e.getMessage());
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private static enum TransportMode {
+		DIRECT("direct"),
+		RECORD("record"),
+		REPLAY("replay");
+
+		private final String value;
+
+		TransportMode(String value) {
+			this.value = value;
+		}
+
+		String getValue() {
+			return value;
+		}
+
+		static TransportMode fromValue(String value) {
+			for (TransportMode mode : values()) {
+				if (mode.value.equalsIgnoreCase(value.trim())) {
+					return mode;
+				}
+			}
+			throw new IllegalArgumentException(String.format("Unknown HTTP transport %s", value));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.john.utils.http;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How long the <code>ReplayTransport</code> takes to answer a request. Distributions are described as
+ * <code>name[:parameter[:parameter]]</code>, in milliseconds:
+ * <ul>
+ * <li><code>recorded[:factor]</code> - as long as the recorded request took, optionally scaled</li>
+ * <li><code>none</code> - no delay at all</li>
+ * <li><code>fixed:ms</code></li>
+ * <li><code>uniform:min:max</code></li>
+ * <li><code>normal:mean:stddev</code> - never below zero</li>
+ * <li><code>lognormal:median:sigma</code> - a long tail, as typical of remote services</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+	/** Returns the latency of the next response, given how long the recorded response took */
+	Duration next(Duration recorded);
+
+	/**
+	 * Returns the distribution with the given description.
+	 * @throws IllegalArgumentException if the description is not understood
+	 */
+	static LatencyDistribution parse(String description) {
+		String[] parts = description.trim().toLowerCase().split(":");
+		try {
+			switch (parts[0]) {
+			case "recorded":
+				double factor = parts.length > 1 ? Double.parseDouble(parts[1]) : 1;
+				return recorded -> Duration.ofNanos((long) (recorded.toNanos() * factor));
+			case "none":
+				return recorded -> Duration.ZERO;
+			case "fixed":
+				Duration fixed = Duration.ofMillis(Long.parseLong(parts[1]));
+				return recorded -> fixed;
+			case "uniform":
+				long min = Long.parseLong(parts[1]);
+				long max = Long.parseLong(parts[2]);
+				if (max < min) {
+					throw new IllegalArgumentException(String.format("Invalid latency distribution %s", description));
+				}
+				return recorded -> Duration.ofMillis(ThreadLocalRandom.current().nextLong(min, max + 1));
+			case "normal":
+				double mean = Double.parseDouble(parts[1]);
+				double deviation = Double.parseDouble(parts[2]);
+				return recorded -> millis(mean + deviation * ThreadLocalRandom.current().nextGaussian());
+			case "lognormal":
+				double mu = Math.log(Double.parseDouble(parts[1]));
+				double sigma = Double.parseDouble(parts[2]);
+				return recorded -> millis(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+			default:
+				throw new IllegalArgumentException(String.format("Unknown latency distribution %s", description));
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid latency distribution %s", description), e);
+		}
+	}
+
+	private static Duration millis(double millis) {
+		return Duration.ofNanos((long) (Math.max(0, millis) * 1_000_000));
+	}
+}
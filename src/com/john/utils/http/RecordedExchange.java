@@ -0,0 +1,172 @@
+package com.john.utils.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import javax.net.ssl.SSLSession;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.john.model.JSONBasedObject;
+
+/**
+ * A request and the response it got, as written by the <code>RecordingTransport</code> and served back by the
+ * <code>ReplayTransport</code>. Request headers and bodies are never recorded, as they carry credentials, and
+ * neither are access tokens in response bodies.
+ */
+final class RecordedExchange extends JSONBasedObject {
+	private static final String REDACTED_TOKEN = "recorded-access-token";
+	private static final String ACCESS_TOKEN_FIELD = "access_token";
+
+	private final String method;
+	private final URI uri;
+	private final int status;
+	private final Map<String, List<String>> headers;
+	private final String body;
+	private final Duration elapsed;
+
+	RecordedExchange(JSONObject object) {
+		super(object);
+		method = object.getString("method");
+		uri = URI.create(object.getString("uri"));
+		status = object.getInt("status");
+		headers = new HashMap<>();
+		JSONObject recordedHeaders = object.optJSONObject("headers");
+		if (recordedHeaders != null) {
+			for (String name : recordedHeaders.keySet()) {
+				JSONArray values = recordedHeaders.getJSONArray(name);
+				List<String> list = new ArrayList<>(values.length());
+				for (int i = 0; i < values.length(); i++) {
+					list.add(values.getString(i));
+				}
+				headers.put(name, list);
+			}
+		}
+		body = object.optString("body", "");
+		elapsed = Duration.ofMillis(object.optLong("elapsedMillis", 0));
+	}
+
+	static RecordedExchange of(HttpRequest request, HttpResponse<String> response, Duration elapsed) {
+		JSONObject object = new JSONObject();
+		object.put("method", request.method());
+		object.put("uri", request.uri().toString());
+		object.put("status", response.statusCode());
+		object.put("headers", new JSONObject(response.headers().map()));
+		object.put("body", redact(response.body()));
+		object.put("elapsedMillis", elapsed.toMillis());
+		return new RecordedExchange(object);
+	}
+
+	/**
+	 * Returns what requests are matched on when replaying: the method, the path and the names of the query
+	 * parameters. Query values, such as the time window of an events request, change from run to run.
+	 */
+	static String keyOf(String method, URI uri) {
+		TreeSet<String> parameters = new TreeSet<>();
+		if (uri.getRawQuery() != null) {
+			Arrays.stream(uri.getRawQuery().split("&")).map(parameter -> parameter.split("=", 2)[0]).forEach(parameters::add);
+		}
+		return String.format("%s %s%s", method, uri.getPath(), parameters.isEmpty() ? "" : "?".concat(String.join("&", parameters)));
+	}
+
+	String getKey() {
+		return keyOf(method, uri);
+	}
+
+	/** Returns how long the recorded request took */
+	Duration getElapsed() {
+		return elapsed;
+	}
+
+	/** Returns the recorded response as the response to the given request */
+	HttpResponse<String> toResponse(HttpRequest request) {
+		return toResponse(request, status, body);
+	}
+
+	/** Returns a response to the given request with the recorded headers, but the given status and body */
+	HttpResponse<String> toResponse(HttpRequest request, int status, String body) {
+		return new ReplayedResponse(request, status, HttpHeaders.of(headers, (name, value) -> true), body);
+	}
+
+	private static String redact(String body) {
+		if (body == null || !body.contains(ACCESS_TOKEN_FIELD)) {
+			return body;
+		}
+		try {
+			JSONObject json = new JSONObject(body);
+			if (json.has(ACCESS_TOKEN_FIELD)) {
+				json.put(ACCESS_TOKEN_FIELD, REDACTED_TOKEN);
+				return json.toString();
+			}
+		} catch (RuntimeException e) {
+			// not a JSON object, so not a token response either
+		}
+		return body;
+	}
+
+	private static final class ReplayedResponse implements HttpResponse<String> {
+		private final HttpRequest request;
+		private final int status;
+		private final HttpHeaders headers;
+		private final String body;
+
+		private ReplayedResponse(HttpRequest request, int status, HttpHeaders headers, String body) {
+			this.request = request;
+			this.status = status;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		@Override
+		public int statusCode() {
+			return status;
+		}
+
+		@Override
+		public HttpRequest request() {
+			return request;
+		}
+
+		@Override
+		public Optional<HttpResponse<String>> previousResponse() {
+			return Optional.empty();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return headers;
+		}
+
+		@Override
+		public String body() {
+			return body;
+		}
+
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+
+		@Override
+		public URI uri() {
+			return request.uri();
+		}
+
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
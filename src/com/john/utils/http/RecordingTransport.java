@@ -0,0 +1,64 @@
+package com.john.utils.http;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Sends requests through another transport and writes every exchange to its own file in the recordings directory,
+ * numbered in the order the responses arrived, for the <code>ReplayTransport</code> to serve back later. Failing to
+ * record an exchange is logged, but never fails the request.
+ */
+final class RecordingTransport implements HttpTransport {
+	private static final AppLogger log = AppLogger.getLogger(RecordingTransport.class.getCanonicalName());
+	static final String RECORDING_EXTENSION = ".json";
+
+	private final HttpTransport delegate;
+	private final Path directory;
+	private final AtomicInteger sequence;
+
+	RecordingTransport(HttpTransport delegate, Path directory) throws IOException {
+		this.delegate = delegate;
+		this.directory = directory;
+		Files.createDirectories(directory);
+		// recordings are added to the ones already there
+		try (Stream<Path> files = Files.list(directory)) {
+			sequence = new AtomicInteger((int) files.filter(RecordingTransport::isRecording).count());
+		}
+		log.info("Recording HTTP exchanges to {0}", directory.toAbsolutePath());
+	}
+
+	@Override
+	public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		HttpResponse<String> response = delegate.send(request);
+		record(RecordedExchange.of(request, response, Duration.ofNanos(System.nanoTime() - start)));
+		return response;
+	}
+
+	static boolean isRecording(Path file) {
+		return file.getFileName().toString().endsWith(RECORDING_EXTENSION);
+	}
+
+	private void record(RecordedExchange exchange) {
+		Path file = directory.resolve(String.format("%06d%s", sequence.incrementAndGet(), RECORDING_EXTENSION));
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			Files.write(temp, exchange.toString().getBytes(UTF_8));
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+			log.fine("Recorded {0} as {1}", exchange.getKey(), file.getFileName());
+		} catch (IOException e) {
+			log.warning("Failed to record {0} due to [{1}]", exchange.getKey(), e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.john.utils.http;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * Answers requests with exchanges recorded by the <code>RecordingTransport</code>, without touching the network.
+ * A request is answered by a recording with the same method, path and query parameter names (see
+ * <code>RecordedExchange.keyOf</code>). When several recordings match, they are served in the order they were
+ * recorded, starting over after the last one. Each response is delayed according to
+ * <code>http.replay.latency</code> (see <code>LatencyDistribution</code>), and faults are injected at the rates given
+ * by <code>http.replay.errorrate</code> (HTTP 503), <code>http.replay.timeoutrate</code> (no response until the
+ * request times out) and <code>http.replay.resetrate</code> (the connection drops). All of them are read for every
+ * request, so they can be changed while replaying.
+ */
+final class ReplayTransport implements HttpTransport {
+	private static final AppLogger log = AppLogger.getLogger(ReplayTransport.class.getCanonicalName());
+	private static final String DEFAULT_LATENCY = "recorded";
+	private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+	private static final int SERVICE_UNAVAILABLE = 503;
+	private static final String INJECTED_ERROR_BODY = "{\"error\":\"injected\",\"error_description\":\"Fault injected by replay\"}";
+
+	private final Map<String, List<RecordedExchange>> recordings;
+	private final Map<String, AtomicInteger> positions = new HashMap<>();
+
+	ReplayTransport(Path directory) throws IOException {
+		List<Path> files;
+		try (Stream<Path> listing = Files.list(directory)) {
+			files = listing.filter(RecordingTransport::isRecording).sorted().collect(Collectors.toList());
+		}
+		Map<String, List<RecordedExchange>> loaded = new HashMap<>();
+		for (Path file : files) {
+			RecordedExchange exchange = new RecordedExchange(new JSONObject(Files.readString(file, UTF_8)));
+			loaded.computeIfAbsent(exchange.getKey(), key -> new ArrayList<>()).add(exchange);
+		}
+		loaded.keySet().forEach(key -> positions.put(key, new AtomicInteger()));
+		recordings = loaded;
+		log.info("Replaying {0} recorded HTTP exchange(s) of {1} kind(s) from {2}", files.size(), recordings.size(),
+				directory.toAbsolutePath());
+	}
+
+	@Override
+	public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+		String key = RecordedExchange.keyOf(request.method(), request.uri());
+		List<RecordedExchange> matches = recordings.get(key);
+		if (matches == null) {
+			throw new IOException(String.format("No recorded exchange matches %s", key));
+		}
+		RecordedExchange exchange = matches.get(Math.floorMod(positions.get(key).getAndIncrement(), matches.size()));
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (random.nextDouble() < rate(Property.HTTP_REPLAY_RESET_RATE)) {
+			throw new IOException(String.format("Connection reset while replaying %s (injected)", key));
+		}
+		Duration timeout = request.timeout().orElse(DEFAULT_TIMEOUT);
+		if (random.nextDouble() < rate(Property.HTTP_REPLAY_TIMEOUT_RATE)) {
+			Thread.sleep(timeout.toMillis());
+			throw new HttpTimeoutException(String.format("Request timed out while replaying %s (injected)", key));
+		}
+		Duration latency = latency().next(exchange.getElapsed());
+		if (latency.compareTo(timeout) >= 0) {
+			Thread.sleep(timeout.toMillis());
+			throw new HttpTimeoutException(String.format("Request timed out while replaying %s", key));
+		}
+		Thread.sleep(latency.toMillis());
+		if (random.nextDouble() < rate(Property.HTTP_REPLAY_ERROR_RATE)) {
+			return exchange.toResponse(request, SERVICE_UNAVAILABLE, INJECTED_ERROR_BODY);
+		}
+		return exchange.toResponse(request);
+	}
+
+	private static LatencyDistribution latency() {
+		String description = ApplicationPropertyProvider.getProperty(Property.HTTP_REPLAY_LATENCY, DEFAULT_LATENCY);
+		try {
+			return LatencyDistribution.parse(description);
+		} catch (IllegalArgumentException e) {
+			log.warning("{0} --> replaying with the recorded latency", e.getMessage());
+			return LatencyDistribution.parse(DEFAULT_LATENCY);
+		}
+	}
+
+	private static double rate(Property property) {
+		String rate = ApplicationPropertyProvider.getProperty(property, "0");
+		try {
+			return Double.parseDouble(rate);
+		} catch (NumberFormatException e) {
+			log.warning("Invalid {0} of {1} --> injecting no faults", property, rate);
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.john.utils.http;
+
+import com.john.utils.resilience.ThrottledException;
+
+/**
+ * Decides when a request may be sent. <code>HttpClientHelper</code> acquires a permit before every attempt,
+ * retries included, so a throttle sees every request that actually reaches the remote service.
+ */
+@FunctionalInterface
+public interface RequestThrottle {
+	/** A throttle that never delays a request */
+	RequestThrottle NONE = () -> {};
+
+	/**
+	 * Blocks until a request may be sent.
+	 * @throws ThrottledException if no permit could be granted in time, in which case no request is sent
+	 */
+	void acquire() throws InterruptedException;
+}
@@ -0,0 +1,187 @@
+package com.john.utils.logging;
+
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * A thin facade over a JUL <code>Logger</code> that never builds a message for a level that is disabled. Messages
+ * are <code>MessageFormat</code> templates, e.g. <code>log.info("Sent {0} email(s) to {1}", count, list)</code>,
+ * which are only filled in when a handler formats the record, so with asynchronous logging the formatting happens
+ * on the log writer thread. Templates follow <code>MessageFormat</code> rules, so a literal <code>'</code> is
+ * written as <code>''</code>. Integral parameters are written plainly (1500, not 1,500), as they are mostly counts,
+ * ports and durations. Messages that are expensive in other ways can be passed as a <code>Supplier</code>, or have
+ * expensive parameters wrapped with <code>lazy</code>.
+ * <p>
+ * The level check is the <code>Logger</code>'s own, which compares against a cached effective level and is kept up
+ * to date by the <code>LogManager</code>. The methods taking one or two parameters exist so that a disabled
+ * statement does not even allocate a parameter array.
+ */
+public final class AppLogger {
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+	private static final String FACADE_CLASS = AppLogger.class.getName();
+
+	private final Logger logger;
+
+	private AppLogger(Logger logger) {
+		this.logger = logger;
+	}
+
+	public static AppLogger getLogger(String name) {
+		return new AppLogger(Logger.getLogger(name));
+	}
+
+	/**
+	 * Wraps a parameter that should only be computed when the message is formatted, e.g. a masked email address.
+	 * The supplier may run on another thread, so it should only read state that no longer changes.
+	 */
+	public static Object lazy(Supplier<?> value) {
+		return new Object() {
+			@Override
+			public String toString() {
+				return String.valueOf(value.get());
+			}
+		};
+	}
+
+	public boolean isLoggable(Level level) {
+		return logger.isLoggable(level);
+	}
+
+	public void log(Level level, String template, Object... parameters) {
+		if (logger.isLoggable(level)) {
+			publish(level, template, parameters);
+		}
+	}
+
+	public void severe(String message) {
+		log(Level.SEVERE, message);
+	}
+
+	public void severe(String template, Object parameter) {
+		if (logger.isLoggable(Level.SEVERE)) {
+			publish(Level.SEVERE, template, new Object[] { parameter });
+		}
+	}
+
+	public void severe(String template, Object first, Object second) {
+		if (logger.isLoggable(Level.SEVERE)) {
+			publish(Level.SEVERE, template, new Object[] { first, second });
+		}
+	}
+
+	public void severe(String template, Object... parameters) {
+		log(Level.SEVERE, template, parameters);
+	}
+
+	public void severe(Supplier<String> message) {
+		log(Level.SEVERE, message);
+	}
+
+	public void warning(String message) {
+		log(Level.WARNING, message);
+	}
+
+	public void warning(String template, Object parameter) {
+		if (logger.isLoggable(Level.WARNING)) {
+			publish(Level.WARNING, template, new Object[] { parameter });
+		}
+	}
+
+	public void warning(String template, Object first, Object second) {
+		if (logger.isLoggable(Level.WARNING)) {
+			publish(Level.WARNING, template, new Object[] { first, second });
+		}
+	}
+
+	public void warning(String template, Object... parameters) {
+		log(Level.WARNING, template, parameters);
+	}
+
+	public void warning(Supplier<String> message) {
+		log(Level.WARNING, message);
+	}
+
+	public void info(String message) {
+		log(Level.INFO, message);
+	}
+
+	public void info(String template, Object parameter) {
+		if (logger.isLoggable(Level.INFO)) {
+			publish(Level.INFO, template, new Object[] { parameter });
+		}
+	}
+
+	public void info(String template, Object first, Object second) {
+		if (logger.isLoggable(Level.INFO)) {
+			publish(Level.INFO, template, new Object[] { first, second });
+		}
+	}
+
+	public void info(String template, Object... parameters) {
+		log(Level.INFO, template, parameters);
+	}
+
+	public void info(Supplier<String> message) {
+		log(Level.INFO, message);
+	}
+
+	public void fine(String message) {
+		log(Level.FINE, message);
+	}
+
+	public void fine(String template, Object parameter) {
+		if (logger.isLoggable(Level.FINE)) {
+			publish(Level.FINE, template, new Object[] { parameter });
+		}
+	}
+
+	public void fine(String template, Object first, Object second) {
+		if (logger.isLoggable(Level.FINE)) {
+			publish(Level.FINE, template, new Object[] { first, second });
+		}
+	}
+
+	public void fine(String template, Object... parameters) {
+		log(Level.FINE, template, parameters);
+	}
+
+	public void fine(Supplier<String> message) {
+		log(Level.FINE, message);
+	}
+
+	private void log(Level level, String message) {
+		if (logger.isLoggable(level)) {
+			publish(level, message, null);
+		}
+	}
+
+	private void log(Level level, Supplier<String> message) {
+		if (logger.isLoggable(level)) {
+			publish(level, message.get(), null);
+		}
+	}
+
+	private void publish(Level level, String template, Object[] parameters) {
+		LogRecord record = new LogRecord(level, template);
+		record.setLoggerName(logger.getName());
+		if (parameters != null && parameters.length > 0) {
+			for (int i = 0; i < parameters.length; i++) {
+				Object parameter = parameters[i];
+				if (parameter instanceof Long || parameter instanceof Integer || parameter instanceof Short
+						|| parameter instanceof Byte) {
+					parameters[i] = parameter.toString();
+				}
+			}
+			record.setParameters(parameters);
+		}
+		// JUL would report this class as the caller, so the caller is found here instead
+		STACK_WALKER.walk(frames -> frames.dropWhile(frame -> frame.getClassName().equals(FACADE_CLASS)).findFirst())
+				.ifPresent(frame -> {
+					record.setSourceClassName(frame.getClassName());
+					record.setSourceMethodName(frame.getMethodName());
+				});
+		logger.log(record);
+	}
+}
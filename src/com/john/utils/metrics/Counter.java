@@ -0,0 +1,34 @@
+package com.john.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A count that only goes up, such as the number of emails sent */
+public final class Counter extends Metric {
+	private final LongAdder count = new LongAdder();
+
+	Counter(String name, String help, String labels) {
+		super(name, help, labels);
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	public long get() {
+		return count.sum();
+	}
+
+	@Override
+	String getType() {
+		return "counter";
+	}
+
+	@Override
+	void writeSamples(StringBuilder out) {
+		out.append(getName()).append(getLabels()).append(' ').append(get()).append('\n');
+	}
+}
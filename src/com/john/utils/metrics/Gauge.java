@@ -0,0 +1,27 @@
+package com.john.utils.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/** A value that is read when the metrics are exported, such as the number of subscribers */
+public final class Gauge extends Metric {
+	private final DoubleSupplier value;
+
+	Gauge(String name, String help, String labels, DoubleSupplier value) {
+		super(name, help, labels);
+		this.value = value;
+	}
+
+	public double get() {
+		return value.getAsDouble();
+	}
+
+	@Override
+	String getType() {
+		return "gauge";
+	}
+
+	@Override
+	void writeSamples(StringBuilder out) {
+		out.append(getName()).append(getLabels()).append(' ').append(formatValue(get())).append('\n');
+	}
+}
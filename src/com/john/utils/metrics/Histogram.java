@@ -0,0 +1,120 @@
+package com.john.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations recorded in nanoseconds. Values are counted in logarithmic buckets: every
+ * power of two is split into <code>SUB_BUCKETS</code> equal buckets, so any value is placed within 25% of its true
+ * size using a fixed 2 KB of counters, whatever the range of values. Recording is a few bit operations and one
+ * atomic increment. Exported in seconds as a Prometheus histogram with a bucket per power of two between
+ * roughly a microsecond and a minute.
+ */
+public final class Histogram extends Metric {
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	private static final int MIN_EXPORTED_POWER = 10; // ~1us
+	private static final int MAX_EXPORTED_POWER = 36; // ~69s
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	Histogram(String name, String help, String labels) {
+		super(name, help, labels);
+	}
+
+	/** Records the given duration in nanoseconds. Negative values are recorded as zero. */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSumNanos() {
+		return sum.sum();
+	}
+
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * Returns an upper bound for the given percentile (0 to 100) of the recorded values in nanoseconds, or zero
+	 * if nothing was recorded.
+	 */
+	public long getPercentileNanos(double percentile) {
+		long total = getCount();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	// values below SUB_BUCKETS get a bucket each, above that each power of two is split into SUB_BUCKETS buckets
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int power = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (power - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long lowerBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int power = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (power - SUB_BUCKET_BITS);
+	}
+
+	static long upperBoundOf(int bucket) {
+		return bucket + 1 < BUCKETS ? lowerBoundOf(bucket + 1) - 1 : Long.MAX_VALUE;
+	}
+
+	@Override
+	String getType() {
+		return "histogram";
+	}
+
+	@Override
+	void writeSamples(StringBuilder out) {
+		String labelPrefix = getLabels().isEmpty() ? "{" : getLabels().substring(0, getLabels().length() - 1).concat(",");
+		long cumulative = 0;
+		int bucket = 0;
+		for (int power = MIN_EXPORTED_POWER; power <= MAX_EXPORTED_POWER; power++) {
+			// every bucket below the one starting at 2^power holds values below 2^power
+			for (int end = bucketOf(1L << power); bucket < end; bucket++) {
+				cumulative += counts.get(bucket);
+			}
+			out.append(getName()).append("_bucket").append(labelPrefix).append("le=\"")
+					.append((1L << power) / NANOS_PER_SECOND).append("\"} ").append(cumulative).append('\n');
+		}
+		// read the count last, so it is never lower than the buckets written before it
+		out.append(getName()).append("_bucket").append(labelPrefix).append("le=\"+Inf\"} ")
+				.append(Math.max(cumulative, getCount())).append('\n');
+		out.append(getName()).append("_sum").append(getLabels()).append(' ')
+				.append(formatValue(getSumNanos() / NANOS_PER_SECOND)).append('\n');
+		out.append(getName()).append("_count").append(getLabels()).append(' ')
+				.append(Math.max(cumulative, getCount())).append('\n');
+	}
+}
@@ -0,0 +1,43 @@
+package com.john.utils.metrics;
+
+/**
+ * A single time series held by the <code>MetricsRegistry</code>: a family name, such as
+ * <code>stavis_notifications_total</code>, and the labels that set it apart from the other series of its family.
+ */
+public abstract class Metric {
+	private final String name;
+	private final String help;
+	private final String labels;
+
+	Metric(String name, String help, String labels) {
+		this.name = name;
+		this.help = help;
+		this.labels = labels;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getHelp() {
+		return help;
+	}
+
+	/** Returns the labels in Prometheus form, e.g. <code>{channel="email"}</code>, or an empty string */
+	public String getLabels() {
+		return labels;
+	}
+
+	/** The Prometheus type of this metric */
+	abstract String getType();
+
+	/** Appends the samples of this metric in the Prometheus text format */
+	abstract void writeSamples(StringBuilder out);
+
+	static String formatValue(double value) {
+		if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+			return String.valueOf((long) value);
+		}
+		return String.valueOf(value);
+	}
+}
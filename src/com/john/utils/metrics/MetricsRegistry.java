@@ -0,0 +1,94 @@
+package com.john.utils.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds every metric of the application. Metrics are identified by name and labels, and asking for the same
+ * metric twice returns the same instance, so classes usually look their metrics up once into static fields.
+ * Labels are given as alternating names and values, e.g. <code>counter("stavis_notifications_total",
+ * "Notifications sent", "channel", "email")</code>.
+ */
+public final class MetricsRegistry {
+	private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+	private MetricsRegistry() {}
+
+	public static Counter counter(String name, String help, String ...labels) {
+		String formattedLabels = formatLabels(labels);
+		return register(new Counter(name, help, formattedLabels), Counter.class);
+	}
+
+	/** Registers a gauge read from the given supplier. Registering the same gauge again keeps the first supplier. */
+	public static Gauge gauge(String name, String help, DoubleSupplier value, String ...labels) {
+		String formattedLabels = formatLabels(labels);
+		return register(new Gauge(name, help, formattedLabels, value), Gauge.class);
+	}
+
+	public static Histogram histogram(String name, String help, String ...labels) {
+		String formattedLabels = formatLabels(labels);
+		return register(new Histogram(name, help, formattedLabels), Histogram.class);
+	}
+
+	/** Returns a <code>Timer</code> over the histogram <code>&lt;name&gt;_seconds</code> and the counter <code>&lt;name&gt;_errors_total</code> */
+	public static Timer timer(String name, String help, String ...labels) {
+		String operation = labels.length == 0 ? name : name.concat(formatLabels(labels));
+		return new Timer(operation, histogram(name.concat("_seconds"), help, labels),
+				counter(name.concat("_errors_total"), String.format("Failures of: %s", help), labels));
+	}
+
+	/** Returns every registered metric, grouped by name */
+	public static List<Metric> getMetrics() {
+		List<Metric> all = new ArrayList<>(metrics.values());
+		all.sort(Comparator.comparing(Metric::getName).thenComparing(Metric::getLabels));
+		return all;
+	}
+
+	/** Returns every registered metric in the Prometheus text exposition format */
+	public static String toPrometheusText() {
+		StringBuilder out = new StringBuilder();
+		String family = null;
+		for (Metric metric : getMetrics()) {
+			if (!metric.getName().equals(family)) {
+				family = metric.getName();
+				out.append("# HELP ").append(family).append(' ').append(metric.getHelp()).append('\n');
+				out.append("# TYPE ").append(family).append(' ').append(metric.getType()).append('\n');
+			}
+			metric.writeSamples(out);
+		}
+		return out.toString();
+	}
+
+	private static <T extends Metric> T register(T metric, Class<T> type) {
+		Metric existing = metrics.putIfAbsent(metric.getName().concat(metric.getLabels()), metric);
+		if (existing == null) {
+			return metric;
+		}
+		if (!type.isInstance(existing)) {
+			throw new IllegalArgumentException(String.format("%s is already registered as a %s", metric.getName(), existing.getType()));
+		}
+		return type.cast(existing);
+	}
+
+	private static String formatLabels(String ...labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be given as name and value pairs");
+		}
+		if (labels.length == 0) {
+			return "";
+		}
+		StringBuilder formatted = new StringBuilder("{");
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) {
+				formatted.append(',');
+			}
+			formatted.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")
+					.replace("\n", "\\n")).append('"');
+		}
+		return formatted.append('}').toString();
+	}
+}
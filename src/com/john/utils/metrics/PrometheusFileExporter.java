@@ -0,0 +1,43 @@
+package com.john.utils.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * Writes the <code>MetricsRegistry</code> in the Prometheus text format to the file set by
+ * <code>metrics.export.file</code>, for example for the node exporter's textfile collector. The file is written
+ * to a temporary file first and then moved into place, so readers never see a partial export.
+ */
+public final class PrometheusFileExporter implements Runnable {
+	private static final AppLogger log = AppLogger.getLogger(PrometheusFileExporter.class.getCanonicalName());
+	private static final String DEFAULT_EXPORT_FILE = "./metrics/stavis.prom";
+
+	@Override
+	public void run() {
+		Path target = Path.of(ApplicationPropertyProvider.getProperty(Property.METRICS_EXPORT_FILE, DEFAULT_EXPORT_FILE));
+		try {
+			export(target);
+		} catch (IOException e) {
+			log.warning("Failed to export metrics to {0} due to [{1}]", target, e.getMessage());
+		}
+	}
+
+	public static void export(Path target) throws IOException {
+		Path directory = target.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		Files.writeString(temp, MetricsRegistry.toPrometheusText(), UTF_8);
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.fine("Exported metrics to {0}", target);
+	}
+}
@@ -0,0 +1,59 @@
+package com.john.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Times an operation into a <code>Histogram</code> named <code>&lt;name&gt;_seconds</code>, and counts its failures
+ * in a <code>Counter</code> named <code>&lt;name&gt;_errors_total</code>. Usage:
+ * <pre>
+ * final long start = timer.start();
+ * ... // on success
+ * timer.stop(start);
+ * ... // on failure
+ * timer.stopWithError(start);
+ * </pre>
+ */
+public final class Timer {
+	private static final AppLogger log = AppLogger.getLogger(Timer.class.getCanonicalName());
+
+	private final String operation;
+	private final Histogram durations;
+	private final Counter errors;
+
+	Timer(String operation, Histogram durations, Counter errors) {
+		this.operation = operation;
+		this.durations = durations;
+		this.errors = errors;
+	}
+
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/** Records the time since the given start, and returns it in nanoseconds */
+	public long stop(long start) {
+		long elapsed = System.nanoTime() - start;
+		durations.record(elapsed);
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("{0} took {1}ms to execute", operation, TimeUnit.NANOSECONDS.toMillis(elapsed));
+		}
+		return elapsed;
+	}
+
+	/** Records the time since the given start as a failed operation, and returns it in nanoseconds */
+	public long stopWithError(long start) {
+		errors.increment();
+		return stop(start);
+	}
+
+	public Histogram getDurations() {
+		return durations;
+	}
+
+	public Counter getErrors() {
+		return errors;
+	}
+}
@@ -1,26 +1,27 @@
 package com.john.utils.providers;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
-import java.util.logging.Logger;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.john.utils.providers.ConfigurationStore.ChangeListener;
 
 /**
- * Keeps a record of application properties loaded during application initialization from application.properties.
- * It should be the only way to access properties.
+ * Provides typed access to application properties. It is a thin view over the <code>ConfigurationStore</code>,
+ * so a property may come from a runtime argument, application.properties or an environment variable. Values are
+ * pre-parsed by the store and reloaded when application.properties changes. Properties that are not reloadable
+ * keep their original value until the application restarts.
  */
 public final class ApplicationPropertyProvider {
-	private static final Logger log = Logger.getLogger(ApplicationPropertyProvider.class.getCanonicalName());
-	private static final Properties APP_PROPERTIES;
 	
-	static {
-		APP_PROPERTIES = new Properties();
-		try (FileInputStream fis = new FileInputStream("./resources/application.properties")) {			
-			APP_PROPERTIES.load(fis);
-		} catch (IOException e) {
-			log.severe("Failed to load application properties");
-			throw new RuntimeException(e.getMessage());
-		}
+	/**
+	 * Registers a listener that is notified after every reload that changed at least one property
+	 */
+	public static void addChangeListener(ChangeListener listener) {
+		ConfigurationStore.addChangeListener(listener);
+	}
+	
+	public static void removeChangeListener(ChangeListener listener) {
+		ConfigurationStore.removeChangeListener(listener);
 	}
 	
 	public static boolean shouldUseMocks() {
@@ -28,7 +29,7 @@ public final class ApplicationPropertyProvider {
 	}
 	
 	public static String getProperty(Property property) {
-		return APP_PROPERTIES.getProperty(property.toString());
+		return ConfigurationStore.get(property);
 	}
 	
 	public static String getProperty(Property property, String defaultValue) {
@@ -39,7 +40,7 @@ public final class ApplicationPropertyProvider {
 	}
 	
 	public static int getIntProperty(Property property) {
-		return Integer.parseInt(APP_PROPERTIES.getProperty(property.toString()));
+		return ConfigurationStore.getInt(property);
 	}
 	
 	public static int getIntProperty(Property property, int defaultValue) {
@@ -50,7 +51,7 @@ public final class ApplicationPropertyProvider {
 	}
 	
 	public static long getLongProperty(Property property) {
-		return Long.parseLong(APP_PROPERTIES.getProperty(property.toString()));
+		return ConfigurationStore.getLong(property);
 	}
 	
 	public static long getLongProperty(Property property, long defaultValue) {
@@ -61,41 +62,140 @@ public final class ApplicationPropertyProvider {
 	}
 	
 	public static boolean getBooleanProperty(Property property) {
-		return Boolean.parseBoolean(APP_PROPERTIES.getProperty(property.toString()));
+		return ConfigurationStore.getBoolean(property);
 	}
 	
 	public static boolean hasProperty(Property property) {
-		return APP_PROPERTIES.containsKey(property.toString());
+		return ConfigurationStore.has(property);
 	}
 	
 	public static enum Property {
-		USE_MOCKS("mockdata.enabled"),
-		PROD("prod"),
+		USE_MOCKS("mockdata.enabled", false),
+		MOCK_SYNTHETIC_EVENTS("mockdata.synthetic.events", false),
+		MOCK_SYNTHETIC_SEED("mockdata.synthetic.seed", false),
+		MOCK_SYNTHETIC_FILE("mockdata.synthetic.file", false),
+		PROD("prod", false),
+		BOOTSTRAP_TIMEOUT_SECONDS("bootstrap.timeout", false),
+		CHECKPOINT_ENABLED("checkpoint.enabled", false),
+		CHECKPOINT_FILE("checkpoint.file", false),
+		CHECKPOINT_FREQUENCY_SECONDS("checkpoint.frequency"),
+		LEADER_ELECTION_ENABLED("leader.enabled", false),
+		LEADER_LOCK_FILE("leader.lockfile", false),
+		LEADER_INSTANCE_ID("leader.instance", false),
+		LEADER_LEASE_SECONDS("leader.lease", false),
+		LEADER_HEARTBEAT_SECONDS("leader.heartbeat"),
+		FANOUT_ROLE("fanout.role", false),
+		FANOUT_SPOOL("fanout.spool", false),
+		FANOUT_PARTITIONS("fanout.partitions", false),
+		FANOUT_PARTITION("fanout.partition", false),
+		FANOUT_POLL_SECONDS("fanout.poll"),
+		FANOUT_RETENTION_HOURS("fanout.retention"),
 		QUERY_MAX_DAYS("query.maxdays"),
 		QUERY_FREQUENCY_MINUTES("query.frequency"),
 		QUERY_INITIAL_DELAY("query.initialdelay"),
 		QUERY_KEYWORD("query.keyword"),
+		QUERY_MISSED_RUN_POLICY("query.missedruns"),
+		QUERY_JITTER_SECONDS("query.jitter"),
+		QUERY_ADAPTIVE_ENABLED("query.adaptive.enabled", false),
+		QUERY_ADAPTIVE_MIN_FREQUENCY("query.adaptive.minfrequency"),
+		QUERY_ADAPTIVE_MAX_FREQUENCY("query.adaptive.maxfrequency"),
+		QUERY_ADAPTIVE_QUIET_START("query.adaptive.quietstart"),
+		QUERY_ADAPTIVE_QUIET_END("query.adaptive.quietend"),
 		CALENDAR_ID("calendar.id"),
+		GOOGLE_CALENDAR_BASE_URL("google.calendar.baseurl"),
+		GOOGLE_OAUTH_TOKEN_URL("google.oauth.tokenurl"),
 		NOTIFICATIONS_ENABLED("notifications.enabled"),
 		EMAIL_ENABLED("email.enabled"),
 		EMAIL_ADDRESS("email.address"),
 		EMAIL_SUBJECT("email.subject"),
 		EMAIL_SMTP_SERVER("email.smtp.server"),
 		EMAIL_SMTP_PORT("email.smtp.port"),
+		EMAIL_SMTP_TRANSPORT("email.smtp.transport"),
 		EMAIL_SENDER_NAME("email.sender.name"),
 		SMS_ENABLED("sms.enabled"),
 		SMS_SUBJECT("sms.subject"),
 		LOGGING_ROTATION_FREQUENCY("logging.rotation.frequency"),
 		LOGGING_ROTATION_PREFIX("logging.rotation.prefix"),
+		LOGGING_ROTATION_ENABLED("logging.rotation.enabled", false),
+		LOGGING_ROTATION_MAX_SIZE("logging.rotation.maxsize"),
+		LOGGING_ROTATION_MAX_FILES("logging.rotation.maxfiles"),
+		LOGGING_ROTATION_MAX_TOTAL_SIZE("logging.rotation.maxtotalsize"),
+		LOGGING_ASYNC_ENABLED("logging.async.enabled", false),
+		LOGGING_ASYNC_CAPACITY("logging.async.capacity", false),
+		LOGGING_ASYNC_OVERFLOW_POLICY("logging.async.overflow", false),
+		LOGGING_THROTTLE_ENABLED("logging.throttle.enabled", false),
+		LOGGING_THROTTLE_BURST("logging.throttle.burst"),
+		LOGGING_THROTTLE_INTERVAL_SECONDS("logging.throttle.interval", false),
 		HEALTHCHECKER_ENABLED("healthchecker.enabled"),
 		HEALTHCHECKER_FREQUENCY("healthchecker.frequency"),
 		HEALTHCHECKER_INITIAL_DELAY("healthchecker.initialdelay"),
 		HEALTHCHECKER_SUBJECT("healthchecker.subject"),
-		HEALTHCHECKER_MESSAGE("healthchecker.message");
+		HEALTHCHECKER_MESSAGE("healthchecker.message"),
+		HEALTHCHECKER_MISSED_RUN_POLICY("healthchecker.missedruns"),
+		HEALTHCHECKER_JITTER_SECONDS("healthchecker.jitter"),
+		RESILIENCE_BACKOFF_MILLIS("resilience.backoff"),
+		RESILIENCE_MAX_BACKOFF_MILLIS("resilience.maxbackoff"),
+		RESILIENCE_CALENDAR_TIMEOUT_SECONDS("resilience.calendar.timeout"),
+		RESILIENCE_CALENDAR_ATTEMPTS("resilience.calendar.attempts"),
+		RESILIENCE_CALENDAR_FAILURE_THRESHOLD("resilience.calendar.failurethreshold"),
+		RESILIENCE_CALENDAR_OPEN_SECONDS("resilience.calendar.opentime"),
+		RESILIENCE_OAUTH_TIMEOUT_SECONDS("resilience.oauth.timeout"),
+		RESILIENCE_OAUTH_ATTEMPTS("resilience.oauth.attempts"),
+		RESILIENCE_OAUTH_FAILURE_THRESHOLD("resilience.oauth.failurethreshold"),
+		RESILIENCE_OAUTH_OPEN_SECONDS("resilience.oauth.opentime"),
+		RESILIENCE_SMTP_TIMEOUT_SECONDS("resilience.smtp.timeout"),
+		RESILIENCE_SMTP_ATTEMPTS("resilience.smtp.attempts"),
+		RESILIENCE_SMTP_FAILURE_THRESHOLD("resilience.smtp.failurethreshold"),
+		RESILIENCE_SMTP_OPEN_SECONDS("resilience.smtp.opentime"),
+		QUOTA_PROJECT_PER_MINUTE("quota.project.perminute"),
+		QUOTA_CALENDAR_PER_MINUTE("quota.calendar.perminute"),
+		QUOTA_OAUTH_PER_MINUTE("quota.oauth.perminute"),
+		QUOTA_PER_CALENDAR_PER_MINUTE("quota.percalendar.perminute"),
+		QUOTA_MAX_WAIT_SECONDS("quota.maxwait"),
+		HTTP_TRANSPORT("http.transport", false),
+		HTTP_RECORDINGS("http.recordings", false),
+		HTTP_REPLAY_LATENCY("http.replay.latency"),
+		HTTP_REPLAY_ERROR_RATE("http.replay.errorrate"),
+		HTTP_REPLAY_TIMEOUT_RATE("http.replay.timeoutrate"),
+		HTTP_REPLAY_RESET_RATE("http.replay.resetrate"),
+		STATUS_SERVER_ENABLED("status.enabled", false),
+		STATUS_SERVER_PORT("status.port", false),
+		STATUS_TRIGGER_TOKEN("status.trigger.token"),
+		METRICS_EXPORT_ENABLED("metrics.export.enabled", false),
+		METRICS_EXPORT_FILE("metrics.export.file"),
+		METRICS_EXPORT_FREQUENCY_SECONDS("metrics.export.frequency"),
+		SECRETS_LOCATION("secrets-location", false),
+		CACHE_SECRETS("cache-secrets", false),
+		SECRETS_LEASE_SECONDS("secrets-lease-seconds", false),
+		EAGER_LOAD_SECRETS("eager-load-secrets", false),
+		DELETE_SECRETS_ON_LOAD("delete-secrets-on-load", false);
+		
+		private static final Map<String, Property> BY_KEY = new HashMap<>();
+		static {
+			for (Property property : values()) {
+				BY_KEY.put(property.value, property);
+			}
+		}
 		
 		private String value;
+		private boolean reloadable;
 		Property(String value) {
+			this(value, true);
+		}
+		
+		Property(String value, boolean reloadable) {
 			this.value = value;
+			this.reloadable = reloadable;
+		}
+		
+		/** Returns <code>false</code> if changes to this property only take effect after a restart */
+		public boolean isReloadable() {
+			return reloadable;
+		}
+		
+		/** Returns the property with the given key, or <code>null</code> if there is none */
+		public static Property fromKey(String key) {
+			return BY_KEY.get(key);
 		}
 		
 		@Override
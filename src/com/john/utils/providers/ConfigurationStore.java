@@ -0,0 +1,188 @@
+package com.john.utils.providers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.john.utils.FileChangeWatcher;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * The single store for every configuration value, regardless of how it was provided. Each <code>Property</code>
+ * is resolved from the following layers, where a higher layer overrides the ones below it:
+ * <ol>
+ * <li>runtime arguments of the form <code>--key=value</code> or <code>key=value</code></li>
+ * <li>application.properties</li>
+ * <li>environment variables named <code>STAVIS_</code> followed by the key in upper case, with dots and dashes
+ * replaced by underscores (e.g. <code>STAVIS_QUERY_FREQUENCY</code> for <code>query.frequency</code>)</li>
+ * </ol>
+ * All layers are merged and type-converted once into an immutable <code>PropertySnapshot</code>, so lookups are
+ * array reads. application.properties is watched for changes, and each reload publishes a new snapshot and notifies
+ * the registered <code>ChangeListener</code>s. Values are available before <code>init</code> is invoked, just without
+ * the runtime argument layer. A missing application.properties is an empty layer, so standalone tools can be run from
+ * any directory, but once loaded it must stay readable for reloads to take effect.
+ */
+public final class ConfigurationStore {
+	private static final AppLogger log = AppLogger.getLogger(ConfigurationStore.class.getCanonicalName());
+	private static final String PROPERTIES_FILE = "./resources/application.properties";
+	private static final String ENVIRONMENT_PREFIX = "STAVIS_";
+	private static final List<ChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+	private static volatile Properties arguments;
+	private static volatile PropertySnapshot snapshot;
+
+	static {
+		try {
+			snapshot = new PropertySnapshot(merge(readPropertiesIfPresent(), new Properties()));
+		} catch (IOException e) {
+			log.severe("Failed to load application properties");
+			throw new RuntimeException(e.getMessage());
+		}
+		FileChangeWatcher.watch(Path.of(PROPERTIES_FILE), ConfigurationStore::reload);
+	}
+
+	private ConfigurationStore() {}
+
+	/** Adds the given runtime arguments as the highest layer of the store. This can only be invoked once! */
+	public static synchronized void init(String[] args) {
+		if (arguments != null) {
+			throw new IllegalStateException("ConfigurationStore cannot be initialized more than once!");
+		}
+		arguments = parseArguments(args);
+		try {
+			snapshot = new PropertySnapshot(merge(readPropertiesIfPresent(), arguments));
+		} catch (IOException e) {
+			log.severe("Failed to load application properties");
+			throw new RuntimeException(e.getMessage());
+		}
+		log.info("Initialized ConfigurationStore with {0} runtime argument(s)", arguments.size());
+	}
+
+	public static boolean isInitialized() {
+		return arguments != null;
+	}
+
+	public static String get(Property property) {
+		return snapshot.get(property);
+	}
+
+	public static int getInt(Property property) {
+		return snapshot.getInt(property);
+	}
+
+	public static long getLong(Property property) {
+		return snapshot.getLong(property);
+	}
+
+	public static boolean getBoolean(Property property) {
+		return snapshot.getBoolean(property);
+	}
+
+	public static boolean has(Property property) {
+		return snapshot.has(property);
+	}
+
+	/**
+	 * Registers a listener that is notified after every reload that changed at least one property
+	 */
+	public static void addChangeListener(ChangeListener listener) {
+		LISTENERS.add(listener);
+	}
+
+	public static void removeChangeListener(ChangeListener listener) {
+		LISTENERS.remove(listener);
+	}
+
+	private static Properties readPropertiesIfPresent() throws IOException {
+		if (!Files.exists(Path.of(PROPERTIES_FILE))) {
+			log.warning("{0} not found --> only runtime arguments, environment variables and defaults are used",
+					Path.of(PROPERTIES_FILE).toAbsolutePath().normalize());
+			return new Properties();
+		}
+		return readProperties();
+	}
+
+	private static Properties readProperties() throws IOException {
+		Properties properties = new Properties();
+		try (FileInputStream fis = new FileInputStream(PROPERTIES_FILE)) {
+			properties.load(fis);
+		}
+		return properties;
+	}
+
+	private static Properties merge(Properties fileLayer, Properties argumentLayer) {
+		Properties merged = new Properties();
+		Map<String, String> environment = System.getenv();
+		for (Property property : Property.values()) {
+			String key = property.toString();
+			String value = argumentLayer.getProperty(key, fileLayer.getProperty(key, environment.get(toEnvironmentName(key))));
+			if (value != null) {
+				merged.setProperty(key, value);
+			}
+		}
+		return merged;
+	}
+
+	private static String toEnvironmentName(String key) {
+		return ENVIRONMENT_PREFIX.concat(key.toUpperCase().replace('.', '_').replace('-', '_'));
+	}
+
+	private static Properties parseArguments(String[] args) {
+		Properties parsed = new Properties();
+		for (String arg : args) {
+			String[] keyValue = arg.replaceFirst("^--", "").split("=", 2);
+			Property property = keyValue.length == 2 ? Property.fromKey(keyValue[0].toLowerCase()) : null;
+			if (property != null) {
+				log.fine("Found argument {0}", keyValue[0]);
+				parsed.setProperty(property.toString(), keyValue[1]);
+			} else {
+				log.warning("Unknown argument {0} provided", keyValue[0]);
+			}
+		}
+		return parsed;
+	}
+
+	private static synchronized void reload() {
+		PropertySnapshot current = snapshot;
+		PropertySnapshot reloaded;
+		try {
+			Properties properties = merge(readProperties(), arguments == null ? new Properties() : arguments);
+			reloaded = new PropertySnapshot(properties, current);
+			Set<Property> ignored = new PropertySnapshot(properties).diff(reloaded);
+			if (!ignored.isEmpty()) {
+				log.warning("Changes to {0} only take effect after a restart", ignored);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			log.severe("Failed to reload application properties due to [{0}] --> keeping current values", e.getMessage());
+			return;
+		}
+		Set<Property> changed = reloaded.diff(current);
+		if (changed.isEmpty()) {
+			return;
+		}
+		snapshot = reloaded;
+		log.info("Reloaded application properties --> {0} property(ies) changed: {1}", changed.size(), changed);
+		for (ChangeListener listener : LISTENERS) {
+			try {
+				listener.propertiesChanged(changed);
+			} catch (RuntimeException e) {
+				log.severe("Property change listener failed due to [{0}]", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Notified after application.properties has been reloaded with the set of properties whose values changed
+	 */
+	@FunctionalInterface
+	public static interface ChangeListener {
+		void propertiesChanged(Set<Property> changed);
+	}
+}
@@ -1,7 +1,6 @@
 package com.john.utils.providers;
 
 import java.io.IOException;
-import java.util.logging.Logger;
 
 import org.simplejavamail.api.email.Email;
 import org.simplejavamail.api.email.EmailPopulatingBuilder;
@@ -11,51 +10,84 @@ import org.simplejavamail.email.EmailBuilder;
 import org.simplejavamail.mailer.MailerBuilder;
 
 import com.john.utils.FileReader;
+import com.john.utils.logging.AppLogger;
 import com.john.utils.providers.ApplicationPropertyProvider.Property;
 import com.john.utils.providers.secrets.MissingSecretException;
+import com.john.utils.resilience.Endpoint;
+import com.john.utils.resilience.Resilience;
+import com.john.utils.resilience.ResilienceException;
 import com.saltweaver.salting.api.InvalidSaltingStrategyException;
 
 public class EmailProvider {
-	private static final Logger log = Logger.getLogger(EmailProvider.class.getCanonicalName());
-	private static final String SENDER_NAME;
-	private static final String SENDER_EMAIL;
-	private static final String SMTP_SERVER;
-	private static final int SMTP_PORT;
-	private static final String SENDER_PASSWORD;
+	private static final AppLogger log = AppLogger.getLogger(EmailProvider.class.getCanonicalName());
+	private static final TransportStrategy DEFAULT_TRANSPORT = TransportStrategy.SMTP_TLS;
+	private static final String SENDER_PASSWORD_LOCATION = "./resources/google/gmail_app_pw.txt";
+	private static volatile String senderPassword;
 	
-	static {
-		SENDER_NAME = ApplicationPropertyProvider.getProperty(Property.EMAIL_SENDER_NAME);
-		SENDER_EMAIL = ApplicationPropertyProvider.getProperty(Property.EMAIL_ADDRESS);
-		SMTP_SERVER = ApplicationPropertyProvider.getProperty(Property.EMAIL_SMTP_SERVER);
-		SMTP_PORT = ApplicationPropertyProvider.getIntProperty(Property.EMAIL_SMTP_PORT);
-
-		try {
-			FileReader fr = FileReader.standardDecryptionReader("./resources/google/gmail_app_pw.txt", 50);
-			SENDER_PASSWORD = FileReader.toUTF8String(fr.readFile());
-		} catch (IOException | MissingSecretException | InvalidSaltingStrategyException e) {
-			throw new RuntimeException(e.getMessage());
-		}
+	/**
+	 * Reads the sender password now rather than when the first email is sent. Reading it is retried on every
+	 * send until it succeeds.
+	 */
+	public static void init() {
+		getSenderPassword();
 	}
 	
 	public static EmailPopulatingBuilder baseEmailBuilder() {
-		return EmailBuilder.startingBlank().from(SENDER_NAME, SENDER_EMAIL);
+		return EmailBuilder.startingBlank().from(ApplicationPropertyProvider.getProperty(Property.EMAIL_SENDER_NAME),
+				getDefaultSender());
 	}
 	
+	/**
+	 * Sends the given email through <code>Resilience</code>, so failed sends are retried and sends are rejected
+	 * while the SMTP circuit breaker is open. The mailer is built beforehand, so failing to read the sender password
+	 * is not counted against the SMTP server.
+	 * @throws ResilienceException if the email could not be sent
+	 */
 	public static void sendMail(Email email) {
 		if (ApplicationPropertyProvider.getBooleanProperty(Property.NOTIFICATIONS_ENABLED)) {
-			baseMailer().sendMail(email);
+			Mailer mailer = baseMailer();
+			Resilience.run(Endpoint.SMTP, () -> mailer.sendMail(email));
 		} else {
 			log.warning("Notifications are disabled. No mail will be sent.");
 		}
 	}
 	
 	public static String getDefaultSender() {
-		return SENDER_EMAIL;
+		return ApplicationPropertyProvider.getProperty(Property.EMAIL_ADDRESS);
+	}
+	
+	private static String getSenderPassword() {
+		if (senderPassword == null) {
+			synchronized (EmailProvider.class) {
+				if (senderPassword == null) {
+					try {
+						FileReader fr = FileReader.standardDecryptionReader(SENDER_PASSWORD_LOCATION, 50);
+						senderPassword = FileReader.toUTF8String(fr.readFile());
+					} catch (IOException | MissingSecretException | InvalidSaltingStrategyException e) {
+						throw new RuntimeException(e.getMessage());
+					}
+				}
+			}
+		}
+		return senderPassword;
+	}
+	
+	// STARTTLS unless configured otherwise, e.g. plain SMTP for a local stand-in
+	private static TransportStrategy getTransportStrategy() {
+		String strategy = ApplicationPropertyProvider.getProperty(Property.EMAIL_SMTP_TRANSPORT, DEFAULT_TRANSPORT.name());
+		try {
+			return TransportStrategy.valueOf(strategy.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			log.warning("Unknown SMTP transport {0} --> using {1}", strategy, DEFAULT_TRANSPORT);
+			return DEFAULT_TRANSPORT;
+		}
 	}
 	
 	private static Mailer baseMailer() {
-		return MailerBuilder.withSMTPServer(SMTP_SERVER, SMTP_PORT, SENDER_EMAIL, SENDER_PASSWORD)
-				.withTransportStrategy(TransportStrategy.SMTP_TLS).buildMailer();
+		return MailerBuilder.withSMTPServer(ApplicationPropertyProvider.getProperty(Property.EMAIL_SMTP_SERVER),
+				ApplicationPropertyProvider.getIntProperty(Property.EMAIL_SMTP_PORT), getDefaultSender(), getSenderPassword())
+				.withTransportStrategy(getTransportStrategy())
+				.withSessionTimeout((int) Endpoint.SMTP.getTimeout().toMillis()).buildMailer();
 	}
 
 }
@@ -0,0 +1,94 @@
+package com.john.utils.providers;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+import com.john.notifications.model.PhoneProvider;
+import com.john.notifications.model.Recipient;
+
+/**
+ * A <code>SubscriberSnapshot</code> holding every <code>Recipient</code> on the heap, as loaded from a JSON
+ * subscriber file. The recipients reachable through each notification channel are indexed once when the snapshot
+ * is built.
+ */
+final class InMemorySubscriberSnapshot implements SubscriberSnapshot {
+	private final Recipient[] recipients;
+	private final int[] emailEnabled;
+	private final int[] smsEnabled;
+	private final Map<PhoneProvider, int[]> smsEnabledByProvider;
+
+	InMemorySubscriberSnapshot(Recipient[] recipients) {
+		this.recipients = recipients;
+		this.emailEnabled = indexWhere(recipients, Recipient::getEmailEnabled);
+		this.smsEnabled = indexWhere(recipients, InMemorySubscriberSnapshot::canReceiveSms);
+		this.smsEnabledByProvider = new EnumMap<>(PhoneProvider.class);
+		for (PhoneProvider provider : PhoneProvider.values()) {
+			smsEnabledByProvider.put(provider,
+					indexWhere(recipients, r -> canReceiveSms(r) && r.getPhoneProvider() == provider));
+		}
+	}
+
+	@Override
+	public List<Recipient> getRecipients() {
+		return new IndexedView(null);
+	}
+
+	@Override
+	public List<Recipient> getEmailRecipients() {
+		return new IndexedView(emailEnabled);
+	}
+
+	@Override
+	public List<Recipient> getSmsRecipients() {
+		return new IndexedView(smsEnabled);
+	}
+
+	@Override
+	public List<Recipient> getSmsRecipients(PhoneProvider provider) {
+		return new IndexedView(smsEnabledByProvider.get(provider));
+	}
+
+	@Override
+	public int size() {
+		return recipients.length;
+	}
+
+	static boolean canReceiveSms(Recipient recipient) {
+		return recipient.getSmsEnabled() && recipient.getPhoneProvider() != null;
+	}
+
+	private static int[] indexWhere(Recipient[] recipients, Predicate<Recipient> condition) {
+		int[] indexes = new int[recipients.length];
+		int count = 0;
+		for (int i = 0; i < recipients.length; i++) {
+			if (condition.test(recipients[i])) {
+				indexes[count++] = i;
+			}
+		}
+		return Arrays.copyOf(indexes, count);
+	}
+
+	// a read-only list over the shared recipients array, either in full or through an index
+	private final class IndexedView extends AbstractList<Recipient> implements RandomAccess {
+		private final int[] indexes;
+
+		private IndexedView(int[] indexes) {
+			this.indexes = indexes;
+		}
+
+		@Override
+		public Recipient get(int i) {
+			return indexes == null ? recipients[i] : recipients[indexes[i]];
+		}
+
+		@Override
+		public int size() {
+			return indexes == null ? recipients.length : indexes.length;
+		}
+	}
+}
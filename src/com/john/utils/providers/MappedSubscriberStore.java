@@ -0,0 +1,163 @@
+package com.john.utils.providers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.john.notifications.model.PhoneProvider;
+import com.john.notifications.model.Recipient;
+
+/**
+ * A <code>SubscriberSnapshot</code> backed by a memory-mapped subscriber file, as produced by the
+ * <code>SubscriberStoreCompiler</code>. Recipients are decoded from the mapping only when a list element is
+ * accessed, so heap use does not grow with the number of subscribers and opening the store costs only a few reads.
+ * <pre>
+ * header (32 bytes)  magic "SSUB", version, record count, email index count, SMS index count,
+ *                    provider section count, string pool offset, reserved
+ * records            fixed-width, RECORD_SIZE bytes each: string pool offsets of first name, last name, email,
+ *                    phone number and provider name (-1 when absent), followed by a flags byte and padding
+ * email index        record numbers of every recipient with email notifications enabled
+ * SMS index          record numbers of every recipient with SMS notifications enabled and a phone provider
+ * provider sections  per provider: string pool offset of its name, count, then that many record numbers
+ * string pool        deduplicated strings, each stored as a length followed by UTF-8 bytes
+ * </pre>
+ * All numbers are big-endian ints.
+ */
+public final class MappedSubscriberStore implements SubscriberSnapshot {
+	static final int MAGIC = 0x53535542; // "SSUB"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 24;
+	static final int NO_STRING = -1;
+	static final byte EMAIL_FLAG = 1;
+	static final byte SMS_FLAG = 2;
+
+	private final MappedByteBuffer buffer;
+	private final int recordCount;
+	private final int emailIndexOffset;
+	private final int emailCount;
+	private final int smsIndexOffset;
+	private final int smsCount;
+	private final int stringPoolOffset;
+	private final Map<PhoneProvider, int[]> providerSections;
+
+	private MappedSubscriberStore(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a compiled subscriber file");
+		}
+		recordCount = buffer.getInt(8);
+		emailCount = buffer.getInt(12);
+		smsCount = buffer.getInt(16);
+		int providerCount = buffer.getInt(20);
+		stringPoolOffset = buffer.getInt(24);
+		emailIndexOffset = HEADER_SIZE + recordCount * RECORD_SIZE;
+		smsIndexOffset = emailIndexOffset + emailCount * Integer.BYTES;
+
+		// provider sections are few and variable in length, so locate them once
+		providerSections = new EnumMap<>(PhoneProvider.class);
+		int position = smsIndexOffset + smsCount * Integer.BYTES;
+		for (int i = 0; i < providerCount; i++) {
+			String name = readString(buffer.getInt(position));
+			int count = buffer.getInt(position + Integer.BYTES);
+			providerSections.put(PhoneProvider.valueOf(name), new int[] { position + 2 * Integer.BYTES, count });
+			position += (2 + count) * Integer.BYTES;
+		}
+		if (position > stringPoolOffset || stringPoolOffset > buffer.capacity()) {
+			throw new IOException("Compiled subscriber file is corrupt");
+		}
+	}
+
+	/** Maps the given compiled subscriber file. The mapping stays valid even if the file is replaced afterwards. */
+	public static MappedSubscriberStore open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedSubscriberStore(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public List<Recipient> getRecipients() {
+		return new MappedView(-1, recordCount);
+	}
+
+	@Override
+	public List<Recipient> getEmailRecipients() {
+		return new MappedView(emailIndexOffset, emailCount);
+	}
+
+	@Override
+	public List<Recipient> getSmsRecipients() {
+		return new MappedView(smsIndexOffset, smsCount);
+	}
+
+	@Override
+	public List<Recipient> getSmsRecipients(PhoneProvider provider) {
+		int[] section = providerSections.get(provider);
+		return section == null ? List.of() : new MappedView(section[0], section[1]);
+	}
+
+	@Override
+	public int size() {
+		return recordCount;
+	}
+
+	private Recipient readRecipient(int record) {
+		int position = HEADER_SIZE + record * RECORD_SIZE;
+		String provider = readString(buffer.getInt(position + 16));
+		byte flags = buffer.get(position + 20);
+		return new Recipient(readString(buffer.getInt(position)), readString(buffer.getInt(position + 4)),
+				readString(buffer.getInt(position + 8)), readString(buffer.getInt(position + 12)),
+				provider == null ? null : PhoneProvider.valueOf(provider), (flags & EMAIL_FLAG) != 0,
+				(flags & SMS_FLAG) != 0);
+	}
+
+	private String readString(int offset) {
+		if (offset == NO_STRING) {
+			return null;
+		}
+		int position = stringPoolOffset + offset;
+		byte[] bytes = new byte[buffer.getInt(position)];
+		// absolute reads through a duplicate keep concurrent readers from sharing a position
+		ByteBuffer view = buffer.duplicate();
+		view.position(position + Integer.BYTES);
+		view.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	// a read-only list of recipients, either all records or those listed in an index section of the file
+	private final class MappedView extends AbstractList<Recipient> implements RandomAccess {
+		private final int indexOffset;
+		private final int size;
+
+		private MappedView(int indexOffset, int size) {
+			this.indexOffset = indexOffset;
+			this.size = size;
+		}
+
+		@Override
+		public Recipient get(int i) {
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException(i);
+			}
+			return readRecipient(indexOffset < 0 ? i : buffer.getInt(indexOffset + i * Integer.BYTES));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -1,20 +1,34 @@
 package com.john.utils.providers;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Logger;
 
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import com.john.utils.FileReader;
 import com.john.utils.SimpleFileReader;
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 /**
- * Should be used to load mock data from JSON files
+ * Should be used to load mock data from JSON files. Mock data bypasses the HTTP layer entirely; to exercise it with
+ * realistic payloads and timings instead, replay recorded exchanges (see <code>HttpTransportProvider</code>).
+ * <p>
+ * Events can also come from a synthetic calendar of any size (see <code>SyntheticCalendarGenerator</code>), which
+ * then replaces the event fixtures. <code>mockdata.synthetic.file</code> names a generated file to use, and
+ * <code>mockdata.synthetic.events</code> generates one with that many events (and <code>mockdata.synthetic.seed</code>)
+ * if the file does not exist yet, or in a temporary file if no file is named.
  */
 public final class MockDataProvider {
-	private final static Logger log = Logger.getLogger(MockDataProvider.class.getCanonicalName());
+	private final static AppLogger log = AppLogger.getLogger(MockDataProvider.class.getCanonicalName());
+	private final static String SYNTHETIC_EVENTS_KEY = "SyntheticEvents";
 	private final static Map<String, JSONObject> cachedMocks;
 	private final static boolean shouldUseMocks;
 	
@@ -25,7 +39,7 @@ public final class MockDataProvider {
 			try {
 				loadMockData();
 			} catch (RuntimeException | IOException e) {
-				log.severe(String.format("Failed to load all mock data due to %s", e.getMessage()));
+				log.severe("Failed to load all mock data due to {0}", e.getMessage());
 				throw new RuntimeException(e.getMessage());
 			}
 		} else {
@@ -34,6 +48,11 @@ public final class MockDataProvider {
 		}
 	}
 	
+	/** Loads the mock data now rather than when it is first used. Loading it happens only once. */
+	public static void init() {
+		log.fine("MockDataProvider initialized");
+	}
+	
 	public static JSONObject getMockCalendarListData() {
 		assertMocksActive();
 		return cachedMocks.get(MOCK_DATA.CALENDAR_LIST_RESPONSE.getKey());
@@ -41,12 +60,12 @@ public final class MockDataProvider {
 	
 	public static JSONObject getMockEventsNextNDays() {
 		assertMocksActive();
-		return cachedMocks.get(MOCK_DATA.EVENT_LIST_N_DAYS.getKey());
+		return cachedMocks.getOrDefault(SYNTHETIC_EVENTS_KEY, cachedMocks.get(MOCK_DATA.EVENT_LIST_N_DAYS.getKey()));
 	}
 	
 	public static JSONObject getSearchedEventsNextNDays() {
 		assertMocksActive();
-		return cachedMocks.get(MOCK_DATA.SEARCH_EVENTS_N_DAYS.getKey());
+		return cachedMocks.getOrDefault(SYNTHETIC_EVENTS_KEY, cachedMocks.get(MOCK_DATA.SEARCH_EVENTS_N_DAYS.getKey()));
 	}
 	
 	public static JSONObject getGoogleAccessKey() {
@@ -57,7 +76,35 @@ public final class MockDataProvider {
 	private static void loadMockData() throws IOException {
 		for (MOCK_DATA mock : MOCK_DATA.values()) {
 			cachedMocks.put(mock.getKey(), new JSONObject(FileReader.toUTF8String(new SimpleFileReader(mock.getFileLocation(), 1000).readFile())));
-			log.fine(String.format("Loaded mock data with key=%s", mock.getKey()));
+			log.fine("Loaded mock data with key={0}", mock.getKey());
+		}
+		if (ApplicationPropertyProvider.hasProperty(Property.MOCK_SYNTHETIC_FILE)
+				|| ApplicationPropertyProvider.hasProperty(Property.MOCK_SYNTHETIC_EVENTS)) {
+			cachedMocks.put(SYNTHETIC_EVENTS_KEY, loadSyntheticEvents());
+		}
+	}
+	
+	private static JSONObject loadSyntheticEvents() throws IOException {
+		Path file;
+		if (ApplicationPropertyProvider.hasProperty(Property.MOCK_SYNTHETIC_FILE)) {
+			file = Path.of(ApplicationPropertyProvider.getProperty(Property.MOCK_SYNTHETIC_FILE));
+		} else {
+			file = Files.createTempFile("synthetic-events", ".json");
+			file.toFile().deleteOnExit();
+		}
+		if (ApplicationPropertyProvider.hasProperty(Property.MOCK_SYNTHETIC_EVENTS) && (!Files.exists(file) || Files.size(file) == 0)) {
+			SyntheticCalendarGenerator.newBuilder()
+					.events(ApplicationPropertyProvider.getIntProperty(Property.MOCK_SYNTHETIC_EVENTS))
+					.seed(ApplicationPropertyProvider.getLongProperty(Property.MOCK_SYNTHETIC_SEED, 1))
+					.days(Math.max(1, ApplicationPropertyProvider.getIntProperty(Property.QUERY_MAX_DAYS, 14)))
+					.build().writeTo(file);
+		}
+		final long start = System.nanoTime();
+		// parsed as it is read, as the file may be far too large to hold as a string as well
+		try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+			JSONObject events = new JSONObject(new JSONTokener(reader));
+			log.info("Loaded synthetic events from {0} in {1}ms", file, (System.nanoTime() - start) / 1_000_000);
+			return events;
 		}
 	}
 	
@@ -0,0 +1,102 @@
+package com.john.utils.providers;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * An immutable view of every known <code>Property</code> at a point in time. All values are parsed once
+ * when the snapshot is built and stored in arrays indexed by the property's ordinal, so typed lookups never
+ * re-parse strings. Values that cannot be parsed as a number still fail on access with a
+ * <code>NumberFormatException</code>, just like parsing them on demand would.
+ */
+final class PropertySnapshot {
+	private static final int SIZE = Property.values().length;
+
+	private final String[] values = new String[SIZE];
+	private final int[] ints = new int[SIZE];
+	private final long[] longs = new long[SIZE];
+	private final boolean[] booleans = new boolean[SIZE];
+	private final boolean[] isInt = new boolean[SIZE];
+	private final boolean[] isLong = new boolean[SIZE];
+
+	PropertySnapshot(Properties properties) {
+		for (Property property : Property.values()) {
+			set(property, properties.getProperty(property.toString()));
+		}
+	}
+
+	/**
+	 * Builds a snapshot from the given properties, keeping the values of the current snapshot for every
+	 * property that cannot change without a restart.
+	 */
+	PropertySnapshot(Properties properties, PropertySnapshot current) {
+		this(properties);
+		for (Property property : Property.values()) {
+			if (!property.isReloadable()) {
+				set(property, current.values[property.ordinal()]);
+			}
+		}
+	}
+
+	String get(Property property) {
+		return values[property.ordinal()];
+	}
+
+	boolean has(Property property) {
+		return values[property.ordinal()] != null;
+	}
+
+	int getInt(Property property) {
+		int i = property.ordinal();
+		if (!isInt[i]) {
+			throw notANumber(property);
+		}
+		return ints[i];
+	}
+
+	long getLong(Property property) {
+		int i = property.ordinal();
+		if (!isLong[i]) {
+			throw notANumber(property);
+		}
+		return longs[i];
+	}
+
+	boolean getBoolean(Property property) {
+		return booleans[property.ordinal()];
+	}
+
+	/** Returns every property whose value differs between this snapshot and the other */
+	Set<Property> diff(PropertySnapshot other) {
+		Set<Property> changed = EnumSet.noneOf(Property.class);
+		for (Property property : Property.values()) {
+			if (!Objects.equals(get(property), other.get(property))) {
+				changed.add(property);
+			}
+		}
+		return changed;
+	}
+
+	private void set(Property property, String value) {
+		int i = property.ordinal();
+		values[i] = value;
+		booleans[i] = Boolean.parseBoolean(value);
+		isInt[i] = isLong[i] = false;
+		try {
+			longs[i] = Long.parseLong(value);
+			isLong[i] = true;
+			ints[i] = Integer.parseInt(value);
+			isInt[i] = true;
+		} catch (NumberFormatException e) {
+			// not every property is numeric, only typed access to it will fail
+		}
+	}
+
+	private NumberFormatException notANumber(Property property) {
+		return new NumberFormatException(String.format("For %s: \"%s\"", property, get(property)));
+	}
+}
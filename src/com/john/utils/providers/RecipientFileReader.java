@@ -0,0 +1,30 @@
+package com.john.utils.providers;
+
+import java.io.IOException;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.john.notifications.model.Recipient;
+import com.john.utils.FileReader;
+import com.john.utils.SimpleFileReader;
+
+/**
+ * Reads the recipients in a JSON subscriber or admin file. Unlike <code>SubscriberProvider</code> it loads nothing
+ * and watches nothing on its own, so offline tools such as <code>SubscriberStoreCompiler</code> can use it from any
+ * directory.
+ */
+final class RecipientFileReader {
+
+	private RecipientFileReader() {}
+
+	static Recipient[] read(String path) throws IOException {
+		FileReader fr = new SimpleFileReader(path, 250);
+		JSONArray subs = new JSONObject(FileReader.toUTF8String(fr.readFile())).getJSONArray("subscribers");
+		Recipient[] result = new Recipient[subs.length()];
+		for (int i = 0; i < subs.length(); i++) {
+			result[i] = new Recipient(subs.getJSONObject(i));
+		}
+		return result;
+	}
+}
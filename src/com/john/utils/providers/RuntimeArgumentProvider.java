@@ -1,92 +1,56 @@
 package com.john.utils.providers;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
 
 /** 
  * Responsible for managing key-value pair arguments passed to the application at runtime, generally when starting via the command line. 
  * Currently, this only supports key-value pair arguments of the format <code>"--argument=value"</code> or <code>"argument=value"</code>.
+ * Arguments are stored in the <code>ConfigurationStore</code>, so every runtime argument can also be provided through
+ * application.properties or an environment variable, and any application property can be overridden by an argument.
  */
 public final class RuntimeArgumentProvider {
-	private static final Logger log = Logger.getLogger(RuntimeArgumentProvider.class.getCanonicalName());
-	private static final Set<String> SUPPORTED_ARGS;
-	
-	private static Map<String, String> arguments;
-	
-	static {
-		SUPPORTED_ARGS = Stream.of(RuntimeArgument.values()).map(arg -> arg.getValue()).collect(Collectors.toSet());
-	}
 	
 	/** Initialize the RuntimeArgumentProvider with the given arguments. This can only be invoked once! */
 	public static void init(String[] args) {
-		if (arguments != null) {
+		if (ConfigurationStore.isInitialized()) {
 			throw new IllegalStateException("RuntimeArgumentProvider cannot be initialized more than once!");
 		}
-		log.info("Initializing RuntimeArgumentProvider");
-		if (args.length == 0) {
-			arguments = Map.of();
-			log.info("No arguments found for RuntimeArgumentProvider");
-		} else {
-			arguments = parseArguments(args);
-			log.info(String.format("Successfully initialized RuntimeArgumentProvider with %d argument(s)", arguments.size()));
-		}
+		ConfigurationStore.init(args);
 	}
 	
 	/** Returns the value associated with the given <code>RuntimeArgument</code> as a String */
 	public static String getArgumentValue(RuntimeArgument argument) {
-		assertInitialized();
-		return arguments.get(argument.getValue());
+		return ConfigurationStore.get(argument.getProperty());
 	}
 	
 	/** Returns the value associated with the given <code>RuntimeArgument</code> as a boolean */
 	public static boolean getBooleanArgumentValue(RuntimeArgument argument) {
-		assertInitialized();
-		return Boolean.parseBoolean(arguments.get(argument.getValue()));
+		return ConfigurationStore.getBoolean(argument.getProperty());
 	}
 	
 	/** Returns <code>true</code> if the argument is available, <code>false</code> otherwise*/
 	public static boolean hasArgumentValue(RuntimeArgument argument) {
-		assertInitialized();
-		return arguments.containsKey(argument.getValue());
-	}
-	
-	private static void assertInitialized() {
-		if (arguments == null) {
-			throw new IllegalStateException("RuntimeArgumentProvider not yet initialized!");
-		}
-	}
-	
-	private static Map<String, String> parseArguments(String[] args) {
-		Map<String, String> parsed = new HashMap<>();
-		for (String arg : args) {
-			String[] keyValue = arg.replace("--", "").split("=");
-			if (SUPPORTED_ARGS.contains(keyValue[0].toLowerCase())) {
-				log.fine(String.format("Found argument %s", arg));
-				parsed.put(keyValue[0], keyValue[1]);
-			} else {
-				log.warning(String.format("Unknown argument %s provided", arg));
-			}
-		}
-		return parsed;
+		return ConfigurationStore.has(argument.getProperty());
 	}
 	
 	public static enum RuntimeArgument {
-		SECRETS_LOCATION("secrets-location"),
-		CACHE_SECRETS("cache-secrets"),
-		EAGER_LOAD_SECRETS("eager-load-secrets"),
-		DELETE_SECRETS_ON_LOAD("delete-secrets-on-load");
+		SECRETS_LOCATION(Property.SECRETS_LOCATION),
+		CACHE_SECRETS(Property.CACHE_SECRETS),
+		SECRETS_LEASE_SECONDS(Property.SECRETS_LEASE_SECONDS),
+		EAGER_LOAD_SECRETS(Property.EAGER_LOAD_SECRETS),
+		DELETE_SECRETS_ON_LOAD(Property.DELETE_SECRETS_ON_LOAD);
 		
-		private final String value;
-		private RuntimeArgument(String value) {
-			this.value = value;
+		private final Property property;
+		private RuntimeArgument(Property property) {
+			this.property = property;
 		}
 		
 		public String getValue() {
-			return value;
+			return property.toString();
+		}
+		
+		Property getProperty() {
+			return property;
 		}
 	}
 }
@@ -1,73 +1,88 @@
 package com.john.utils.providers;
 
 import java.io.IOException;
-import java.util.logging.Logger;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import com.john.notifications.model.Recipient;
-import com.john.utils.FileReader;
-import com.john.utils.SimpleFileReader;
+import com.john.utils.FileChangeWatcher;
+import com.john.utils.logging.AppLogger;
 
 /**
- * Keeps a record of all interested parties who wish to receive notifications
+ * Keeps a record of all interested parties who wish to receive notifications. Subscribers and admins are published
+ * as immutable <code>SubscriberSnapshot</code>s, and both files are watched so changes are picked up without a restart.
+ * If a changed file cannot be loaded, the previous snapshot is kept. When a compiled subscriber file (see
+ * <code>SubscriberStoreCompiler</code>) is at least as recent as the JSON file, subscribers are served from a
+ * <code>MappedSubscriberStore</code> instead of being loaded onto the heap.
  */
 public class SubscriberProvider {
 	private static final String SUBSCRIBER_FILE = "./resources/active_subscribers.json";
 	private static final String ADMIN_FILE = "./resources/admins.json";
-	private static final Logger log = Logger.getLogger(SubscriberProvider.class.getCanonicalName());
-	private static final Recipient[] SUBSCRIBERS;
-	private static final Recipient[] ADMINS;
+	private static final AppLogger log = AppLogger.getLogger(SubscriberProvider.class.getCanonicalName());
+	private static volatile SubscriberSnapshot subscribers;
+	private static volatile SubscriberSnapshot admins;
 	
 	static {
-		SUBSCRIBERS = loadSubscribers();
-		ADMINS = loadAdmins();
+		subscribers = loadSubscribers();
+		admins = loadAdmins();
+		FileChangeWatcher.watch(Path.of(SUBSCRIBER_FILE), () -> reload("subscriber", () -> subscribers = loadSubscribers()));
+		FileChangeWatcher.watch(SubscriberStoreCompiler.compiledPathFor(Path.of(SUBSCRIBER_FILE)),
+				() -> reload("subscriber", () -> subscribers = loadSubscribers()));
+		FileChangeWatcher.watch(Path.of(ADMIN_FILE), () -> reload("administrator", () -> admins = loadAdmins()));
 	}
 	
 	/**
-	 * Returns a deep copy of all active subscribers
+	 * Returns the current snapshot of all active subscribers
 	 */
-	public static Recipient[] getSubscribers() {
-		return deepCloneRecipients(SUBSCRIBERS);
+	public static SubscriberSnapshot getSubscribers() {
+		return subscribers;
 	}
 	
 	/**
-	 * Returns a deep copy of all admins
+	 * Returns the current snapshot of all admins
 	 */
-	public static Recipient[] getAdmins() {
-		return deepCloneRecipients(ADMINS);
+	public static SubscriberSnapshot getAdmins() {
+		return admins;
 	}
 	
-	private static Recipient[] loadSubscribers() {
+	private static SubscriberSnapshot loadSubscribers() {
+		Path json = Path.of(SUBSCRIBER_FILE);
+		Path compiled = SubscriberStoreCompiler.compiledPathFor(json);
+		if (Files.exists(compiled)) {
+			try {
+				if (!Files.exists(json) || !Files.getLastModifiedTime(compiled).toInstant()
+						.isBefore(Files.getLastModifiedTime(json).toInstant())) {
+					log.info("Loading compiled subscriber data");
+					return MappedSubscriberStore.open(compiled);
+				}
+				log.warning("{0} is older than {1} --> ignoring the compiled subscriber data", compiled, json);
+			} catch (IOException e) {
+				log.warning("Failed to open compiled subscriber data due to [{0}] --> falling back to {1}",
+						e.getMessage(), json);
+			}
+		}
 		log.info("Loading subscriber data");
-		return loadRecipientsFromFile(SUBSCRIBER_FILE);
+		return new InMemorySubscriberSnapshot(loadRecipientsFromFile(SUBSCRIBER_FILE));
 	}
 	
-	private static Recipient[] loadAdmins() {
+	private static SubscriberSnapshot loadAdmins() {
 		log.info("Loading administrator data");
-		return loadRecipientsFromFile(ADMIN_FILE);
+		return new InMemorySubscriberSnapshot(loadRecipientsFromFile(ADMIN_FILE));
 	}
 	
-	private static Recipient[] deepCloneRecipients(Recipient[] original) {
-		Recipient[] recipients = new Recipient[original.length];
-		for (int i = 0; i < recipients.length; i++) {
-			recipients[i] = new Recipient(original[i]);
+	private static void reload(String kind, Runnable loader) {
+		try {
+			loader.run();
+		} catch (RuntimeException e) {
+			log.severe("Failed to reload {0} data due to [{1}] --> keeping current recipients", kind, e.getMessage());
 		}
-		return recipients;
 	}
 	
 	private static Recipient[] loadRecipientsFromFile(String path) {
-		FileReader fr = new SimpleFileReader(path, 250);
 		try {
-			JSONArray subs = new JSONObject(FileReader.toUTF8String(fr.readFile())).getJSONArray("subscribers");
-			Recipient[] result = new Recipient[subs.length()];
-			for (int i = 0; i < subs.length(); i++) {
-				result[i] = new Recipient(subs.getJSONObject(i));
-			}
-			return result;
+			return RecipientFileReader.read(path);
 		} catch (IOException e) {
-			log.severe(String.format("Failed to load subscriber data due to [%s]", e.getMessage()));
+			log.severe("Failed to load subscriber data due to [{0}]", e.getMessage());
 			throw new RuntimeException(e);
 		}
 	}
@@ -0,0 +1,27 @@
+package com.john.utils.providers;
+
+import java.util.List;
+
+import com.john.notifications.model.PhoneProvider;
+import com.john.notifications.model.Recipient;
+
+/**
+ * An immutable set of <code>Recipient</code>s as loaded from a subscriber file. Snapshots are shared without
+ * copying, and the recipients reachable through each notification channel are indexed ahead of time, so sending
+ * notifications never has to filter recipients. All returned lists are unmodifiable views.
+ */
+public interface SubscriberSnapshot {
+	/** Returns every recipient, regardless of their notification preferences */
+	List<Recipient> getRecipients();
+
+	/** Returns every recipient that has email notifications enabled */
+	List<Recipient> getEmailRecipients();
+
+	/** Returns every recipient that has SMS notifications enabled */
+	List<Recipient> getSmsRecipients();
+
+	/** Returns every recipient that has SMS notifications enabled on the given provider's network */
+	List<Recipient> getSmsRecipients(PhoneProvider provider);
+
+	int size();
+}
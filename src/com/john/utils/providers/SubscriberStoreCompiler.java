@@ -0,0 +1,144 @@
+package com.john.utils.providers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.john.notifications.model.PhoneProvider;
+import com.john.notifications.model.Recipient;
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Command line tool that compiles a JSON subscriber file into the binary format read by
+ * <code>MappedSubscriberStore</code>. The output is written next to the input with a <code>.bin</code> extension
+ * unless a second path is given, and it replaces any previous output atomically. Usage:
+ * <pre>
+ * java com.john.utils.providers.SubscriberStoreCompiler ./resources/active_subscribers.json [output]
+ * </pre>
+ */
+public final class SubscriberStoreCompiler {
+	private static final AppLogger log = AppLogger.getLogger(SubscriberStoreCompiler.class.getCanonicalName());
+
+	private SubscriberStoreCompiler() {}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: SubscriberStoreCompiler <subscribers.json> [<output>]");
+			System.exit(1);
+		}
+		Path output = args.length > 1 ? Path.of(args[1]) : compiledPathFor(Path.of(args[0]));
+		compile(RecipientFileReader.read(args[0]), output);
+	}
+
+	/** Returns the default location of the compiled form of the given JSON subscriber file */
+	public static Path compiledPathFor(Path jsonFile) {
+		String name = jsonFile.getFileName().toString();
+		int extension = name.lastIndexOf('.');
+		return jsonFile.resolveSibling((extension < 0 ? name : name.substring(0, extension)).concat(".bin"));
+	}
+
+	public static void compile(Recipient[] recipients, Path output) throws IOException {
+		StringPool pool = new StringPool();
+		List<Integer> email = new ArrayList<>();
+		List<Integer> sms = new ArrayList<>();
+		Map<PhoneProvider, List<Integer>> smsByProvider = new EnumMap<>(PhoneProvider.class);
+		ByteArrayOutputStream records = new ByteArrayOutputStream(recipients.length * MappedSubscriberStore.RECORD_SIZE);
+		DataOutputStream recordOut = new DataOutputStream(records);
+
+		for (int i = 0; i < recipients.length; i++) {
+			Recipient recipient = recipients[i];
+			PhoneProvider provider = recipient.getPhoneProvider();
+			recordOut.writeInt(pool.add(recipient.getFirstName()));
+			recordOut.writeInt(pool.add(recipient.getLastName()));
+			recordOut.writeInt(pool.add(recipient.getEmail()));
+			recordOut.writeInt(pool.add(recipient.getPhoneNumber()));
+			recordOut.writeInt(pool.add(provider == null ? null : provider.name()));
+			byte flags = 0;
+			if (recipient.getEmailEnabled()) {
+				flags |= MappedSubscriberStore.EMAIL_FLAG;
+				email.add(i);
+			}
+			if (recipient.getSmsEnabled()) {
+				flags |= MappedSubscriberStore.SMS_FLAG;
+			}
+			if (InMemorySubscriberSnapshot.canReceiveSms(recipient)) {
+				sms.add(i);
+				smsByProvider.computeIfAbsent(provider, p -> new ArrayList<>()).add(i);
+			}
+			recordOut.writeByte(flags);
+			recordOut.write(new byte[3]);
+		}
+
+		ByteArrayOutputStream sections = new ByteArrayOutputStream();
+		DataOutputStream sectionOut = new DataOutputStream(sections);
+		writeInts(sectionOut, email);
+		writeInts(sectionOut, sms);
+		for (Map.Entry<PhoneProvider, List<Integer>> section : smsByProvider.entrySet()) {
+			sectionOut.writeInt(pool.add(section.getKey().name()));
+			sectionOut.writeInt(section.getValue().size());
+			writeInts(sectionOut, section.getValue());
+		}
+
+		Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MappedSubscriberStore.MAGIC);
+			out.writeInt(MappedSubscriberStore.VERSION);
+			out.writeInt(recipients.length);
+			out.writeInt(email.size());
+			out.writeInt(sms.size());
+			out.writeInt(smsByProvider.size());
+			out.writeInt(MappedSubscriberStore.HEADER_SIZE + records.size() + sections.size());
+			out.writeInt(0);
+			records.writeTo(out);
+			sections.writeTo(out);
+			pool.writeTo(out);
+		}
+		Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Compiled {0} recipient(s) into {1} ({2} bytes)", recipients.length, output, Files.size(output));
+	}
+
+	private static void writeInts(DataOutputStream out, List<Integer> values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	// deduplicates strings, as names and providers repeat a lot in large lists
+	private static final class StringPool {
+		private final Map<String, Integer> offsets = new HashMap<>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+
+		int add(String value) throws IOException {
+			if (value == null) {
+				return MappedSubscriberStore.NO_STRING;
+			}
+			Integer existing = offsets.get(value);
+			if (existing != null) {
+				return existing;
+			}
+			int offset = bytes.size();
+			byte[] encoded = value.getBytes(UTF_8);
+			out.writeInt(encoded.length);
+			out.write(encoded);
+			offsets.put(value, offset);
+			return offset;
+		}
+
+		void writeTo(OutputStream target) throws IOException {
+			bytes.writeTo(target);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.john.utils.providers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+
+import org.json.JSONObject;
+
+import com.john.utils.logging.AppLogger;
+
+/**
+ * Generates Google Calendar events list responses of any size, for testing how the application copes with large
+ * calendars. The output is a function of the seed, the start and the number of days only, so a failing run can be
+ * reproduced exactly. Unless a start is given, it is derived from the seed as well. Events are spread over the days
+ * after the start and include what small fixtures lack:
+ * <ul>
+ * <li>weekly recurring series, expanded into instances with <code>recurringEventId</code> and
+ * <code>originalStartTime</code>, some of them moved from their original time</li>
+ * <li>cancelled events and cancelled instances of series</li>
+ * <li>start and end times in a mix of time zones</li>
+ * <li>long locations, as when directions are pasted into the location</li>
+ * </ul>
+ * Events are written one at a time, in the order they were generated rather than by start time, so memory use does
+ * not depend on the number of events. Generate a file from the command line with
+ * <code>SyntheticCalendarGenerator &lt;output&gt; &lt;events&gt; [&lt;seed&gt;] [&lt;days&gt;]</code>.
+ */
+public final class SyntheticCalendarGenerator {
+	private static final AppLogger log = AppLogger.getLogger(SyntheticCalendarGenerator.class.getCanonicalName());
+	private static final DateTimeFormatter INSTANCE_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+	private static final List<ZoneId> TIME_ZONES = List.of(ZoneId.of("America/New_York"), ZoneId.of("America/Chicago"),
+			ZoneId.of("America/Denver"), ZoneId.of("America/Phoenix"), ZoneId.of("America/Los_Angeles"), ZoneId.of("UTC"),
+			ZoneId.of("Europe/London"));
+	private static final List<String> VENUES = List.of("Tapped Brewing Co.", "Riverside Farmers Market", "Oak Hill Winery",
+			"Lakeview Community Park", "Main Street Taproom", "Heritage Distillery", "Maple Grove Elementary School",
+			"Harbor Point Marina");
+	private static final List<String> STREETS = List.of("Main St", "Market St", "Oak Ave", "River Rd", "Harbor Blvd",
+			"Church St", "Mill Rd", "Park Ln");
+	private static final String DIRECTIONS = " Park in the gravel lot behind the building, the truck is set up next to the "
+			+ "loading dock. If the lot is full, use the overflow parking across the street and walk over the footbridge.";
+	private static final double SERIES_CHANCE = 0.3;
+	private static final int MAX_SERIES_LENGTH = 12;
+	private static final double CANCELLED_CHANCE = 0.04;
+	private static final double MOVED_INSTANCE_CHANCE = 0.05;
+	private static final double LONG_LOCATION_CHANCE = 0.05;
+	private static final int MAX_DIRECTION_REPEATS = 10;
+	private static final ZonedDateTime FIRST_DEFAULT_START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("America/New_York"));
+	private static final int DEFAULT_START_DAYS = 365;
+
+	private final int events;
+	private final long seed;
+	private final ZonedDateTime start;
+	private final int days;
+
+	private SyntheticCalendarGenerator(Builder builder) {
+		this.events = builder.events;
+		this.seed = builder.seed;
+		this.start = builder.start == null ? defaultStart(builder.seed) : builder.start;
+		this.days = builder.days;
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: SyntheticCalendarGenerator <output> <events> [<seed>] [<days>]");
+			System.exit(1);
+		}
+		Builder builder = newBuilder().events(Integer.parseInt(args[1]));
+		if (args.length > 2) {
+			builder.seed(Long.parseLong(args[2]));
+		}
+		if (args.length > 3) {
+			builder.days(Integer.parseInt(args[3]));
+		}
+		builder.build().writeTo(Path.of(args[0]));
+	}
+
+	/** Writes the events to the given file, which only appears once it is complete */
+	public void writeTo(Path output) throws IOException {
+		long startNanos = System.nanoTime();
+		Path absolute = output.toAbsolutePath();
+		Files.createDirectories(absolute.getParent());
+		Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, UTF_8)) {
+			writeTo(writer);
+		}
+		Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Generated {0} synthetic event(s) with seed {1} in {2} ({3} bytes) in {4}ms", events, seed, absolute,
+				Files.size(absolute), (System.nanoTime() - startNanos) / 1_000_000);
+	}
+
+	public void writeTo(Writer writer) throws IOException {
+		Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+		Random random = new Random(seed);
+		out.write("{\"kind\":\"calendar#events\",\"summary\":\"Stavi's Schedule (synthetic)\",\"timeZone\":\"America/New_York\",\"items\":[");
+		int written = 0;
+		for (int series = 0; written < events; series++) {
+			boolean recurring = random.nextDouble() < SERIES_CHANCE;
+			int length = recurring ? Math.min(2 + random.nextInt(MAX_SERIES_LENGTH - 1), events - written) : 1;
+			ZoneId zone = TIME_ZONES.get(random.nextInt(TIME_ZONES.size()));
+			// series start within their first week, so that most of their instances fall within the period
+			int firstDay = random.nextInt(recurring ? Math.max(1, Math.min(7, days)) : days);
+			ZonedDateTime first = start.withZoneSameInstant(zone).truncatedTo(ChronoUnit.DAYS).plusDays(firstDay)
+					.plusMinutes(15L * (40 + random.nextInt(48)));
+			long durationMinutes = 60 + 30L * random.nextInt(7);
+			String location = location(random);
+			String id = String.format("synthetic%08d", series);
+			for (int instance = 0; instance < length; instance++) {
+				JSONObject event = new JSONObject();
+				event.put("kind", "calendar#event");
+				ZonedDateTime original = first.plusWeeks(instance);
+				ZonedDateTime eventStart = original;
+				if (recurring) {
+					event.put("id", String.format("%s_%s", id, original.withZoneSameInstant(ZoneId.of("UTC")).format(INSTANCE_ID_FORMAT)));
+					event.put("recurringEventId", id);
+					event.put("originalStartTime", dateTime(original));
+					if (random.nextDouble() < MOVED_INSTANCE_CHANCE) {
+						eventStart = original.plusMinutes(30L * (1 + random.nextInt(6)));
+					}
+				} else {
+					event.put("id", id);
+				}
+				event.put("status", random.nextDouble() < CANCELLED_CHANCE ? "cancelled" : "confirmed");
+				event.put("summary", "Stavi's Food Truck");
+				event.put("location", location);
+				event.put("start", dateTime(eventStart));
+				event.put("end", dateTime(eventStart.plusMinutes(durationMinutes)));
+				if (written > 0) {
+					out.write(',');
+				}
+				out.write(event.toString());
+				written++;
+			}
+		}
+		out.write("]}");
+		out.flush();
+	}
+
+	// the same seed always starts on the same day, and different seeds on different days of the year
+	private static ZonedDateTime defaultStart(long seed) {
+		return FIRST_DEFAULT_START.plusDays(Math.floorMod(seed, DEFAULT_START_DAYS));
+	}
+
+	private static JSONObject dateTime(ZonedDateTime dateTime) {
+		JSONObject object = new JSONObject();
+		object.put("dateTime", dateTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+		object.put("timeZone", dateTime.getZone().getId());
+		return object;
+	}
+
+	private static String location(Random random) {
+		String location = String.format("%s, %d %s", VENUES.get(random.nextInt(VENUES.size())), 1 + random.nextInt(9999),
+				STREETS.get(random.nextInt(STREETS.size())));
+		if (random.nextDouble() < LONG_LOCATION_CHANCE) {
+			location = location.concat(DIRECTIONS.repeat(1 + random.nextInt(MAX_DIRECTION_REPEATS)));
+		}
+		return location;
+	}
+
+	public static final class Builder {
+		private int events = 1000;
+		private long seed = 1;
+		private ZonedDateTime start;
+		private int days = 14;
+
+		private Builder() {}
+
+		public Builder events(int events) {
+			this.events = events;
+			return this;
+		}
+
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/** The start of the period the events are spread over, by default a day in 2024 that depends on the seed */
+		public Builder start(ZonedDateTime start) {
+			this.start = start;
+			return this;
+		}
+
+		/** The length of the period the events are spread over */
+		public Builder days(int days) {
+			this.days = days;
+			return this;
+		}
+
+		public SyntheticCalendarGenerator build() {
+			if (events < 0 || days < 1) {
+				throw new IllegalStateException(String.format("Cannot generate %d event(s) over %d day(s)", events, days));
+			}
+			return new SyntheticCalendarGenerator(this);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.john.utils.providers.secrets;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.secrets.SecretProvider.Secret;
+
+/**
+ * Holds secrets for a limited amount of time. Values are kept in direct (off-heap) buffers instead of
+ * <code>String</code> objects, and every buffer is overwritten with zeros once the lease expires. The lease
+ * starts when secrets are first stored and is not extended by reads, so secrets in frequent use are still
+ * re-read from disk once per lease. The cache keeps no <code>String</code> of its own: every read decodes the
+ * buffer into a new one for the caller, and the byte arrays used to fill and read the buffers are zeroed.
+ */
+final class LeasedSecretCache {
+	private static final AppLogger log = AppLogger.getLogger(LeasedSecretCache.class.getCanonicalName());
+
+	private final Duration lease;
+	private final ScheduledExecutorService reaper;
+	private final Map<Secret, ByteBuffer> values;
+	private ScheduledFuture<?> expiry;
+
+	LeasedSecretCache(Duration lease) {
+		this.lease = lease;
+		this.values = new EnumMap<>(Secret.class);
+		this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "secret-lease-reaper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/** Returns the secret if it is held by a live lease */
+	synchronized Optional<String> get(Secret secret) {
+		ByteBuffer value = values.get(secret);
+		if (value == null) {
+			return Optional.empty();
+		}
+		byte[] bytes = new byte[value.capacity()];
+		value.duplicate().clear().get(bytes);
+		try {
+			return Optional.of(new String(bytes, UTF_8));
+		} finally {
+			Arrays.fill(bytes, (byte) 0);
+		}
+	}
+
+	/** Stores the given secrets and starts a new lease if none is active */
+	synchronized void lease(Map<Secret, String> secrets) {
+		for (Map.Entry<Secret, String> secret : secrets.entrySet()) {
+			byte[] bytes = secret.getValue().getBytes(UTF_8);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+			Arrays.fill(bytes, (byte) 0);
+			zero(values.put(secret.getKey(), buffer));
+		}
+		if (expiry == null) {
+			expiry = reaper.schedule(this::expire, lease.toMillis(), TimeUnit.MILLISECONDS);
+			log.fine("Leased {0} secret(s) for {1} second(s)", values.size(), lease.getSeconds());
+		}
+	}
+
+	/** Zeroes and drops every held secret, ending the current lease */
+	synchronized void expire() {
+		values.values().forEach(LeasedSecretCache::zero);
+		values.clear();
+		if (expiry != null) {
+			expiry.cancel(false);
+			expiry = null;
+		}
+		log.fine("Secret lease expired --> cached secrets have been zeroed");
+	}
+
+	private static void zero(ByteBuffer buffer) {
+		if (buffer != null) {
+			for (int i = 0; i < buffer.capacity(); i++) {
+				buffer.put(i, (byte) 0);
+			}
+		}
+	}
+}
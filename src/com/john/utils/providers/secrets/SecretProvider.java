@@ -5,12 +5,17 @@ import static com.john.utils.providers.RuntimeArgumentProvider.RuntimeArgument.S
 import static com.john.utils.providers.RuntimeArgumentProvider.RuntimeArgument.CACHE_SECRETS;
 import static com.john.utils.providers.RuntimeArgumentProvider.RuntimeArgument.EAGER_LOAD_SECRETS;
 import static com.john.utils.providers.RuntimeArgumentProvider.RuntimeArgument.DELETE_SECRETS_ON_LOAD;
+import static com.john.utils.providers.RuntimeArgumentProvider.RuntimeArgument.SECRETS_LEASE_SECONDS;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.logging.Logger;
 
+import com.john.utils.logging.AppLogger;
 import com.john.utils.providers.RuntimeArgumentProvider;
 
 /**
@@ -19,21 +24,25 @@ import com.john.utils.providers.RuntimeArgumentProvider;
  * will attempt to retrieve the requested secret each time and will not cache secrets. This prevents secrets from
  * living indefinitely in the heap which can introduce vulnerabilities during heap dumps. If "cache-secrets" is
  * <code>true</code>, this provider will only retrieve secrets once, and all future attempts to retrieve secrets
- * will return the original secrets.
+ * will return the original secrets. If "cache-secrets" is off but "secrets-lease-seconds" is provided, secrets are
+ * held off-heap by a <code>LeasedSecretCache</code> and zeroed once the lease expires. Callers needing several
+ * secrets at once should use <code>getSecrets</code>, which resolves all of them with a single read.
  */
 public final class SecretProvider {
-	private static final Logger log = Logger.getLogger(SecretProvider.class.getCanonicalName());
+	private static final AppLogger log = AppLogger.getLogger(SecretProvider.class.getCanonicalName());
 	private static final String SECRETS_FILE_LOCATION;
+	private static final LeasedSecretCache LEASED_SECRETS;
 	
 	private static Properties SECRETS;
 	
 	static {
 		if (RuntimeArgumentProvider.hasArgumentValue(SECRETS_LOCATION)) {
 			SECRETS_FILE_LOCATION = RuntimeArgumentProvider.getArgumentValue(SECRETS_LOCATION);
+			LEASED_SECRETS = createLeasedSecretCache();
 			if (RuntimeArgumentProvider.getBooleanArgumentValue(EAGER_LOAD_SECRETS)) {
 				try {
 					log.info("Eager loading of secrets enabled --> Loading secrets now");
-					if (!RuntimeArgumentProvider.getBooleanArgumentValue(CACHE_SECRETS)) {
+					if (!cachesSecrets()) {
 						log.warning("Secrets are being eagerly loaded, yet secrets caching is disabled. The eager loading has no effect.");
 					}
 					loadSecrets();
@@ -47,19 +56,68 @@ public final class SecretProvider {
 		}
 	}
 	
+	/**
+	 * Makes sure the secrets location is known, and loads the secrets now if they are eagerly loaded. Both already
+	 * happen the first time this class is used, so invoking this only moves that work to a time of the caller's choosing.
+	 */
+	public static void init() {
+		log.fine("Secrets will be read from {0}", SECRETS_FILE_LOCATION);
+	}
+	
 	public static String getSecret(Secret secret) throws MissingSecretException {
-		Properties secrets = loadSecrets();
-		if (secrets.containsKey(secret.getPropertyName()) && !secrets.getProperty(secret.getPropertyName()).isBlank()) {
-			return secrets.getProperty(secret.getPropertyName());
-		}
-		throw new MissingSecretException(secret.toString().concat(" was not found!"));
+		return getSecrets(secret).get(secret);
 	}
 	
 	public static int getIntSecret(Secret secret) throws MissingSecretException {
 		return Integer.parseInt(getSecret(secret));
 	}
 	
-	private static Properties loadSecrets() throws MissingSecretException {
+	/**
+	 * Resolves every requested secret with at most one read of the secrets file. If any of them is
+	 * missing, a <code>MissingSecretException</code> is thrown and none are returned.
+	 */
+	public static Map<Secret, String> getSecrets(Secret... requested) throws MissingSecretException {
+		Map<Secret, String> resolved = new EnumMap<>(Secret.class);
+		if (LEASED_SECRETS != null) {
+			for (Secret secret : requested) {
+				LEASED_SECRETS.get(secret).ifPresent(value -> resolved.put(secret, value));
+			}
+			if (resolved.size() == requested.length) {
+				return resolved;
+			}
+		}
+		Properties secrets = loadSecrets();
+		for (Secret secret : requested) {
+			if (!secrets.containsKey(secret.getPropertyName()) || secrets.getProperty(secret.getPropertyName()).isBlank()) {
+				throw new MissingSecretException(secret.toString().concat(" was not found!"));
+			}
+			resolved.put(secret, secrets.getProperty(secret.getPropertyName()));
+		}
+		return resolved;
+	}
+	
+	/** Returns <code>true</code> if secrets are cached for the lifetime of the application */
+	public static boolean cachesSecrets() {
+		return RuntimeArgumentProvider.getBooleanArgumentValue(CACHE_SECRETS);
+	}
+	
+	private static LeasedSecretCache createLeasedSecretCache() {
+		if (cachesSecrets() || !RuntimeArgumentProvider.hasArgumentValue(SECRETS_LEASE_SECONDS)) {
+			return null;
+		}
+		long leaseSeconds = Long.parseLong(RuntimeArgumentProvider.getArgumentValue(SECRETS_LEASE_SECONDS));
+		if (leaseSeconds <= 0) {
+			return null;
+		}
+		log.info("Secret leasing enabled --> secrets will be held for {0} second(s) at a time", leaseSeconds);
+		if (RuntimeArgumentProvider.getBooleanArgumentValue(DELETE_SECRETS_ON_LOAD)) {
+			log.warning("Secrets are leased, yet the secrets file is deleted on load. Secrets will be unavailable once the first lease expires.");
+		}
+		return new LeasedSecretCache(Duration.ofSeconds(leaseSeconds));
+	}
+	
+	// synchronized, so concurrent callers never race to read a secrets file that is deleted on load
+	private static synchronized Properties loadSecrets() throws MissingSecretException {
 		if (SECRETS != null) {
 			log.fine("Secrets are cached --> returning cached secrets");
 			return SECRETS;
@@ -80,12 +138,23 @@ public final class SecretProvider {
 				}
 			}
 		}
-		if (RuntimeArgumentProvider.getBooleanArgumentValue(CACHE_SECRETS)) {
+		if (cachesSecrets()) {
 			SECRETS = secrets;
 			log.fine("Secret caching is enabled --> secrets cached successfully");
+		} else if (LEASED_SECRETS != null) {
+			LEASED_SECRETS.lease(toSecretMap(secrets));
 		}
 		return secrets;
 	}
+	
+	private static Map<Secret, String> toSecretMap(Properties secrets) {
+		Map<Secret, String> known = new EnumMap<>(Secret.class);
+		for (Secret secret : Secret.values()) {
+			Optional.ofNullable(secrets.getProperty(secret.getPropertyName())).filter(value -> !value.isBlank())
+					.ifPresent(value -> known.put(secret, value));
+		}
+		return known;
+	}
 
 	public static enum Secret {
 		AES_PRIVATE_KEY("aes.private_key"),
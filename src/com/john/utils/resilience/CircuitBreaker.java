@@ -0,0 +1,107 @@
+package com.john.utils.resilience;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.metrics.MetricsRegistry;
+
+/**
+ * Tracks consecutive failures of an <code>Endpoint</code>. Once they reach the failure threshold the breaker opens
+ * and calls are rejected straight away, so a brownout costs nothing instead of a full timeout per call. After the
+ * open duration a single trial call is let through (half open): if it succeeds the breaker closes again, otherwise
+ * it opens for another open duration.
+ */
+public final class CircuitBreaker {
+	private static final AppLogger log = AppLogger.getLogger(CircuitBreaker.class.getCanonicalName());
+
+	public static enum State {
+		CLOSED(0), OPEN(2), HALF_OPEN(1);
+
+		private final int gaugeValue;
+
+		private State(int gaugeValue) {
+			this.gaugeValue = gaugeValue;
+		}
+
+		/** Returns the value the state is exported as, which orders the states by how much traffic they reject */
+		public int getGaugeValue() {
+			return gaugeValue;
+		}
+	}
+
+	private final Endpoint endpoint;
+
+	// guarded by this
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAtNanos;
+	private boolean trialInFlight;
+
+	CircuitBreaker(Endpoint endpoint) {
+		this.endpoint = endpoint;
+		MetricsRegistry.gauge("stavis_circuit_breaker_state", "Circuit breaker state: 0 closed, 1 half open, 2 open",
+				() -> getState().getGaugeValue(), "endpoint", endpoint.name().toLowerCase());
+		MetricsRegistry.gauge("stavis_circuit_breaker_consecutive_failures", "Consecutive failed calls to an endpoint",
+				this::getConsecutiveFailures, "endpoint", endpoint.name().toLowerCase());
+	}
+
+	/** Returns <code>true</code> if a call may be made now, which must then be reported as a success or failure */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if (System.nanoTime() - openedAtNanos < endpoint.getOpenDuration().toNanos()) {
+				return false;
+			}
+			transition(State.HALF_OPEN);
+			trialInFlight = true;
+			return true;
+		case HALF_OPEN:
+		default:
+			if (trialInFlight) {
+				return false;
+			}
+			trialInFlight = true;
+			return true;
+		}
+	}
+
+	synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		trialInFlight = false;
+		if (state != State.CLOSED) {
+			transition(State.CLOSED);
+		}
+	}
+
+	/** Releases a call that was acquired but never reached the endpoint, without recording an outcome */
+	synchronized void onAborted() {
+		trialInFlight = false;
+	}
+
+	synchronized void onFailure() {
+		consecutiveFailures++;
+		trialInFlight = false;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= endpoint.getFailureThreshold())) {
+			openedAtNanos = System.nanoTime();
+			transition(State.OPEN);
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	private void transition(State next) {
+		if (next == State.OPEN) {
+			log.warning("Circuit breaker for {0} opened after {1} consecutive failure(s) --> calls will be rejected for {2}",
+					endpoint, consecutiveFailures, endpoint.getOpenDuration());
+		} else {
+			log.info("Circuit breaker for {0} is now {1}", endpoint, next);
+		}
+		state = next;
+	}
+}
@@ -0,0 +1,10 @@
+package com.john.utils.resilience;
+
+/** Thrown without calling an <code>Endpoint</code> while its circuit breaker is open */
+public class CircuitOpenException extends ResilienceException {
+	private static final long serialVersionUID = -2975416312894381537L;
+
+	CircuitOpenException(String message) {
+		super(message);
+	}
+}
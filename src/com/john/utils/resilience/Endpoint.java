@@ -0,0 +1,82 @@
+package com.john.utils.resilience;
+
+import java.time.Duration;
+
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * The remote services this application depends on. Each has its own timeout, retry budget and
+ * <code>CircuitBreaker</code>, configured through properties and read on every call, so they can be tuned while
+ * the application is running.
+ */
+public enum Endpoint {
+	CALENDAR("Google Calendar", Property.RESILIENCE_CALENDAR_TIMEOUT_SECONDS, Property.RESILIENCE_CALENDAR_ATTEMPTS,
+			Property.RESILIENCE_CALENDAR_FAILURE_THRESHOLD, Property.RESILIENCE_CALENDAR_OPEN_SECONDS, 10, true),
+	OAUTH("Google OAuth", Property.RESILIENCE_OAUTH_TIMEOUT_SECONDS, Property.RESILIENCE_OAUTH_ATTEMPTS,
+			Property.RESILIENCE_OAUTH_FAILURE_THRESHOLD, Property.RESILIENCE_OAUTH_OPEN_SECONDS, 10, true),
+	SMTP("SMTP", Property.RESILIENCE_SMTP_TIMEOUT_SECONDS, Property.RESILIENCE_SMTP_ATTEMPTS,
+			Property.RESILIENCE_SMTP_FAILURE_THRESHOLD, Property.RESILIENCE_SMTP_OPEN_SECONDS, 30, false);
+
+	private static final int DEFAULT_ATTEMPTS = 3;
+	private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	private static final long DEFAULT_OPEN_SECONDS = 60;
+
+	private final String displayName;
+	private final Property timeout;
+	private final Property attempts;
+	private final Property failureThreshold;
+	private final Property openTime;
+	private final long defaultTimeoutSeconds;
+	private final boolean idempotent;
+	private final CircuitBreaker circuitBreaker;
+
+	Endpoint(String displayName, Property timeout, Property attempts, Property failureThreshold, Property openTime,
+			long defaultTimeoutSeconds, boolean idempotent) {
+		this.displayName = displayName;
+		this.timeout = timeout;
+		this.attempts = attempts;
+		this.failureThreshold = failureThreshold;
+		this.openTime = openTime;
+		this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+		this.idempotent = idempotent;
+		this.circuitBreaker = new CircuitBreaker(this);
+	}
+
+	/** The longest a single attempt may take */
+	public Duration getTimeout() {
+		return Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(timeout, defaultTimeoutSeconds));
+	}
+
+	/** How many times a call is attempted before giving up, including the first attempt */
+	public int getMaxAttempts() {
+		return Math.max(1, ApplicationPropertyProvider.getIntProperty(attempts, DEFAULT_ATTEMPTS));
+	}
+
+	/** How many consecutive failed attempts open the circuit breaker */
+	public int getFailureThreshold() {
+		return Math.max(1, ApplicationPropertyProvider.getIntProperty(failureThreshold, DEFAULT_FAILURE_THRESHOLD));
+	}
+
+	/** How long the circuit breaker stays open before letting a trial call through */
+	public Duration getOpenDuration() {
+		return Duration.ofSeconds(ApplicationPropertyProvider.getLongProperty(openTime, DEFAULT_OPEN_SECONDS));
+	}
+
+	/**
+	 * Whether repeating a call that failed halfway is harmless. Sending an email is not, as the server may have
+	 * accepted the message before the failure was noticed.
+	 */
+	public boolean isIdempotent() {
+		return idempotent;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+}
@@ -0,0 +1,113 @@
+package com.john.utils.resilience;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.john.utils.logging.AppLogger;
+import com.john.utils.providers.ApplicationPropertyProvider;
+import com.john.utils.providers.ApplicationPropertyProvider.Property;
+
+/**
+ * Runs calls to an <code>Endpoint</code> through its <code>CircuitBreaker</code>, retrying failed attempts with
+ * exponential backoff and full jitter: before retry <code>n</code> the caller sleeps a random time of up to
+ * <code>min(maxbackoff, backoff * 2^n)</code>, so retries from many callers do not arrive together. Any exception
+ * thrown by the call counts as a failed attempt, except a <code>ThrottledException</code>, which is passed on as is.
+ * Timeouts are enforced by the calls themselves, using <code>Endpoint.getTimeout</code>. Calls to an endpoint that is
+ * not idempotent are only retried when they failed to connect, as any later failure may have come after the remote
+ * side acted on the call.
+ */
+public final class Resilience {
+	private static final AppLogger log = AppLogger.getLogger(Resilience.class.getCanonicalName());
+	private static final long DEFAULT_BACKOFF_MILLIS = 500;
+	private static final long DEFAULT_MAX_BACKOFF_MILLIS = 10_000;
+
+	private Resilience() {}
+
+	/**
+	 * Calls the given operation against the given endpoint, and returns its result.
+	 * @throws CircuitOpenException if the circuit breaker of the endpoint rejected the call
+	 * @throws ResilienceException if every attempt failed
+	 */
+	public static <T> T call(Endpoint endpoint, Callable<T> operation) {
+		CircuitBreaker breaker = endpoint.getCircuitBreaker();
+		int maxAttempts = endpoint.getMaxAttempts();
+		for (int attempt = 1; ; attempt++) {
+			if (!breaker.tryAcquire()) {
+				throw new CircuitOpenException(String.format("Circuit breaker for %s is open", endpoint));
+			}
+			boolean reported = false;
+			try {
+				T result = operation.call();
+				reported = true;
+				breaker.onSuccess();
+				return result;
+			} catch (ThrottledException e) {
+				reported = true;
+				breaker.onAborted();
+				throw e;
+			} catch (InterruptedException e) {
+				reported = true;
+				breaker.onFailure();
+				Thread.currentThread().interrupt();
+				throw new ResilienceException(String.format("Interrupted while calling %s", endpoint), e);
+			} catch (Exception e) {
+				reported = true;
+				breaker.onFailure();
+				if (!endpoint.isIdempotent() && !isConnectionFailure(e)) {
+					throw new ResilienceException(String.format("%s failed after %d attempt(s), and is not retried as the "
+							+ "call may have taken effect", endpoint, attempt), e);
+				}
+				// no point in waiting for a retry that the breaker would reject
+				if (attempt >= maxAttempts || breaker.getState() == CircuitBreaker.State.OPEN) {
+					throw new ResilienceException(String.format("%s failed after %d attempt(s)", endpoint, attempt), e);
+				}
+				long backoff = backoffMillis(attempt);
+				log.warning("{0} call failed (attempt {1} of {2}) due to [{3}] --> retrying in {4}ms", endpoint,
+						attempt, maxAttempts, e.getMessage(), backoff);
+				sleep(endpoint, backoff, e);
+			} finally {
+				// an Error must not leave a half open breaker waiting for a trial that never reports back
+				if (!reported) {
+					breaker.onFailure();
+				}
+			}
+		}
+	}
+
+	/** Runs the given operation against the given endpoint, as with <code>call</code> */
+	public static void run(Endpoint endpoint, Runnable operation) {
+		call(endpoint, () -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	// failures to reach the remote side at all, which no request was sent before
+	private static boolean isConnectionFailure(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConnectException || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long backoffMillis(int attempt) {
+		long base = ApplicationPropertyProvider.getLongProperty(Property.RESILIENCE_BACKOFF_MILLIS, DEFAULT_BACKOFF_MILLIS);
+		long max = ApplicationPropertyProvider.getLongProperty(Property.RESILIENCE_MAX_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS);
+		long ceiling = Math.min(max, base << Math.min(attempt - 1, 30));
+		return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	private static void sleep(Endpoint endpoint, long millis, Exception failure) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResilienceException(String.format("Interrupted while waiting to retry %s", endpoint), failure);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.john.utils.resilience;
+
+/**
+ * Thrown when a call to an <code>Endpoint</code> could not be completed, either because every attempt failed or
+ * because the circuit breaker of the endpoint rejected it. The cause is the failure of the last attempt, if any.
+ */
+public class ResilienceException extends RuntimeException {
+	private static final long serialVersionUID = 4308207725826155210L;
+
+	ResilienceException(String message) {
+		super(message);
+	}
+
+	ResilienceException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,14 @@
+package com.john.utils.resilience;
+
+/**
+ * Thrown when a call was not attempted because a local rate limit did not grant it a permit in time. The remote
+ * service was never contacted, so this does not count against the circuit breaker of its <code>Endpoint</code>,
+ * and the call is not retried.
+ */
+public class ThrottledException extends ResilienceException {
+	private static final long serialVersionUID = 6520375236139146127L;
+
+	public ThrottledException(String message) {
+		super(message);
+	}
+}